@@ -1,9 +1,21 @@
 package com.leegern.xrocketmq5.autoconfigure;
 
 import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodec;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
 import com.leegern.xrocketmq5.core.consumer.XRocketMQConsumerBeanPostProcessor;
+import com.leegern.xrocketmq5.core.consumer.idempotent.XRocketMQConsumerIdempotentMeterBinder;
+import com.leegern.xrocketmq5.core.consumer.idempotent.XRocketMQConsumerIdempotentRegistry;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQMetrics;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQMicrometerMetrics;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerBeanDefinitionRegistryPostProcessor;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerWarmUp;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightControl;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightMeterBinder;
+import com.leegern.xrocketmq5.core.producer.journal.XRocketMQProducerJournal;
+import com.leegern.xrocketmq5.core.producer.journal.XRocketMQProducerJournalReplayer;
 import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -11,6 +23,10 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Objects;
+
 /**
  * rocketmq自动配置
  */
@@ -22,19 +38,95 @@ public class XRocketMQAutoConfiguration {
 
     /**
      * 生产者前置处理器
-     * @param rocketMQProperties 生产者属性配置
+     *          静态方法且不注入XRocketMQProperties, 避免属性配置bean在BeanPostProcessor注册前被实例化而未绑定配置,
+     *          包扫描路径由处理器从环境变量中绑定
      * @return
      */
     @Bean(XRocketMQConstants.BEAN_NAME_PRODUCER_REGISTER_POST_PROCESSOR)
     @ConditionalOnClass(XRocketMQProperties.class)
     @ConditionalOnMissingBean(XRocketMQProducerBeanDefinitionRegistryPostProcessor.class)
-    public XRocketMQProducerBeanDefinitionRegistryPostProcessor newDWRocketMQProducerBeanDefinitionRegistryPostProcessor(
-            XRocketMQProperties rocketMQProperties
-    ) {
-        XRocketMQProducerBeanDefinitionRegistryPostProcessor definitionRegistryPostProcessor = new XRocketMQProducerBeanDefinitionRegistryPostProcessor();
-        // 生产者接口包路径
-        definitionRegistryPostProcessor.setScanBasePackage(rocketMQProperties.getProducer().getScanBasePackage());
-        return definitionRegistryPostProcessor;
+    public static XRocketMQProducerBeanDefinitionRegistryPostProcessor newDWRocketMQProducerBeanDefinitionRegistryPostProcessor() {
+        return new XRocketMQProducerBeanDefinitionRegistryPostProcessor();
+    }
+
+    /**
+     * 生产者启动预热
+     * @param producerPostProcessor 生产者前置处理器(持有生产者实例)
+     * @param rocketMQProperties    属性配置
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = XRocketMQConstants.ROCKETMQ_KEY_PRODUCER_WARM_UP, havingValue = "true", matchIfMissing = false)
+    @ConditionalOnMissingBean(XRocketMQProducerWarmUp.class)
+    public XRocketMQProducerWarmUp newXRocketMQProducerWarmUp(XRocketMQProducerBeanDefinitionRegistryPostProcessor producerPostProcessor,
+                                                              XRocketMQProperties rocketMQProperties) {
+        return new XRocketMQProducerWarmUp(producerPostProcessor.getProducerHolder(), rocketMQProperties);
+    }
+
+    /**
+     * 生产者异步发送在途窗口管理
+     * @param rocketMQProperties 属性配置
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean(XRocketMQProducerInFlightControl.class)
+    public XRocketMQProducerInFlightControl newXRocketMQProducerInFlightControl(XRocketMQProperties rocketMQProperties) {
+        return new XRocketMQProducerInFlightControl(rocketMQProperties.getProducer());
+    }
+
+    /**
+     * 生产者本地日志(发送失败及在途窗口溢出的消息)
+     * @param rocketMQProperties 属性配置
+     * @return
+     * @throws IOException
+     */
+    @Bean
+    @ConditionalOnProperty(name = XRocketMQConstants.ROCKETMQ_KEY_PRODUCER_JOURNAL_ENABLED, havingValue = "true", matchIfMissing = false)
+    @ConditionalOnMissingBean(XRocketMQProducerJournal.class)
+    public XRocketMQProducerJournal newXRocketMQProducerJournal(XRocketMQProperties rocketMQProperties) throws IOException {
+        XRocketMQProperties.XRocketMQJournalProperties journalProperties = rocketMQProperties.getProducer().getJournal();
+        return new XRocketMQProducerJournal(Paths.get(journalProperties.getDirectory()), journalProperties.getSegmentSize(),
+                Objects.isNull(journalProperties.getMaxBytes()) ? XRocketMQConstants.JOURNAL_MAX_BYTES : journalProperties.getMaxBytes(),
+                Boolean.TRUE.equals(journalProperties.getForceOnAppend()));
+    }
+
+    /**
+     * 生产者本地日志重放
+     * @param journal               生产者本地日志
+     * @param producerPostProcessor 生产者前置处理器(持有生产者实例)
+     * @param rocketMQProperties    属性配置
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = XRocketMQConstants.ROCKETMQ_KEY_PRODUCER_JOURNAL_ENABLED, havingValue = "true", matchIfMissing = false)
+    @ConditionalOnMissingBean(XRocketMQProducerJournalReplayer.class)
+    public XRocketMQProducerJournalReplayer newXRocketMQProducerJournalReplayer(XRocketMQProducerJournal journal,
+                                                                                XRocketMQProducerBeanDefinitionRegistryPostProcessor producerPostProcessor,
+                                                                                XRocketMQProperties rocketMQProperties) {
+        return new XRocketMQProducerJournalReplayer(journal, producerPostProcessor.getProducerHolder(), rocketMQProperties);
+    }
+
+    /**
+     * 消息编解码器注册表(容器中的自定义编解码器可覆盖同名内置编解码器)
+     * @param customCodecs       自定义编解码器
+     * @param rocketMQProperties 属性配置
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean(XRocketMQMessageCodecRegistry.class)
+    public XRocketMQMessageCodecRegistry newXRocketMQMessageCodecRegistry(ObjectProvider<XRocketMQMessageCodec> customCodecs,
+                                                                          XRocketMQProperties rocketMQProperties) {
+        return new XRocketMQMessageCodecRegistry(customCodecs.orderedStream().toList(), rocketMQProperties.getProducer().getCodec());
+    }
+
+    /**
+     * 消费幂等监听器注册表
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean(XRocketMQConsumerIdempotentRegistry.class)
+    public XRocketMQConsumerIdempotentRegistry newXRocketMQConsumerIdempotentRegistry() {
+        return new XRocketMQConsumerIdempotentRegistry();
     }
 
     /**
@@ -44,9 +136,51 @@ public class XRocketMQAutoConfiguration {
     @Bean(XRocketMQConstants.BEAN_NAME_CONSUMER_POST_PROCESSOR)
     @ConditionalOnClass(XRocketMQProperties.class)
     @ConditionalOnMissingBean(XRocketMQConsumerBeanPostProcessor.class)
-    public XRocketMQConsumerBeanPostProcessor newDWRocketMQConsumerBeanPostProcessor() {
+    public static XRocketMQConsumerBeanPostProcessor newDWRocketMQConsumerBeanPostProcessor() {
         return new XRocketMQConsumerBeanPostProcessor();
     }
 
 
+    /**
+     * 指标配置(存在micrometer时生效)
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class XRocketMQMetricsConfiguration {
+
+        /**
+         * 生产者在途窗口指标
+         * @param inFlightControl 在途窗口管理
+         * @return
+         */
+        @Bean
+        @ConditionalOnMissingBean(XRocketMQProducerInFlightMeterBinder.class)
+        public XRocketMQProducerInFlightMeterBinder newXRocketMQProducerInFlightMeterBinder(XRocketMQProducerInFlightControl inFlightControl) {
+            return new XRocketMQProducerInFlightMeterBinder(inFlightControl);
+        }
+
+        /**
+         * 消费幂等指标
+         * @param idempotentRegistry 幂等监听器注册表
+         * @return
+         */
+        @Bean
+        @ConditionalOnMissingBean(XRocketMQConsumerIdempotentMeterBinder.class)
+        public XRocketMQConsumerIdempotentMeterBinder newXRocketMQConsumerIdempotentMeterBinder(XRocketMQConsumerIdempotentRegistry idempotentRegistry) {
+            return new XRocketMQConsumerIdempotentMeterBinder(idempotentRegistry);
+        }
+
+        /**
+         * 生产者发送及消费者消费指标(同时作为MeterBinder绑定到容器注册表)
+         * @param rocketMQProperties 属性配置
+         * @return
+         */
+        @Bean
+        @ConditionalOnProperty(name = XRocketMQConstants.ROCKETMQ_KEY_METRICS_ENABLED, havingValue = "true", matchIfMissing = true)
+        @ConditionalOnMissingBean(XRocketMQMetrics.class)
+        public XRocketMQMicrometerMetrics newXRocketMQMicrometerMetrics(XRocketMQProperties rocketMQProperties) {
+            XRocketMQProperties.XRocketMQMetricsProperties metricsProperties = rocketMQProperties.getMetrics();
+            return new XRocketMQMicrometerMetrics(metricsProperties.getHistogram(), metricsProperties.getMaxTagValues());
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package com.leegern.xrocketmq5.benchmark;
+
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerInvoker;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerInvokerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.BridgeMethodResolver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消费方法调用方式对比
+ *          reflection:   每条消息解析桥接方法后反射调用(调用器之前的实现)
+ *          methodHandle: MethodHandle调用器(LambdaMetafactory无法生成时的退化方式)
+ *          lambda:       XRocketMQConsumerInvokerFactory生成的调用器
+ *          direct:       直接方法调用(基准)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class XRocketMQConsumerInvokerBenchmark {
+
+    /* 消费监听器 */
+    private OrderListener bean;
+
+    /* 消息参数 */
+    private String message;
+
+    /* 消费方法 */
+    private Method method;
+
+    /* MethodHandle调用器 */
+    private XRocketMQConsumerInvoker methodHandleInvoker;
+
+    /* LambdaMetafactory调用器 */
+    private XRocketMQConsumerInvoker lambdaInvoker;
+
+
+    @Setup
+    public void setup() throws Exception {
+        this.bean     =  new OrderListener();
+        this.message  =  "order-" + System.nanoTime();
+        this.method   =  OrderListener.class.getMethod("consume", String.class);
+
+        // 与XRocketMQConsumerInvokerFactory的退化方式相同: 句柄适配为(Object,Object)Object后由lambda持有
+        final MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        this.methodHandleInvoker = (target, msg) -> {
+            try {
+                return handle.invokeExact(target, msg);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        this.lambdaInvoker = XRocketMQConsumerInvokerFactory.create(method);
+    }
+
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return BridgeMethodResolver.findBridgedMethod(method).invoke(bean, message);
+    }
+
+    @Benchmark
+    public Object methodHandle() throws Exception {
+        return methodHandleInvoker.invoke(bean, message);
+    }
+
+    @Benchmark
+    public Object lambda() throws Exception {
+        return lambdaInvoker.invoke(bean, message);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return bean.consume(message);
+    }
+
+
+    /**
+     * 消费监听器
+     */
+    public static class OrderListener {
+
+        public Integer consume(String message) {
+            return message.length();
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.leegern.xrocketmq5.core;
 
+import com.leegern.xrocketmq5.core.enums.ConsumeExecutorType;
+import com.leegern.xrocketmq5.core.enums.IdempotentKeyType;
+import com.leegern.xrocketmq5.core.enums.InFlightOverflowPolicy;
+import com.leegern.xrocketmq5.core.enums.ProducerRoutingStrategy;
+
 public class XRocketMQConstants {
 
     /* rocketmq基础属性配置 */
     public static final String ROCKETMQ_KEY_PREFIX        =     "rocketmq.";
     public static final String ROCKETMQ_KEY_ENABLED       =     ROCKETMQ_KEY_PREFIX + "enabled";
+    public static final String ROCKETMQ_KEY_PRODUCER_WARM_UP =  ROCKETMQ_KEY_PREFIX + "producer.warmUp";
+    public static final String ROCKETMQ_KEY_METRICS_ENABLED  =  ROCKETMQ_KEY_PREFIX + "metrics.enabled";
+    public static final String ROCKETMQ_KEY_PRODUCER_JOURNAL_ENABLED = ROCKETMQ_KEY_PREFIX + "producer.journal.enabled";
 
 
     /* bean name */
@@ -14,20 +22,88 @@ public class XRocketMQConstants {
 
     /* 是否开启ssl */
     public static final Boolean SSL_ENABLED             =   false;
-    /* 消息消费重试次数 */
+    /* 消息消费本地重试次数(配置需要重试的异常类型后生效) */
     public static final Integer RETRY_CONSUME_TIMES     =   16;
     /* 消费并发度 */
     public static final Integer CONSUME_THREAD_NUM      =   20;
+    /* 消费线程类型 */
+    public static final ConsumeExecutorType CONSUME_EXECUTOR_TYPE = ConsumeExecutorType.PLATFORM;
+    /* 虚拟线程消费最大并发数 */
+    public static final Integer VIRTUAL_MAX_CONCURRENCY =   256;
+    /* 异步消费方法未完成的异步结果上限(SimpleConsumer) */
+    public static final Integer ASYNC_MAX_OUTSTANDING   =   1024;
+    /* 顺序消费通道数(0表示使用消费并发线程数) */
+    public static final Integer ORDERLY_LANES           =   0;
+    /* 顺序消费单个通道的队列上限 */
+    public static final Integer ORDERLY_LANE_CAPACITY   =   64;
+    /* 是否开启共享消费调度器 */
+    public static final Boolean SCHEDULER_ENABLED       =   false;
+    /* 共享消费调度器线程数 */
+    public static final Integer SCHEDULER_THREADS       =   64;
+    /* 共享消费调度器每个监听器的最小份额 */
+    public static final Integer SCHEDULER_MIN_SHARE     =   1;
+    /* 共享消费调度器每个监听器的最大份额(不大于0时为调度器线程数) */
+    public static final Integer SCHEDULER_MAX_SHARE     =   0;
+    /* 共享消费调度器每个监听器的权重 */
+    public static final Integer SCHEDULER_WEIGHT        =   1;
     /* 本地最大缓存条数 */
     public static final Integer MAX_CACHE_MSG_NUM       =   1024;
     /* 本地最大缓存大小(byte) */
     public static final Integer MAX_CACHE_MSG_SIZE      =   64 * 1024 * 1024;
     /* 消费请求超时时间 */
     public static final Integer CONSUME_REQUEST_TIMEOUT =   5 * 1000;
+    /* PushConsumer等待异步消费结果的超时时间(毫秒) */
+    public static final Integer ASYNC_CONSUME_TIMEOUT   =   30 * 1000;
     /* 消费者名连接符 */
     public static final String  CONSUMER_NAME_DELIMITER  =   ".";
     /* 默认的过滤标签 */
     public static final String DEFAULT_FILTER_EXPRESS    =   "*";
+    /* SimpleConsumer单次拉取最大消息条数 */
+    public static final Integer SIMPLE_RECEIVE_BATCH_SIZE      =   16;
+    /* SimpleConsumer长轮询最大等待时间(毫秒) */
+    public static final Integer SIMPLE_AWAIT_DURATION          =   20 * 1000;
+    /* SimpleConsumer拉取消息的不可见时间(毫秒) */
+    public static final Integer SIMPLE_INVISIBLE_DURATION      =   30 * 1000;
+    /* SimpleConsumer消费失败后的不可见时间(毫秒) */
+    public static final Integer SIMPLE_NACK_INVISIBLE_DURATION =   10 * 1000;
+    /* SimpleConsumer拉取失败后的重试间隔(毫秒) */
+    public static final Long    SIMPLE_RECEIVE_RETRY_DELAY     =   1000L;
+    /* 消费幂等键类型 */
+    public static final IdempotentKeyType IDEMPOTENT_KEY_TYPE =  IdempotentKeyType.MESSAGE_ID;
+    /* 消费幂等本地缓存最大条目数(每条16字节) */
+    public static final Integer IDEMPOTENT_CAPACITY            =   65536;
+    /* 消费幂等键保留时间(毫秒) */
+    public static final Long    IDEMPOTENT_TTL                 =   60 * 60 * 1000L;
+    /* 自适应并发下限 */
+    public static final Integer ADAPTIVE_MIN_CONCURRENCY       =   1;
+    /* 自适应并发平均耗时阈值(毫秒) */
+    public static final Long    ADAPTIVE_LATENCY_THRESHOLD     =   500L;
+    /* 自适应并发失败率阈值 */
+    public static final Double  ADAPTIVE_FAILURE_RATE_THRESHOLD =  0.1d;
+    /* 自适应并发下降比例 */
+    public static final Double  ADAPTIVE_BACKOFF_RATIO         =   0.7d;
+    /* 自适应并发统计窗口(毫秒) */
+    public static final Long    ADAPTIVE_WINDOW                =   1000L;
+    /* 本地重试首次间隔(毫秒) */
+    public static final Long    RETRY_INITIAL_BACKOFF          =   10L;
+    /* 本地重试最大间隔(毫秒) */
+    public static final Long    RETRY_MAX_BACKOFF              =   100L;
+    /* 本地重试间隔增长倍数 */
+    public static final Double  RETRY_MULTIPLIER               =   2.0d;
+    /* 本地重试随机抖动比例 */
+    public static final Double  RETRY_JITTER                   =   0.5d;
+    /* 本地重试总耗时上限(毫秒) */
+    public static final Long    RETRY_MAX_DURATION             =   200L;
+    /* 是否开启指标 */
+    public static final Boolean METRICS_ENABLED                =   true;
+    /* 是否发布耗时直方图 */
+    public static final Boolean METRICS_HISTOGRAM              =   true;
+    /* 指标每个标签最多的取值个数 */
+    public static final Integer METRICS_MAX_TAG_VALUES         =   100;
+    /* 批量消费最大消息条数(注解默认值) */
+    public static final int    CONSUME_BATCH_MAX_SIZE    =   32;
+    /* 批量消费最大等待时间(毫秒, 注解默认值) */
+    public static final long   CONSUME_BATCH_MAX_WAIT_MS =   100L;
 
     /* 生产者包路径连接符 */
     public static final String PRODUCER_PACKAGE_DELIMITER  =   ",";
@@ -45,6 +121,54 @@ public class XRocketMQConstants {
     public static final Integer MAX_MESSAGE_SIZE        =    4 * 1024 * 1024;
     /* 事务异常检查间隔 */
     public static final Integer CHECK_TX_INTERVAL       =    60 * 1000 ;
+    /* 批量发送最大消息条数 */
+    public static final Integer BATCH_MAX_COUNT         =    128;
+    /* 批量发送最大消息大小(byte) */
+    public static final Integer BATCH_MAX_BYTES         =    MAX_MESSAGE_SIZE;
+    /* 批量发送最大等待时间(毫秒) */
+    public static final Integer BATCH_LINGER_MS         =    10;
+    /* 公共生产者池客户端数量 */
+    public static final Integer PRODUCER_POOL_SIZE      =    1;
+    /* 公共生产者池路由策略 */
+    public static final ProducerRoutingStrategy PRODUCER_ROUTING_STRATEGY = ProducerRoutingStrategy.ROUND_ROBIN;
+    /* 生产者启动预热 */
+    public static final Boolean PRODUCER_WARM_UP        =    false;
+    /* 生产者启动预热超时时间(毫秒) */
+    public static final Integer PRODUCER_WARM_UP_TIMEOUT =   30 * 1000;
+    /* 异步发送最大在途消息条数(0表示不限制) */
+    public static final Integer IN_FLIGHT_MAX_REQUESTS  =    0;
+    /* 异步发送最大在途消息大小(byte, 0表示不限制) */
+    public static final Long    IN_FLIGHT_MAX_BYTES     =    0L;
+    /* 在途窗口已满时的处理策略 */
+    public static final InFlightOverflowPolicy IN_FLIGHT_OVERFLOW_POLICY = InFlightOverflowPolicy.BLOCK;
+    /* 在途窗口阻塞等待时间(毫秒) */
+    public static final Integer IN_FLIGHT_BLOCK_TIMEOUT =    SEND_MSG_TIMEOUT;
+    /* 在途窗口本地缓冲区最大消息条数 */
+    public static final Integer IN_FLIGHT_SPILL_CAPACITY =   10000;
+    /* 全局在途窗口名称 */
+    public static final String  IN_FLIGHT_GLOBAL_WINDOW =    "global";
+    /* 是否开启生产者本地日志 */
+    public static final Boolean JOURNAL_ENABLED         =    false;
+    /* 生产者本地日志目录 */
+    public static final String  JOURNAL_DIRECTORY       =    System.getProperty("user.home") + "/.xrocketmq/journal";
+    /* 生产者本地日志分段文件大小(byte) */
+    public static final Integer JOURNAL_SEGMENT_SIZE    =    64 * 1024 * 1024;
+    /* 生产者本地日志文件最大总大小(byte) */
+    public static final Long    JOURNAL_MAX_BYTES       =    1024L * 1024 * 1024;
+    /* 生产者本地日志每次追加后是否刷盘 */
+    public static final Boolean JOURNAL_FORCE_ON_APPEND =    false;
+    /* 生产者本地日志每秒最多重放条数 */
+    public static final Integer JOURNAL_REPLAY_RATE     =    100;
+    /* 生产者本地日志重放失败后的重试间隔(毫秒) */
+    public static final Integer JOURNAL_REPLAY_RETRY_INTERVAL = 5 * 1000;
+
+    /* 内置编解码器名称 */
+    public static final String  CODEC_JSON              =    "json";
+    public static final String  CODEC_SMILE             =    "smile";
+    public static final String  CODEC_CBOR              =    "cbor";
+    public static final String  CODEC_PROTOBUF          =    "protobuf";
+    /* 记录编解码器名称的消息属性 */
+    public static final String  CODEC_PROPERTY          =    "x-codec";
 
     // 默认的bean作用域
     public static final String  DEFAULT_BEAN_SCOPE      =   "singleton";
@@ -56,4 +180,6 @@ public class XRocketMQConstants {
     public static final String  PRODUCER_NAME_PUBLIC    =   "producer.public";
     // 事务生产者实例名
     public static final String  PRODUCER_NAME_TX        =   "producer.tx.%s.%s";
+    // 消息执行器缓存键连接符
+    public static final String  HANDLER_KEY_DELIMITER   =   "#";
 }
@@ -0,0 +1,153 @@
+package com.leegern.xrocketmq5.core.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.json.JacksonProvider;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于Jackson的编解码器
+ *          JSON直接编码为字节数组(不经过String), 解码时直接读取ByteBuffer;
+ *          Smile/CBOR为二进制格式, 复用JSON的ObjectMapper配置(需引入对应的jackson-dataformat依赖);
+ *          ObjectReader按目标类型(含泛型)、ObjectWriter按消息对象类型缓存, 编解码时不再重复解析类型、查找序列化器
+ */
+public class XRocketMQJacksonCodec implements XRocketMQMessageCodec {
+
+    /* 编解码器名称 */
+    private final String name;
+
+    /* 序列化实例 */
+    private final ObjectMapper mapper;
+
+    /* 目标类型 -> 反序列化器 */
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    /* 消息对象类型 -> 序列化器 */
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+
+    /**
+     * 自定义构造器
+     * @param name   编解码器名称
+     * @param mapper 序列化实例
+     */
+    public XRocketMQJacksonCodec(String name, ObjectMapper mapper) {
+        this.name    =  name;
+        this.mapper  =  mapper;
+    }
+
+
+    /**
+     * JSON编解码器
+     * @return
+     */
+    public static XRocketMQJacksonCodec json() {
+        return new XRocketMQJacksonCodec(XRocketMQConstants.CODEC_JSON, JacksonProvider.getInstance().getJson());
+    }
+
+    /**
+     * Smile编解码器(需引入jackson-dataformat-smile)
+     * @return
+     */
+    public static XRocketMQJacksonCodec smile() {
+        return new XRocketMQJacksonCodec(XRocketMQConstants.CODEC_SMILE, SmileMapper.create());
+    }
+
+    /**
+     * CBOR编解码器(需引入jackson-dataformat-cbor)
+     * @return
+     */
+    public static XRocketMQJacksonCodec cbor() {
+        return new XRocketMQJacksonCodec(XRocketMQConstants.CODEC_CBOR, CborMapper.create());
+    }
+
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        try {
+            if (Objects.isNull(payload)) {
+                return mapper.writeValueAsBytes(null);
+            }
+            return this.getWriter(payload.getClass()).writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new XRocketMQException(String.format("Encode message by codec '%s' error", name), e);
+        }
+    }
+
+    @Override
+    public Object decode(ByteBuffer body, Type targetType) {
+        ObjectReader reader = this.getReader(targetType);
+        try {
+            if (body.hasArray()) {
+                return reader.readValue(body.array(), body.arrayOffset() + body.position(), body.remaining());
+            }
+            // 只读或堆外ByteBuffer直接以流的方式读取
+            return reader.readValue(new ByteBufferBackedInputStream(body.duplicate()));
+        } catch (IOException e) {
+            throw new XRocketMQException(String.format("Decode message by codec '%s' error", name), e);
+        }
+    }
+
+
+
+    /**
+     * 获取目标类型的反序列化器
+     * @param targetType 目标类型
+     * @return
+     */
+    private ObjectReader getReader(Type targetType) {
+        ObjectReader reader = readers.get(targetType);
+        if (Objects.isNull(reader)) {
+            reader = readers.computeIfAbsent(targetType, type -> mapper.readerFor(mapper.getTypeFactory().constructType(type)));
+        }
+        return reader;
+    }
+
+    /**
+     * 获取消息对象类型的序列化器
+     * @param payloadClazz 消息对象类型
+     * @return
+     */
+    private ObjectWriter getWriter(Class<?> payloadClazz) {
+        ObjectWriter writer = writers.get(payloadClazz);
+        if (Objects.isNull(writer)) {
+            writer = writers.computeIfAbsent(payloadClazz, mapper::writerFor);
+        }
+        return writer;
+    }
+
+    /**
+     * Smile序列化实例(独立类, 未引入依赖时不加载)
+     */
+    private static class SmileMapper {
+        static ObjectMapper create() {
+            return JacksonProvider.getInstance().getJson().copyWith(new SmileFactory());
+        }
+    }
+
+    /**
+     * CBOR序列化实例(独立类, 未引入依赖时不加载)
+     */
+    private static class CborMapper {
+        static ObjectMapper create() {
+            return JacksonProvider.getInstance().getJson().copyWith(new CBORFactory());
+        }
+    }
+}
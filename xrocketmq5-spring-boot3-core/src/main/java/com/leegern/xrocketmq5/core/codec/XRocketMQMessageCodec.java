@@ -0,0 +1,34 @@
+package com.leegern.xrocketmq5.core.codec;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+
+/**
+ * 消息体编解码器
+ *          生产者使用编解码器将消息对象直接编码为字节数组, 并将编解码器名称记录在消息属性中;
+ *          消费者根据消息属性选择对应的编解码器, 直接从消息体ByteBuffer解码, 不经过中间字符串.
+ *          自定义编解码器注册为Spring bean即可生效.
+ */
+public interface XRocketMQMessageCodec {
+
+    /**
+     * 编解码器名称(记录在消息属性中, 全局唯一)
+     * @return
+     */
+    String getName();
+
+    /**
+     * 编码消息对象
+     * @param payload 消息对象
+     * @return 消息体字节数组
+     */
+    byte[] encode(Object payload);
+
+    /**
+     * 解码消息体
+     * @param body        消息体(只读, 解码时不修改其position)
+     * @param targetType  消息目标类型(支持泛型)
+     * @return 消息对象
+     */
+    Object decode(ByteBuffer body, Type targetType);
+}
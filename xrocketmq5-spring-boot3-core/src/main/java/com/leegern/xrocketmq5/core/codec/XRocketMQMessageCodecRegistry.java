@@ -0,0 +1,149 @@
+package com.leegern.xrocketmq5.core.codec;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.apache.rocketmq.client.apis.message.MessageView;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 编解码器注册表
+ *          内置json, 存在对应依赖时内置smile、cbor、protobuf; 自定义编解码器可覆盖同名内置实现
+ */
+public class XRocketMQMessageCodecRegistry {
+
+    /* 仅包含内置编解码器的注册表 */
+    private static volatile XRocketMQMessageCodecRegistry builtin;
+
+    /* 编解码器名称 -> 编解码器 */
+    private final Map<String, XRocketMQMessageCodec> codecs;
+
+    /* 默认编解码器(生产者未指定时使用) */
+    private final XRocketMQMessageCodec defaultCodec;
+
+    /* 消息未记录编解码器时使用的解码器(兼容未记录编解码器的JSON消息) */
+    private final XRocketMQMessageCodec fallbackCodec;
+
+
+    /**
+     * 自定义构造器
+     * @param customCodecs      自定义编解码器
+     * @param defaultCodecName  默认编解码器名称
+     */
+    public XRocketMQMessageCodecRegistry(List<XRocketMQMessageCodec> customCodecs, String defaultCodecName) {
+        Map<String, XRocketMQMessageCodec> codecMap = new HashMap<>();
+        this.register(codecMap, XRocketMQJacksonCodec.json());
+
+        ClassLoader classLoader = XRocketMQMessageCodecRegistry.class.getClassLoader();
+        if (ClassUtils.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", classLoader)) {
+            this.register(codecMap, XRocketMQJacksonCodec.smile());
+        }
+        if (ClassUtils.isPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", classLoader)) {
+            this.register(codecMap, XRocketMQJacksonCodec.cbor());
+        }
+        if (ClassUtils.isPresent("com.google.protobuf.MessageLite", classLoader)) {
+            this.register(codecMap, new XRocketMQProtobufCodec());
+        }
+        if (! CollectionUtils.isEmpty(customCodecs)) {
+            customCodecs.forEach(codec -> this.register(codecMap, codec));
+        }
+        this.codecs         =  Collections.unmodifiableMap(codecMap);
+        this.fallbackCodec  =  codecMap.get(XRocketMQConstants.CODEC_JSON);
+        this.defaultCodec   =  this.getCodec(StringUtils.hasText(defaultCodecName) ? defaultCodecName : XRocketMQConstants.CODEC_JSON);
+    }
+
+
+    /**
+     * 仅包含内置编解码器的注册表(未接入Spring容器时使用)
+     * @return
+     */
+    public static XRocketMQMessageCodecRegistry builtin() {
+        if (Objects.isNull(builtin)) {
+            synchronized (XRocketMQMessageCodecRegistry.class) {
+                if (Objects.isNull(builtin)) {
+                    builtin = new XRocketMQMessageCodecRegistry(null, XRocketMQConstants.CODEC_JSON);
+                }
+            }
+        }
+        return builtin;
+    }
+
+
+    /**
+     * 获取编解码器
+     * @param codecName 编解码器名称(为空时返回默认编解码器)
+     * @return
+     */
+    public XRocketMQMessageCodec getCodec(String codecName) {
+        if (! StringUtils.hasText(codecName)) {
+            return defaultCodec;
+        }
+        XRocketMQMessageCodec codec = codecs.get(codecName);
+        if (Objects.isNull(codec)) {
+            throw new XRocketMQException(String.format("Message codec '%s' is not registered, available codecs: %s", codecName, codecs.keySet()));
+        }
+        return codec;
+    }
+
+    /**
+     * 获取消息对应的解码器
+     * @param messageView 消息视图
+     * @return 消息未记录编解码器时返回JSON解码器
+     */
+    public XRocketMQMessageCodec getCodec(MessageView messageView) {
+        String codecName = messageView.getProperties().get(XRocketMQConstants.CODEC_PROPERTY);
+        return StringUtils.hasText(codecName) ? this.getCodec(codecName) : fallbackCodec;
+    }
+
+    /**
+     * 消息体转换为目标类型
+     *          String按UTF-8解码; byte[]拷贝一份消息体; ByteBuffer返回只读视图, InputStream直接读取消息体, 二者不拷贝;
+     *          其他类型按消息记录的编解码器直接从消息体解码(Jackson以流式解析器读取, 不经过中间字符串)
+     * @param messageView 消息视图
+     * @param targetType  目标类型(支持泛型)
+     * @return
+     */
+    public Object decode(MessageView messageView, Type targetType) {
+        if (targetType == String.class) {
+            return StandardCharsets.UTF_8.decode(messageView.getBody()).toString();
+        }
+        if (targetType == ByteBuffer.class) {
+            return messageView.getBody().asReadOnlyBuffer();
+        }
+        if (targetType == byte[].class) {
+            ByteBuffer body = messageView.getBody().duplicate();
+            byte[] bytes = new byte[body.remaining()];
+            body.get(bytes);
+            return bytes;
+        }
+        if (targetType == InputStream.class) {
+            return new ByteBufferBackedInputStream(messageView.getBody().duplicate());
+        }
+        return this.getCodec(messageView).decode(messageView.getBody(), targetType);
+    }
+
+
+    /**
+     * 注册编解码器
+     * @param codecMap 编解码器集合
+     * @param codec    编解码器
+     */
+    private void register(Map<String, XRocketMQMessageCodec> codecMap, XRocketMQMessageCodec codec) {
+        if (! StringUtils.hasText(codec.getName())) {
+            throw new XRocketMQException(String.format("The name of message codec '%s' is empty", codec.getClass().getName()));
+        }
+        codecMap.put(codec.getName(), codec);
+    }
+}
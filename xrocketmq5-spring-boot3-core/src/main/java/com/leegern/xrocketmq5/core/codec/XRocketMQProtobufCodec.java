@@ -0,0 +1,72 @@
+package com.leegern.xrocketmq5.core.codec;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Protobuf编解码器(需引入protobuf-java)
+ *          消息对象必须是生成的MessageLite实现类, 解码器(Parser)按目标类型缓存, 解码时不再解析类型
+ */
+public class XRocketMQProtobufCodec implements XRocketMQMessageCodec {
+
+    /* 目标类型 -> 解码器 */
+    private final Map<Type, Parser<?>> parsers = new ConcurrentHashMap<>();
+
+
+    @Override
+    public String getName() {
+        return XRocketMQConstants.CODEC_PROTOBUF;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        if (! (payload instanceof MessageLite)) {
+            throw new XRocketMQException(String.format("Codec 'protobuf' requires a protobuf message, but got '%s'",
+                    Objects.isNull(payload) ? null : payload.getClass().getName()));
+        }
+        return ((MessageLite) payload).toByteArray();
+    }
+
+    @Override
+    public Object decode(ByteBuffer body, Type targetType) {
+        try {
+            return this.getParser(targetType).parseFrom(body.duplicate());
+        } catch (InvalidProtocolBufferException e) {
+            throw new XRocketMQException("Decode message by codec 'protobuf' error", e);
+        }
+    }
+
+
+    /**
+     * 获取目标类型的解码器
+     * @param targetType 目标类型
+     * @return
+     */
+    private Parser<?> getParser(Type targetType) {
+        Parser<?> parser = parsers.get(targetType);
+        if (Objects.isNull(parser)) {
+            Class<?> targetClazz = ResolvableType.forType(targetType).resolve();
+            if (Objects.isNull(targetClazz) || ! MessageLite.class.isAssignableFrom(targetClazz)) {
+                throw new XRocketMQException(String.format("Codec 'protobuf' requires a protobuf message type, but got '%s'", targetType));
+            }
+            parser = parsers.computeIfAbsent(targetType, type -> {
+                try {
+                    return (Parser<?>) targetClazz.getMethod("parser").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new XRocketMQException(String.format("Resolve protobuf parser of '%s' failed", targetClazz.getName()), e);
+                }
+            });
+        }
+        return parser;
+    }
+}
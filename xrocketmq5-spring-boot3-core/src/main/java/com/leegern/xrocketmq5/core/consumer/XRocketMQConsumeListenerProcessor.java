@@ -2,26 +2,55 @@ package com.leegern.xrocketmq5.core.consumer;
 
 import com.leegern.xrocketmq5.core.XRocketMQConstants;
 import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
+import com.leegern.xrocketmq5.core.consumer.adaptive.XRocketMQConsumeConcurrencyLimiter;
+import com.leegern.xrocketmq5.core.consumer.adaptive.XRocketMQConsumerAdaptiveListener;
 import com.leegern.xrocketmq5.core.consumer.annotation.XRocketMQConsumeListener;
+import com.leegern.xrocketmq5.core.consumer.dispatch.XRocketMQPushConsumerGroup;
+import com.leegern.xrocketmq5.core.consumer.idempotent.XRocketMQConsumeIdempotentStore;
+import com.leegern.xrocketmq5.core.consumer.idempotent.XRocketMQConsumerIdempotentListener;
+import com.leegern.xrocketmq5.core.consumer.idempotent.XRocketMQConsumerIdempotentRegistry;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerAbstractMessageListener;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerBatchMessageListener;
 import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerDefaultMessageListener;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerInvoker;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerInvokerFactory;
 import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerMessageListener;
+import com.leegern.xrocketmq5.core.consumer.retry.XRocketMQConsumeRetryPolicy;
+import com.leegern.xrocketmq5.core.consumer.retry.XRocketMQConsumerRetryInvoker;
+import com.leegern.xrocketmq5.core.consumer.schedule.XRocketMQConsumeScheduler;
+import com.leegern.xrocketmq5.core.consumer.simple.XRocketMQSimpleConsumerEngine;
+import com.leegern.xrocketmq5.core.enums.ConsumeExecutorType;
+import com.leegern.xrocketmq5.core.enums.ConsumerType;
 import com.leegern.xrocketmq5.core.enums.SelectorType;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQConsumeRecorder;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQMetrics;
 import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
 import org.apache.rocketmq.client.apis.ClientConfiguration;
+import org.apache.rocketmq.client.apis.ClientConfigurationBuilder;
 import org.apache.rocketmq.client.apis.ClientException;
 import org.apache.rocketmq.client.apis.ClientServiceProvider;
 import org.apache.rocketmq.client.apis.StaticSessionCredentialsProvider;
 import org.apache.rocketmq.client.apis.consumer.FilterExpression;
 import org.apache.rocketmq.client.apis.consumer.FilterExpressionType;
+import org.apache.rocketmq.client.apis.consumer.MessageListener;
 import org.apache.rocketmq.client.apis.consumer.PushConsumer;
+import org.apache.rocketmq.client.apis.consumer.SimpleConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
+import java.io.Closeable;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
 import java.time.Duration;
 import java.util.*;
 
@@ -30,6 +59,8 @@ import java.util.*;
  */
 public class XRocketMQConsumeListenerProcessor {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumeListenerProcessor.class);
+
     /* Spring容器上下文 */
     private ApplicationContext applicationContext;
 
@@ -63,63 +94,381 @@ public class XRocketMQConsumeListenerProcessor {
     public void processConsumeListener(XRocketMQConsumeListener consumeListener, Method method, Object bean) {
         // 参数验证
         this.checkNull(consumeListener, consumerProperties.getEndpoints());
+        if (consumeListener.consumerType() != ConsumerType.SIMPLE
+                && (consumeListener.executorType() == ConsumeExecutorType.VIRTUAL
+                    || (consumeListener.executorType() == ConsumeExecutorType.DEFAULT && consumerProperties.getConsumer().getExecutorType() == ConsumeExecutorType.VIRTUAL))) {
+            LOGGER.warn("Virtual threads are not supported by PushConsumer, consume method[{}] uses its platform thread pool, set 'consumerType = SIMPLE' to consume with virtual threads",
+                    method.getName());
+        }
+        if (consumeListener.orderly() && consumeListener.consumerType() != ConsumerType.SIMPLE) {
+            throw new XRocketMQException(String.format("Orderly consume method[%s] must set 'consumerType = SIMPLE'", method.getName()));
+        }
 
         // 获取当前bean实例的可调用Method对象
         Method invocableMethod = AopUtils.selectInvocableMethod(method, bean.getClass());
         // 获取方法参数类型
         Class<?> parameterTypeClazz = this.getParameterTypeClazz(invocableMethod);
+        // 消费方法调用器(只生成一次)
+        XRocketMQConsumerInvoker invoker = XRocketMQConsumerInvokerFactory.create(invocableMethod);
+        // 本地重试
+        XRocketMQConsumeRetryPolicy retryPolicy = this.createRetryPolicy(consumeListener);
+        if (retryPolicy.isEnabled()) {
+            invoker = new XRocketMQConsumerRetryInvoker(invoker, retryPolicy, invocableMethod.getName(),
+                    XRocketMQConsumerAbstractMessageListener.isAsyncReturnType(invocableMethod.getReturnType()));
+        }
         // 消费消息拦截器
         List<XRocketMQConsumerInterceptor> interceptors = this.getConsumerInterceptors();
-        // 消费消息监听器
-        XRocketMQConsumerMessageListener messageListener =
-                new XRocketMQConsumerDefaultMessageListener(bean, parameterTypeClazz, invocableMethod, interceptors, consumeListener.topicName());
+        // 消费指标记录器
+        XRocketMQConsumeRecorder recorder = this.getMetrics().consumeRecorder(consumeListener.topicName(), consumeListener.consumerGroup());
+        // 消费消息监听器(方法参数为List时批量消费)
+        if (consumeListener.orderly() && List.class.equals(parameterTypeClazz)) {
+            throw new XRocketMQException(String.format("Orderly consume method[%s] does not support batch consumption", method.getName()));
+        }
+        XRocketMQConsumerMessageListener messageListener = List.class.equals(parameterTypeClazz)
+                ? this.createBatchListener(consumeListener, invocableMethod, invoker, bean, interceptors, recorder)
+                : new XRocketMQConsumerDefaultMessageListener(bean, this.resolveParameterType(invocableMethod, bean, false), invocableMethod, invoker, interceptors, consumeListener.topicName(),
+                        this.getCodecRegistry(), recorder, consumerProperties.getConsumer().getAsyncConsumeTimeout());
+        // 异步消费方法(SimpleConsumer非顺序消费时释放消费线程)
+        int asyncMaxOutstanding = this.resolveAsyncMaxOutstanding(consumeListener, invocableMethod, List.class.equals(parameterTypeClazz));
+        // 自适应并发(在幂等之内, 重复消息不计入耗时统计)
+        XRocketMQConsumeConcurrencyLimiter limiter = null;
+        if (consumeListener.adaptive()) {
+            limiter = this.createConcurrencyLimiter(consumeListener, asyncMaxOutstanding);
+            messageListener = new XRocketMQConsumerAdaptiveListener(messageListener, limiter, consumeListener.consumerType() != ConsumerType.SIMPLE);
+        }
+        // 消费幂等
+        if (consumeListener.idempotent()) {
+            messageListener = this.createIdempotentListener(consumeListener, messageListener);
+        }
+
+        // 消费者名称
+        String consumerName = this.generateConsumerName(consumeListener.consumerGroup(), bean.getClass().getName(), method.getName());
 
-        PushConsumer pushConsumer = null;
+        // PushConsumer监听器登记到消费组, 全部单例初始化完成后合并创建;
+        // 批量消费、自适应并发、本地重试会长时间占用消费线程, 使用独立的PushConsumer, 避免占满消费组共享的消费线程
+        if (consumeListener.consumerType() != ConsumerType.SIMPLE && this.isBlockingListener(consumeListener, invocableMethod, parameterTypeClazz, retryPolicy)) {
+            LOGGER.info("Consume method[{}] holds consume threads(batch, adaptive or retry), it uses a standalone PushConsumer", method.getName());
+        }
+        else if (consumeListener.consumerType() != ConsumerType.SIMPLE) {
+            XRocketMQPushConsumerGroup pushConsumerGroup = this.consumerHolder.getPushConsumerGroup(consumeListener.consumerGroup());
+            if (Objects.nonNull(pushConsumerGroup)) {
+                this.consumerHolder.registerPushSubscription(consumeListener.consumerGroup(), consumeListener.topicName(), consumeListener.consumerGroup());
+                pushConsumerGroup.addListener(consumeListener.topicName(), consumeListener.selectorType(), consumeListener.selectorExpress(),
+                        messageListener, consumerName);
+                return;
+            }
+            LOGGER.warn("Consume method[{}] is registered after consumer groups started, it uses a standalone PushConsumer", method.getName());
+        }
+
+        // 独立的PushConsumer不能与同消费组的其他PushConsumer订阅同一话题
+        if (consumeListener.consumerType() != ConsumerType.SIMPLE) {
+            this.consumerHolder.registerPushSubscription(consumeListener.consumerGroup(), consumeListener.topicName(), consumerName);
+        }
+        Closeable consumer = null;
         try {
             // 生成消息过滤器
             FilterExpression filterExpression = this.createFilterExpression(consumeListener.selectorType(), consumeListener.selectorExpress());
             // 创建消费者实例
-            pushConsumer = this.buildConsumer(consumeListener.topicName(), consumeListener.consumerGroup(), filterExpression, messageListener);
+            if (consumeListener.consumerType() == ConsumerType.SIMPLE) {
+                consumer = this.buildSimpleConsumer(consumeListener, consumerName, filterExpression, messageListener, limiter, asyncMaxOutstanding);
+            }
+            else {
+                consumer = this.buildConsumer(consumeListener.consumerGroup(),
+                        Collections.singletonMap(consumeListener.topicName(), filterExpression), messageListener);
+            }
         } catch (Exception e) {
             throw new XRocketMQException(e);
         }
 
-        // 消费者名称
-        String consumerName = this.generateConsumerName(consumeListener.consumerGroup(), bean.getClass().getName(), method.getName());
         // 缓存消费者实例
-        this.consumerHolder.putConsumer(consumerName, pushConsumer);
+        this.consumerHolder.putConsumer(consumerName, consumer);
+    }
+
+    /**
+     * 监听器是否会长时间占用PushConsumer的消费线程
+     *          批量消费时等待合并的每条消息占用一个线程, 自适应并发超出上限时阻塞线程, 本地重试在消费线程上退避等待(异步消费方法退避时不占用线程)
+     * @param consumeListener    消费监听器
+     * @param invocableMethod    消费方法
+     * @param parameterTypeClazz 方法参数类型
+     * @param retryPolicy        本地重试策略
+     * @return
+     */
+    private boolean isBlockingListener(XRocketMQConsumeListener consumeListener, Method invocableMethod, Class<?> parameterTypeClazz,
+                                       XRocketMQConsumeRetryPolicy retryPolicy) {
+        return List.class.equals(parameterTypeClazz) || consumeListener.adaptive()
+                || (retryPolicy.isEnabled() && ! XRocketMQConsumerAbstractMessageListener.isAsyncReturnType(invocableMethod.getReturnType()));
+    }
+
+    /**
+     * 为每个消费组创建一个PushConsumer, 订阅组内所有监听器的话题, 消息按话题及标签分发到对应的监听器
+     */
+    public void startPushConsumerGroups() {
+        for (XRocketMQPushConsumerGroup pushConsumerGroup : this.consumerHolder.drainPushConsumerGroups()) {
+            PushConsumer consumer;
+            try {
+                consumer = this.buildConsumer(pushConsumerGroup.getConsumerGroup(), pushConsumerGroup.getSubscriptionExpressions(),
+                        pushConsumerGroup.newDispatchListener());
+            } catch (Exception e) {
+                throw new XRocketMQException(e);
+            }
+            LOGGER.info("Started PushConsumer of group[{}] with {} listener(s), topics: {}",
+                    pushConsumerGroup.getConsumerGroup(), pushConsumerGroup.getListenerCount(), pushConsumerGroup.getSubscriptionExpressions().keySet());
+            this.consumerHolder.putConsumer(pushConsumerGroup.getConsumerGroup(), consumer);
+        }
     }
 
     /**
      * 创建消费者实例
-     * @param topic            订阅话题
-     * @param consumerGroup    消费组名
-     * @param filterExpression 过滤表达式
-     * @param messageListener  消息监听器
+     * @param consumerGroup           消费组名
+     * @param subscriptionExpressions 订阅话题及过滤表达式
+     * @param messageListener         消息监听器
      * @return
      */
-    private PushConsumer buildConsumer(String topic, String consumerGroup, FilterExpression filterExpression,
-                                       XRocketMQConsumerMessageListener messageListener) throws ClientException {
+    private PushConsumer buildConsumer(String consumerGroup, Map<String, FilterExpression> subscriptionExpressions,
+                                       MessageListener messageListener) throws ClientException {
         final ClientServiceProvider provider = ClientServiceProvider.loadService();
-        // 客户端配置项
-        ClientConfiguration clientConfiguration = ClientConfiguration.newBuilder()
-                .setCredentialProvider(new StaticSessionCredentialsProvider(consumerProperties.getAccessKey(), consumerProperties.getSecretKey()))
-                .setEndpoints(consumerProperties.getEndpoints())
-                .enableSsl(consumerProperties.getSslEnabled())
-                .setRequestTimeout(Duration.ofMillis(consumerProperties.getConsumer().getConsumeRequestTimeout()))
-                .build();
         // 创建消费者实例
         return provider.newPushConsumerBuilder()
                 .setConsumerGroup(consumerGroup)
-                .setClientConfiguration(clientConfiguration)
+                .setClientConfiguration(this.buildClientConfiguration())
                 .setConsumptionThreadCount(consumerProperties.getConsumer().getConsumeThreadNum())
                 .setMaxCacheMessageCount(consumerProperties.getConsumer().getMaxCacheMsgNum())
                 .setMaxCacheMessageSizeInBytes(consumerProperties.getConsumer().getMaxCacheMsgSize())
-                .setSubscriptionExpressions(Collections.singletonMap(topic, filterExpression))
+                .setSubscriptionExpressions(subscriptionExpressions)
                 .setMessageListener(messageListener)
                 .build();
     }
 
+    /**
+     * 创建SimpleConsumer消费引擎并启动拉取
+     * @param consumeListener  消费监听器
+     * @param consumerName     消费者名称
+     * @param filterExpression 过滤表达式
+     * @param messageListener  消息监听器
+     * @param limiter          自适应并发限制器(可为空)
+     * @return
+     */
+    private XRocketMQSimpleConsumerEngine buildSimpleConsumer(XRocketMQConsumeListener consumeListener, String consumerName, FilterExpression filterExpression,
+                                                              XRocketMQConsumerMessageListener messageListener,
+                                                              XRocketMQConsumeConcurrencyLimiter limiter,
+                                                              int asyncMaxOutstanding) throws ClientException {
+        final ClientServiceProvider provider = ClientServiceProvider.loadService();
+        // 创建消费者实例
+        SimpleConsumer simpleConsumer = provider.newSimpleConsumerBuilder()
+                .setConsumerGroup(consumeListener.consumerGroup())
+                .setClientConfiguration(this.buildClientConfiguration())
+                .setAwaitDuration(Duration.ofMillis(consumerProperties.getConsumer().getSimple().getAwaitDuration()))
+                .setSubscriptionExpressions(Collections.singletonMap(consumeListener.topicName(), filterExpression))
+                .build();
+        XRocketMQSimpleConsumerEngine engine = XRocketMQSimpleConsumerEngine.builder()
+                .simpleConsumer(simpleConsumer)
+                .messageListener(messageListener)
+                .simpleProperties(consumerProperties.getConsumer().getSimple())
+                .executorType(this.resolveExecutorType(consumeListener))
+                .concurrency(this.resolveConcurrency(consumeListener))
+                .orderly(consumeListener.orderly() ? this.resolveOrderlyLanes(consumeListener) : 0, consumerProperties.getConsumer().getOrderlyLaneCapacity())
+                .limiter(limiter)
+                .asyncMaxOutstanding(asyncMaxOutstanding)
+                .consumeExecutor(this.useConsumeScheduler(consumeListener) ? this.createSchedulerSlot(consumeListener, consumerName) : null)
+                .build();
+        engine.start();
+        return engine;
+    }
+
+    /**
+     * 创建消费幂等监听器
+     * @param consumeListener 消费监听器
+     * @param messageListener 被装饰的消息监听器
+     * @return
+     */
+    private XRocketMQConsumerMessageListener createIdempotentListener(XRocketMQConsumeListener consumeListener, XRocketMQConsumerMessageListener messageListener) {
+        XRocketMQProperties.XRocketMQIdempotentProperties idempotentProperties = consumerProperties.getConsumer().getIdempotent();
+        XRocketMQConsumerIdempotentListener idempotentListener = new XRocketMQConsumerIdempotentListener(messageListener,
+                consumeListener.consumerGroup(), consumeListener.topicName(),
+                idempotentProperties.getKeyType(), idempotentProperties.getCapacity(), idempotentProperties.getTtl(),
+                applicationContext.getBeanProvider(XRocketMQConsumeIdempotentStore.class).getIfAvailable());
+        applicationContext.getBeanProvider(XRocketMQConsumerIdempotentRegistry.class).ifAvailable(registry -> registry.register(idempotentListener));
+        return idempotentListener;
+    }
+
+    /**
+     * 创建自适应并发限制器, 并发上限为消费并发数
+     * @param consumeListener 消费监听器
+     * @return
+     */
+    private XRocketMQConsumeConcurrencyLimiter createConcurrencyLimiter(XRocketMQConsumeListener consumeListener, int asyncMaxOutstanding) {
+        XRocketMQProperties.XRocketMQAdaptiveProperties adaptiveProperties = consumerProperties.getConsumer().getAdaptive();
+        return new XRocketMQConsumeConcurrencyLimiter(consumeListener.consumerGroup() + ":" + consumeListener.topicName(),
+                adaptiveProperties.getMinConcurrency(), asyncMaxOutstanding > 0 ? asyncMaxOutstanding : this.resolveConcurrency(consumeListener),
+                adaptiveProperties.getLatencyThreshold(), adaptiveProperties.getFailureRateThreshold(),
+                adaptiveProperties.getBackoffRatio(), adaptiveProperties.getWindow());
+    }
+
+    /**
+     * 解析消费线程类型(PushConsumer只能使用客户端内部的平台线程池)
+     * @param consumeListener 消费监听器
+     * @return
+     */
+    private ConsumeExecutorType resolveExecutorType(XRocketMQConsumeListener consumeListener) {
+        if (consumeListener.consumerType() != ConsumerType.SIMPLE) {
+            return ConsumeExecutorType.PLATFORM;
+        }
+        ConsumeExecutorType executorType = consumeListener.executorType();
+        if (executorType == ConsumeExecutorType.DEFAULT) {
+            executorType = consumerProperties.getConsumer().getExecutorType();
+        }
+        return executorType == ConsumeExecutorType.VIRTUAL ? ConsumeExecutorType.VIRTUAL : ConsumeExecutorType.PLATFORM;
+    }
+
+    /**
+     * 解析消费并发数
+     * @param consumeListener 消费监听器
+     * @return 平台线程为consumeThreadNum(使用共享消费调度器时为最大份额), 虚拟线程为最大并发数
+     */
+    private int resolveConcurrency(XRocketMQConsumeListener consumeListener) {
+        if (this.useConsumeScheduler(consumeListener)) {
+            return this.resolveSchedulerMaxShare(consumeListener);
+        }
+        if (this.resolveExecutorType(consumeListener) != ConsumeExecutorType.VIRTUAL) {
+            return consumerProperties.getConsumer().getConsumeThreadNum();
+        }
+        return consumeListener.maxConcurrency() > 0 ? consumeListener.maxConcurrency() : consumerProperties.getConsumer().getVirtualMaxConcurrency();
+    }
+
+    /**
+     * 是否使用共享消费调度器(仅SimpleConsumer平台线程消费, 虚拟线程无需共享, PushConsumer只能使用客户端内部线程池)
+     * @param consumeListener 消费监听器
+     * @return
+     */
+    private boolean useConsumeScheduler(XRocketMQConsumeListener consumeListener) {
+        return Boolean.TRUE.equals(consumerProperties.getConsumer().getScheduler().getEnabled())
+                && consumeListener.consumerType() == ConsumerType.SIMPLE
+                && this.resolveExecutorType(consumeListener) == ConsumeExecutorType.PLATFORM;
+    }
+
+    /**
+     * 解析共享消费调度器的最大份额
+     * @param consumeListener 消费监听器
+     * @return 注解配置优先, 其次全局配置, 不大于0或超出调度器线程数时为调度器线程数
+     */
+    private int resolveSchedulerMaxShare(XRocketMQConsumeListener consumeListener) {
+        XRocketMQProperties.XRocketMQSchedulerProperties scheduler = consumerProperties.getConsumer().getScheduler();
+        int threads = Math.max(1, scheduler.getThreads());
+        int maxShare = consumeListener.schedulerMaxShare() >= 0 ? consumeListener.schedulerMaxShare() : scheduler.getMaxShare();
+        return maxShare > 0 ? Math.min(maxShare, threads) : threads;
+    }
+
+    /**
+     * 在共享消费调度器中创建监听器的调度槽
+     * @param consumeListener 消费监听器
+     * @param consumerName    消费者名称
+     * @return 注解配置优先, 其次全局配置
+     */
+    private XRocketMQConsumeScheduler.Slot createSchedulerSlot(XRocketMQConsumeListener consumeListener, String consumerName) {
+        XRocketMQProperties.XRocketMQSchedulerProperties scheduler = consumerProperties.getConsumer().getScheduler();
+        int minShare = consumeListener.schedulerMinShare() >= 0 ? consumeListener.schedulerMinShare() : scheduler.getMinShare();
+        int weight = consumeListener.schedulerWeight() > 0 ? consumeListener.schedulerWeight() : scheduler.getWeight();
+        return this.consumerHolder.getConsumeScheduler(scheduler.getThreads())
+                .newSlot(consumerName, minShare, this.resolveSchedulerMaxShare(consumeListener), weight);
+    }
+
+    /**
+     * 创建本地重试策略
+     * @param consumeListener 消费监听器
+     * @return 注解配置优先, 其次全局配置
+     */
+    private XRocketMQConsumeRetryPolicy createRetryPolicy(XRocketMQConsumeListener consumeListener) {
+        XRocketMQProperties.XRocketMQRetryProperties retry = consumerProperties.getConsumer().getRetry();
+        List<Class<? extends Throwable>> retryOn = ObjectUtils.isEmpty(consumeListener.retryOn())
+                ? retry.getRetryOn() : Arrays.asList(consumeListener.retryOn());
+        int retryTimes = consumeListener.retryTimes() >= 0
+                ? consumeListener.retryTimes() : consumerProperties.getConsumer().getRetryConsumeTimes();
+        long maxDuration = consumeListener.retryMaxDurationMs() >= 0
+                ? consumeListener.retryMaxDurationMs() : retry.getMaxDuration();
+        return new XRocketMQConsumeRetryPolicy(retryTimes, retryOn, retry.getInitialBackoff(), retry.getMaxBackoff(),
+                retry.getMultiplier(), retry.getJitter(), maxDuration);
+    }
+
+    /**
+     * 解析未完成的异步结果上限
+     * @param consumeListener 消费监听器
+     * @param invocableMethod 消费消息的方法
+     * @param batch           是否批量消费
+     * @return 消费方法非异步返回、PushConsumer、顺序消费或批量消费时返回0(同步等待异步结果)
+     */
+    private int resolveAsyncMaxOutstanding(XRocketMQConsumeListener consumeListener, Method invocableMethod, boolean batch) {
+        if (! XRocketMQConsumerAbstractMessageListener.isAsyncReturnType(invocableMethod.getReturnType())) {
+            return 0;
+        }
+        if (consumeListener.consumerType() != ConsumerType.SIMPLE || consumeListener.orderly() || batch) {
+            LOGGER.info("Consume method[{}] returns an asynchronous result, the consumption thread waits for it because the listener is PUSH, orderly or batch",
+                    invocableMethod.getName());
+            return 0;
+        }
+        if (consumeListener.asyncMaxOutstanding() > 0) {
+            return consumeListener.asyncMaxOutstanding();
+        }
+        Integer asyncMaxOutstanding = consumerProperties.getConsumer().getAsyncMaxOutstanding();
+        return Objects.nonNull(asyncMaxOutstanding) && asyncMaxOutstanding > 0 ? asyncMaxOutstanding : XRocketMQConstants.ASYNC_MAX_OUTSTANDING;
+    }
+
+    /**
+     * 解析顺序消费通道数
+     * @param consumeListener 消费监听器
+     * @return 注解指定值, 其次全局配置, 均未配置时为消费并发线程数
+     */
+    private int resolveOrderlyLanes(XRocketMQConsumeListener consumeListener) {
+        if (consumeListener.orderlyLanes() > 0) {
+            return consumeListener.orderlyLanes();
+        }
+        Integer orderlyLanes = consumerProperties.getConsumer().getOrderlyLanes();
+        return Objects.nonNull(orderlyLanes) && orderlyLanes > 0 ? orderlyLanes : consumerProperties.getConsumer().getConsumeThreadNum();
+    }
+
+    /**
+     * 创建客户端配置项
+     * @return
+     */
+    private ClientConfiguration buildClientConfiguration() {
+        ClientConfigurationBuilder configurationBuilder = ClientConfiguration.newBuilder()
+                .setEndpoints(consumerProperties.getEndpoints())
+                .enableSsl(consumerProperties.getSslEnabled())
+                .setRequestTimeout(Duration.ofMillis(consumerProperties.getConsumer().getConsumeRequestTimeout()));
+        // 未开启安全访问时不设置凭证
+        if (StringUtils.hasText(consumerProperties.getAccessKey())) {
+            configurationBuilder.setCredentialProvider(new StaticSessionCredentialsProvider(consumerProperties.getAccessKey(), consumerProperties.getSecretKey()));
+        }
+        return configurationBuilder.build();
+    }
+
+    /**
+     * 创建批量消费监听器
+     *          每条缓冲中的消息占用一个消费线程, 单批最大条数不超过消费线程数
+     * @param consumeListener 消费监听器
+     * @param invocableMethod 消费方法
+     * @param invoker         消费方法调用器
+     * @param bean            实例对象
+     * @param interceptors    消费消息拦截器
+     * @param recorder        消费指标记录器
+     * @return
+     */
+    private XRocketMQConsumerMessageListener createBatchListener(XRocketMQConsumeListener consumeListener, Method invocableMethod,
+                                                                 XRocketMQConsumerInvoker invoker, Object bean,
+                                                                 List<XRocketMQConsumerInterceptor> interceptors,
+                                                                 XRocketMQConsumeRecorder recorder) {
+        // 列表元素类型
+        Type elementType = this.resolveParameterType(invocableMethod, bean, true);
+        int batchMaxSize = consumeListener.batchMaxSize();
+        int concurrency = this.resolveConcurrency(consumeListener);
+        if (batchMaxSize > concurrency) {
+            LOGGER.warn("The 'batchMaxSize'({}) of consume method[{}] exceeds consume concurrency({}), capped to {}",
+                    batchMaxSize, invocableMethod.getName(), concurrency, concurrency);
+            batchMaxSize = concurrency;
+        }
+        return new XRocketMQConsumerBatchMessageListener(bean, elementType, invocableMethod, invoker, interceptors, consumeListener.topicName(),
+                this.getCodecRegistry(), recorder, batchMaxSize, consumeListener.batchMaxWaitMs(), consumerProperties.getConsumer().getAsyncConsumeTimeout());
+    }
+
     /**
      * 获取方法参数类型
      * @param invocableMethod 消费消息的方法
@@ -134,6 +483,44 @@ public class XRocketMQConsumeListenerProcessor {
         return parameterTypes[0];
     }
 
+    /**
+     * 解析方法参数的泛型类型(注册时解析一次, 消费时直接使用)
+     *          类型变量按bean的实际类型解析, 如父类方法onMessage(T msg)在子类中解析为具体类型
+     * @param invocableMethod 消费消息的方法
+     * @param bean            实例对象
+     * @param element         是否解析列表元素类型
+     * @return
+     */
+    private Type resolveParameterType(Method invocableMethod, Object bean, boolean element) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        ResolvableType parameterType = ResolvableType.forMethodParameter(invocableMethod, 0, targetClass);
+        if (element) {
+            parameterType = parameterType.getGeneric(0);
+            if (Objects.isNull(parameterType.resolve())) {
+                throw new XRocketMQException(String.format("The element type of batch consume method[%s] parameter must be declared, e.g. List<T>", invocableMethod.getName()));
+            }
+        }
+        Type resolved = GenericTypeResolver.resolveType(parameterType.getType(), targetClass);
+        // 无法解析的类型变量退化为其上界
+        return resolved instanceof TypeVariable<?> ? parameterType.toClass() : resolved;
+    }
+
+    /**
+     * 获取容器中的消息编解码器注册表
+     * @return 未注册时使用内置编解码器
+     */
+    private XRocketMQMessageCodecRegistry getCodecRegistry() {
+        return applicationContext.getBeanProvider(XRocketMQMessageCodecRegistry.class).getIfAvailable(XRocketMQMessageCodecRegistry::builtin);
+    }
+
+    /**
+     * 获取容器中的指标扩展点
+     * @return 未注册时不记录指标
+     */
+    private XRocketMQMetrics getMetrics() {
+        return applicationContext.getBeanProvider(XRocketMQMetrics.class).getIfAvailable(() -> XRocketMQMetrics.NOOP);
+    }
+
     /**
      * 获取容器中所有消费拦截器集合
      * @return
@@ -8,6 +8,7 @@ import org.springframework.aop.framework.AopInfrastructureBean;
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -23,8 +24,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 自定义消费者后置处理器, 对自定义消费监听器@DWRocketMQConsumeListener修饰的方法做消息消费增强处理
+ *          PushConsumer监听器按消费组登记, 全部单例初始化完成后每个消费组只创建一个PushConsumer
  */
-public class XRocketMQConsumerBeanPostProcessor implements BeanPostProcessor, ApplicationContextAware, DisposableBean {
+public class XRocketMQConsumerBeanPostProcessor implements BeanPostProcessor, ApplicationContextAware, SmartInitializingSingleton, DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerBeanPostProcessor.class);
 
@@ -86,6 +88,15 @@ public class XRocketMQConsumerBeanPostProcessor implements BeanPostProcessor, Ap
 
 
 
+    /**
+     * 全部单例初始化完成后, 为每个消费组创建合并后的PushConsumer
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        XRocketMQProperties consumerProperties = applicationContext.getBean(XRocketMQProperties.class);
+        new XRocketMQConsumeListenerProcessor(applicationContext, consumerHolder, consumerProperties).startPushConsumerGroups();
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
@@ -1,9 +1,17 @@
 package com.leegern.xrocketmq5.core.consumer;
 
-import org.apache.rocketmq.client.apis.consumer.PushConsumer;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.consumer.dispatch.XRocketMQPushConsumerGroup;
+import com.leegern.xrocketmq5.core.consumer.schedule.XRocketMQConsumeScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -12,39 +20,116 @@ import java.util.Objects;
  */
 public class XRocketMQConsumerHolder {
 
-    /* PushConsumer实例持有者 */
-    private Map<String, PushConsumer> consumerHolder = new HashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerHolder.class);
+
+    /* 消费者实例持有者(PushConsumer或SimpleConsumer消费引擎) */
+    private Map<String, Closeable> consumerHolder = new HashMap<>();
+
+    /* 待启动的PushConsumer消费组(按消费组合并监听器) */
+    private final Map<String, XRocketMQPushConsumerGroup> pushConsumerGroups = new LinkedHashMap<>();
+
+    /* 消费组是否已启动 */
+    private boolean pushConsumerGroupsStarted;
+
+    /* PushConsumer订阅关系(消费组 -> 话题 -> 消费者名称) */
+    private final Map<String, Map<String, String>> pushSubscriptions = new HashMap<>();
+
+    /* 共享消费调度器(首次使用时创建) */
+    private XRocketMQConsumeScheduler consumeScheduler;
 
 
     /**
-     * 缓存PushConsumer实例
+     * 缓存消费者实例
      * @param consumerName  消费者名称
-     * @param pushConsumer  消费者实例
+     * @param consumer      消费者实例
      */
-    public void putConsumer(String consumerName, PushConsumer pushConsumer) {
-        consumerHolder.put(consumerName, pushConsumer);
+    public void putConsumer(String consumerName, Closeable consumer) {
+        consumerHolder.put(consumerName, consumer);
     }
 
     /**
-     * 获取PushConsumer实例
+     * 获取消费者实例
      * @param consumerName 消费者名称
      * @return
      */
-    public PushConsumer getConsumer(String consumerName) {
+    public Closeable getConsumer(String consumerName) {
         return consumerHolder.get(consumerName);
     }
 
     /**
-     * 关闭消费者连接
+     * 获取待启动的PushConsumer消费组
+     * @param consumerGroup 消费组名称
+     * @return 消费组已启动时返回null
+     */
+    public synchronized XRocketMQPushConsumerGroup getPushConsumerGroup(String consumerGroup) {
+        if (pushConsumerGroupsStarted) {
+            return null;
+        }
+        return pushConsumerGroups.computeIfAbsent(consumerGroup, XRocketMQPushConsumerGroup::new);
+    }
+
+    /**
+     * 取出全部待启动的PushConsumer消费组, 之后注册的监听器单独创建消费者
+     * @return
+     */
+    public synchronized List<XRocketMQPushConsumerGroup> drainPushConsumerGroups() {
+        pushConsumerGroupsStarted = true;
+        List<XRocketMQPushConsumerGroup> groups = new ArrayList<>(pushConsumerGroups.values());
+        pushConsumerGroups.clear();
+        return groups;
+    }
+
+    /**
+     * 登记PushConsumer的订阅关系
+     *          同一消费组的多个PushConsumer订阅同一话题时, 服务端会将消息投递给任一消费者,
+     *          被该消费者过滤条件排除的消息不会再投递给其他消费者, 因此直接拒绝; 订阅不同话题时只提示订阅关系不一致.
+     * @param consumerGroup 消费组
+     * @param topicName     话题
+     * @param consumerName  消费者名称(消费组共享的PushConsumer使用消费组名称)
+     */
+    public synchronized void registerPushSubscription(String consumerGroup, String topicName, String consumerName) {
+        Map<String, String> subscriptions = pushSubscriptions.computeIfAbsent(consumerGroup, key -> new LinkedHashMap<>());
+        String owner = subscriptions.get(topicName);
+        if (Objects.nonNull(owner) && ! owner.equals(consumerName)) {
+            throw new XRocketMQException(String.format("Topic[%s] of consumer group[%s] is subscribed by PushConsumers '%s' and '%s', messages filtered out by one of them would be lost, use a different consumerGroup for batch, adaptive or retry consume methods",
+                    topicName, consumerGroup, owner, consumerName));
+        }
+        if (Objects.isNull(owner) && subscriptions.values().stream().anyMatch(name -> ! name.equals(consumerName))) {
+            LOGGER.warn("Consumer group[{}] is shared by PushConsumers with different topics {} and [{}]({}), keep the subscriptions of a consumer group consistent",
+                    consumerGroup, subscriptions, topicName, consumerName);
+        }
+        subscriptions.put(topicName, consumerName);
+    }
+
+    /**
+     * 获取共享消费调度器, 不存在时创建
+     * @param threads 调度器线程数
+     * @return
+     */
+    public synchronized XRocketMQConsumeScheduler getConsumeScheduler(int threads) {
+        if (Objects.isNull(consumeScheduler)) {
+            consumeScheduler = new XRocketMQConsumeScheduler(threads, "xrocketmq-consume-scheduler-");
+        }
+        return consumeScheduler;
+    }
+
+    /**
+     * 关闭消费者连接(消费者全部关闭后再关闭共享消费调度器)
      * @throws IOException
      */
     public void closeAll() throws IOException {
-        for (Map.Entry<String, PushConsumer> entry : consumerHolder.entrySet()) {
-            PushConsumer pushConsumer = entry.getValue();
-            if (!Objects.isNull(pushConsumer)) {
-                pushConsumer.close();
+        for (Map.Entry<String, Closeable> entry : consumerHolder.entrySet()) {
+            Closeable consumer = entry.getValue();
+            if (!Objects.isNull(consumer)) {
+                consumer.close();
             }
         }
         consumerHolder.clear();
+        synchronized (this) {
+            if (Objects.nonNull(consumeScheduler)) {
+                consumeScheduler.close();
+                consumeScheduler = null;
+            }
+        }
     }
 }
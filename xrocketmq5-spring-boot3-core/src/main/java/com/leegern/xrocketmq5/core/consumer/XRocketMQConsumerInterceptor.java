@@ -27,6 +27,7 @@ public interface XRocketMQConsumerInterceptor extends Ordered {
 
     /**
      * 指定生效的话题列表, 如果为空表示对所有话题生效.
+     * 注册监听器/首次向话题发送消息时解析一次, 之后不再调用, 返回值应保持不变.
      * @return
      */
     default List<String> matchTopics() {
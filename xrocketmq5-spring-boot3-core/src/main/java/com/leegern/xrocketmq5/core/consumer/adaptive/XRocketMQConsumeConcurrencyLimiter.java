@@ -0,0 +1,189 @@
+package com.leegern.xrocketmq5.core.consumer.adaptive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应消费并发限制器(AIMD)
+ *          按时间窗口统计消费耗时与失败率: 平均耗时超过阈值或失败率超过阈值时并发上限按比例下降(乘性减),
+ *          否则每个窗口加一(加性增), 上限始终在[minLimit, maxLimit]之间. 初始为maxLimit.
+ *          SimpleConsumer引擎按当前上限控制在途消息数与拉取条数; PushConsumer通过{@link #acquire()}阻塞消费线程限制并发.
+ */
+public class XRocketMQConsumeConcurrencyLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumeConcurrencyLimiter.class);
+
+    /* 限制器名称(消费组:话题) */
+    private final String name;
+
+    /* 并发下限 */
+    private final int minLimit;
+
+    /* 并发上限 */
+    private final int maxLimit;
+
+    /* 平均耗时阈值(纳秒) */
+    private final long latencyThresholdNanos;
+
+    /* 失败率阈值 */
+    private final double failureRateThreshold;
+
+    /* 下降比例 */
+    private final double backoffRatio;
+
+    /* 统计窗口(纳秒) */
+    private final long windowNanos;
+
+    /* 窗口内样本数 */
+    private final LongAdder samples = new LongAdder();
+
+    /* 窗口内失败数 */
+    private final LongAdder failures = new LongAdder();
+
+    /* 窗口内总耗时(纳秒) */
+    private final LongAdder latencySum = new LongAdder();
+
+    /* 窗口开始时间 */
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    /* 许可锁 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* 许可释放或上限增加 */
+    private final Condition permitAvailable = lock.newCondition();
+
+    /* 已占用的许可数 */
+    private int acquired;
+
+    /* 当前并发上限 */
+    private volatile int limit;
+
+
+    /**
+     * 自定义构造器
+     * @param name                  限制器名称
+     * @param minLimit              并发下限
+     * @param maxLimit              并发上限
+     * @param latencyThresholdMs    平均耗时阈值(毫秒)
+     * @param failureRateThreshold  失败率阈值(0~1)
+     * @param backoffRatio          下降比例(0~1)
+     * @param windowMs              统计窗口(毫秒)
+     */
+    public XRocketMQConsumeConcurrencyLimiter(String name, int minLimit, int maxLimit, long latencyThresholdMs,
+                                              double failureRateThreshold, double backoffRatio, long windowMs) {
+        this.name                   =  name;
+        this.maxLimit               =  Math.max(1, maxLimit);
+        this.minLimit               =  Math.min(this.maxLimit, Math.max(1, minLimit));
+        this.latencyThresholdNanos  =  TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.failureRateThreshold   =  failureRateThreshold;
+        this.backoffRatio           =  Math.min(0.99d, Math.max(0.1d, backoffRatio));
+        this.windowNanos            =  TimeUnit.MILLISECONDS.toNanos(Math.max(1L, windowMs));
+        this.limit                  =  this.maxLimit;
+    }
+
+
+    /**
+     * 获取许可(超过当前并发上限时阻塞)
+     * @throws InterruptedException
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (acquired >= limit) {
+                permitAvailable.await();
+            }
+            acquired++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放许可
+     */
+    public void release() {
+        lock.lock();
+        try {
+            acquired--;
+            permitAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 记录一次消费结果, 窗口结束时调整并发上限
+     * @param latencyNanos 消费耗时(纳秒)
+     * @param success      是否成功
+     */
+    public void record(long latencyNanos, boolean success) {
+        samples.increment();
+        latencySum.add(latencyNanos);
+        if (! success) {
+            failures.increment();
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            this.adjust();
+        }
+    }
+
+    /**
+     * 按上一窗口的统计调整并发上限
+     */
+    private void adjust() {
+        long count = samples.sumThenReset();
+        long failed = failures.sumThenReset();
+        long latency = latencySum.sumThenReset();
+        if (count <= 0) {
+            return;
+        }
+        int current = limit;
+        int next;
+        if (latency / count > latencyThresholdNanos || (double) failed / count > failureRateThreshold) {
+            next = Math.max(minLimit, (int) (current * backoffRatio));
+        }
+        else {
+            next = Math.min(maxLimit, current + 1);
+        }
+        if (next == current) {
+            return;
+        }
+        this.limit = next;
+        if (next > current) {
+            lock.lock();
+            try {
+                permitAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (LOGGER.isDebugEnabled())
+            LOGGER.debug("Consume concurrency of {} changed from {} to {}, avgLatency={}ms, failureRate={}",
+                    name, current, next, TimeUnit.NANOSECONDS.toMillis(latency / count), (double) failed / count);
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+}
@@ -0,0 +1,99 @@
+package com.leegern.xrocketmq5.core.consumer.adaptive;
+
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerMessageListener;
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
+import org.apache.rocketmq.client.apis.message.MessageView;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 自适应并发监听器(装饰消费监听器)
+ *          统计每次消费的耗时与结果并交给并发限制器;
+ *          需要限流时(PushConsumer, 消费线程池不可调整)消费前先获取许可, 超过当前并发上限的消费线程在此等待.
+ */
+public class XRocketMQConsumerAdaptiveListener implements XRocketMQConsumerMessageListener {
+
+    /* 被装饰的消费监听器 */
+    private final XRocketMQConsumerMessageListener delegate;
+
+    /* 并发限制器 */
+    private final XRocketMQConsumeConcurrencyLimiter limiter;
+
+    /* 是否在消费前获取许可 */
+    private final boolean gating;
+
+
+    /**
+     * 自定义构造器
+     * @param delegate 被装饰的消费监听器
+     * @param limiter  并发限制器
+     * @param gating   是否在消费前获取许可(SimpleConsumer引擎自行控制在途消息数时为false)
+     */
+    public XRocketMQConsumerAdaptiveListener(XRocketMQConsumerMessageListener delegate, XRocketMQConsumeConcurrencyLimiter limiter, boolean gating) {
+        this.delegate  =  delegate;
+        this.limiter   =  limiter;
+        this.gating    =  gating;
+    }
+
+
+    @Override
+    public ConsumeResult consume(MessageView messageView) {
+        if (gating) {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ConsumeResult.FAILURE;
+            }
+        }
+        long start = System.nanoTime();
+        ConsumeResult result = ConsumeResult.FAILURE;
+        try {
+            result = delegate.consume(messageView);
+            return result;
+        } finally {
+            limiter.record(System.nanoTime() - start, result == ConsumeResult.SUCCESS);
+            if (gating) {
+                limiter.release();
+            }
+        }
+    }
+
+    @Override
+    public CompletionStage<ConsumeResult> consumeAsync(MessageView messageView) {
+        if (gating) {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.completedFuture(ConsumeResult.FAILURE);
+            }
+        }
+        long start = System.nanoTime();
+        CompletionStage<ConsumeResult> stage;
+        try {
+            stage = delegate.consumeAsync(messageView);
+        } catch (Throwable e) {
+            stage = CompletableFuture.completedFuture(ConsumeResult.FAILURE);
+        }
+        // 异步结果完成时统计耗时(含等待异步结果的时间)
+        return stage.whenComplete((result, throwable) -> {
+            limiter.record(System.nanoTime() - start, result == ConsumeResult.SUCCESS);
+            if (gating) {
+                limiter.release();
+            }
+        });
+    }
+
+    @Override
+    public Object convertMessage(MessageView messageView, Type targetType) {
+        return delegate.convertMessage(messageView, targetType);
+    }
+
+
+    public XRocketMQConsumeConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
@@ -1,6 +1,8 @@
 package com.leegern.xrocketmq5.core.consumer.annotation;
 
 import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.enums.ConsumeExecutorType;
+import com.leegern.xrocketmq5.core.enums.ConsumerType;
 import com.leegern.xrocketmq5.core.enums.SelectorType;
 
 import java.lang.annotation.*;
@@ -33,4 +35,94 @@ public @interface XRocketMQConsumeListener {
      * Control which message can be select.
      */
     String selectorExpress() default XRocketMQConstants.DEFAULT_FILTER_EXPRESS;
+
+    /**
+     * Control which client consumes the messages, PushConsumer by default.
+     */
+    ConsumerType consumerType() default ConsumerType.PUSH;
+
+    /**
+     * Control which threads run the listener, 'rocketmq.consumer.executorType' by default.
+     * Only applies to {@link ConsumerType#SIMPLE}, PushConsumer always consumes on its own platform thread pool.
+     */
+    ConsumeExecutorType executorType() default ConsumeExecutorType.DEFAULT;
+
+    /**
+     * Max concurrent consumptions with virtual threads, 'rocketmq.consumer.virtualMaxConcurrency' if not positive.
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * Max pending results of a listener method returning {@code CompletionStage} or {@code Mono},
+     * 'rocketmq.consumer.asyncMaxOutstanding' if not positive. Only applies to {@link ConsumerType#SIMPLE} without orderly,
+     * PushConsumer must return the consume result synchronously and waits for the result on its consumption thread.
+     */
+    int asyncMaxOutstanding() default 0;
+
+    /**
+     * Threads of the shared consume scheduler this listener gets first whenever it has messages,
+     * 'rocketmq.consumer.scheduler.minShare' if negative. Only applies when 'rocketmq.consumer.scheduler.enabled' is true.
+     */
+    int schedulerMinShare() default -1;
+
+    /**
+     * Max threads of the shared consume scheduler this listener occupies at once, 'rocketmq.consumer.scheduler.maxShare' if negative,
+     * 0 means all scheduler threads.
+     */
+    int schedulerMaxShare() default -1;
+
+    /**
+     * Weight of this listener when the shared consume scheduler hands out threads beyond min shares,
+     * 'rocketmq.consumer.scheduler.weight' if not positive. Only SimpleConsumer listeners on platform threads use the scheduler.
+     */
+    int schedulerWeight() default 0;
+
+    /**
+     * Skip messages that were already consumed successfully, see 'rocketmq.consumer.idempotent.*'.
+     */
+    boolean idempotent() default false;
+
+    /**
+     * Adjust consume concurrency at runtime by handler latency and failure rate (AIMD), see 'rocketmq.consumer.adaptive.*'.
+     * SimpleConsumer also adjusts how many messages it receives, PushConsumer blocks surplus consumption threads.
+     */
+    boolean adaptive() default false;
+
+    /**
+     * Consume messages of the same message group in order, different groups in parallel.
+     * Only applies to {@link ConsumerType#SIMPLE}, see 'rocketmq.consumer.orderlyLanes' and 'rocketmq.consumer.orderlyLaneCapacity'.
+     */
+    boolean orderly() default false;
+
+    /**
+     * Number of serial lanes that message groups are hashed onto, 'rocketmq.consumer.orderlyLanes' if not positive.
+     */
+    int orderlyLanes() default 0;
+
+    /**
+     * Max number of messages delivered in one call when the listener method takes a {@code List<T>}.
+     * Capped by 'rocketmq.consumer.consumeThreadNum', because each buffered message holds a consumption thread.
+     */
+    int batchMaxSize() default XRocketMQConstants.CONSUME_BATCH_MAX_SIZE;
+
+    /**
+     * Max time in milliseconds to wait for a batch to fill before it is delivered.
+     */
+    long batchMaxWaitMs() default XRocketMQConstants.CONSUME_BATCH_MAX_WAIT_MS;
+
+    /**
+     * Exception types (matched along the cause chain) that are retried in process before the failure goes back to the broker,
+     * 'rocketmq.consumer.retry.retryOn' if empty.
+     */
+    Class<? extends Throwable>[] retryOn() default {};
+
+    /**
+     * Max in-process retries, 'rocketmq.consumer.retryConsumeTimes' if negative, 0 disables local retry.
+     */
+    int retryTimes() default -1;
+
+    /**
+     * Max total time in milliseconds spent on a message including local retries, 'rocketmq.consumer.retry.maxDuration' if negative.
+     */
+    long retryMaxDurationMs() default -1L;
 }
@@ -0,0 +1,74 @@
+package com.leegern.xrocketmq5.core.consumer.dispatch;
+
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
+import org.apache.rocketmq.client.apis.consumer.MessageListener;
+import org.apache.rocketmq.client.apis.message.MessageView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 消费组分发监听器
+ *          按预先生成的分发表(话题 -> 标签 -> 监听器)将消息交给对应的消费监听器, 分发表只读, 分发时无锁
+ */
+public class XRocketMQConsumerDispatchListener implements MessageListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerDispatchListener.class);
+
+    /* 消费组名称 */
+    private final String consumerGroup;
+
+    /* 话题 -> 路由 */
+    private final Map<String, TopicRoute> routes;
+
+
+    /**
+     * 自定义构造器
+     * @param consumerGroup 消费组名称
+     * @param routes        话题路由
+     */
+    public XRocketMQConsumerDispatchListener(String consumerGroup, Map<String, TopicRoute> routes) {
+        this.consumerGroup  =  consumerGroup;
+        this.routes         =  Map.copyOf(routes);
+    }
+
+
+    @Override
+    public ConsumeResult consume(MessageView messageView) {
+        TopicRoute route = routes.get(messageView.getTopic());
+        MessageListener listener = Objects.isNull(route) ? null : route.select(messageView.getTag().orElse(null));
+        if (Objects.isNull(listener)) {
+            // 订阅表达式由监听器合并而来, 正常不会出现; 返回失败以免消息丢失
+            LOGGER.warn("No consume listener of group[{}] matches message[msgId={}, topic={}, tag={}]",
+                    consumerGroup, messageView.getMessageId(), messageView.getTopic(), messageView.getTag().orElse(null));
+            return ConsumeResult.FAILURE;
+        }
+        return listener.consume(messageView);
+    }
+
+
+    /**
+     * 话题路由
+     * @param tagListeners    标签 -> 监听器
+     * @param defaultListener 其余标签的监听器(订阅全部标签或SQL92, 可为空)
+     */
+    public record TopicRoute(Map<String, MessageListener> tagListeners, MessageListener defaultListener) {
+
+        /**
+         * 选择消息标签对应的监听器
+         * @param tag 消息标签
+         * @return
+         */
+        MessageListener select(String tag) {
+            if (Objects.nonNull(tag)) {
+                MessageListener listener = tagListeners.get(tag);
+                if (Objects.nonNull(listener)) {
+                    return listener;
+                }
+            }
+            return defaultListener;
+        }
+    }
+}
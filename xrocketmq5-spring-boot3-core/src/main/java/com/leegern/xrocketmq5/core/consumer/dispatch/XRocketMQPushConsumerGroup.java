@@ -0,0 +1,198 @@
+package com.leegern.xrocketmq5.core.consumer.dispatch;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.enums.SelectorType;
+import org.apache.rocketmq.client.apis.consumer.FilterExpression;
+import org.apache.rocketmq.client.apis.consumer.FilterExpressionType;
+import org.apache.rocketmq.client.apis.consumer.MessageListener;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 同一消费组的PushConsumer监听器集合
+ *          同一消费组的所有监听器合并为一个PushConsumer, 每个话题一个订阅表达式, 消息按话题及标签分发到对应的监听器.
+ *          同一话题下TAG表达式合并为"tag1||tag2", 任一监听器订阅全部标签时订阅"*";
+ *          同一话题下的标签只能由一个监听器处理, 订阅"*"的监听器处理其余标签; SQL92表达式无法按标签分发, 同一话题只允许一个监听器.
+ */
+public class XRocketMQPushConsumerGroup {
+
+    /* TAG表达式分隔符 */
+    private static final String TAG_DELIMITER = "||";
+
+    /* 消费组名称 */
+    private final String consumerGroup;
+
+    /* 话题 -> 订阅 */
+    private final Map<String, TopicSubscription> subscriptions = new LinkedHashMap<>();
+
+
+    /**
+     * 自定义构造器
+     * @param consumerGroup 消费组名称
+     */
+    public XRocketMQPushConsumerGroup(String consumerGroup) {
+        this.consumerGroup = consumerGroup;
+    }
+
+
+    /**
+     * 添加监听器(订阅冲突时抛出异常)
+     * @param topic           话题
+     * @param selectorType    消息选择器类型
+     * @param selectorExpress 消息过滤表达式
+     * @param listener        消息监听器
+     * @param listenerName    监听器名称(用于提示)
+     */
+    public void addListener(String topic, SelectorType selectorType, String selectorExpress, MessageListener listener, String listenerName) {
+        TopicSubscription subscription = subscriptions.computeIfAbsent(topic, key -> new TopicSubscription());
+        if (selectorType == SelectorType.SQL92 && StringUtils.hasText(selectorExpress)) {
+            if (! subscription.isEmpty()) {
+                throw new XRocketMQException(String.format("SQL92 consume listener[%s] conflicts with listener[%s] on topic '%s' of consumer group '%s', "
+                        + "a SQL92 subscription can not be shared", listenerName, subscription.anyListenerName(), topic, consumerGroup));
+            }
+            subscription.sqlExpression   =  selectorExpress;
+            subscription.sqlListener     =  listener;
+            subscription.sqlListenerName =  listenerName;
+            return;
+        }
+        if (Objects.nonNull(subscription.sqlListener)) {
+            throw new XRocketMQException(String.format("Consume listener[%s] conflicts with SQL92 listener[%s] on topic '%s' of consumer group '%s', "
+                    + "a SQL92 subscription can not be shared", listenerName, subscription.sqlListenerName, topic, consumerGroup));
+        }
+
+        Set<String> tags = parseTags(selectorExpress);
+        if (tags.isEmpty()) {
+            if (Objects.nonNull(subscription.wildcardListener)) {
+                throw new XRocketMQException(String.format("Consume listeners[%s, %s] both subscribe all tags of topic '%s' in consumer group '%s'",
+                        subscription.wildcardListenerName, listenerName, topic, consumerGroup));
+            }
+            subscription.wildcardListener      =  listener;
+            subscription.wildcardListenerName  =  listenerName;
+            return;
+        }
+        for (String tag : tags) {
+            String existing = subscription.tagListenerNames.putIfAbsent(tag, listenerName);
+            if (Objects.nonNull(existing) && ! existing.equals(listenerName)) {
+                throw new XRocketMQException(String.format("Consume listeners[%s, %s] both subscribe tag '%s' of topic '%s' in consumer group '%s'",
+                        existing, listenerName, tag, topic, consumerGroup));
+            }
+            subscription.tagListeners.put(tag, listener);
+        }
+    }
+
+    /**
+     * 每个话题的订阅表达式
+     * @return
+     */
+    public Map<String, FilterExpression> getSubscriptionExpressions() {
+        Map<String, FilterExpression> expressions = new LinkedHashMap<>();
+        subscriptions.forEach((topic, subscription) -> expressions.put(topic, subscription.toFilterExpression()));
+        return expressions;
+    }
+
+    /**
+     * 生成按话题及标签分发的监听器(分发表在此时固定)
+     * @return
+     */
+    public XRocketMQConsumerDispatchListener newDispatchListener() {
+        Map<String, XRocketMQConsumerDispatchListener.TopicRoute> routes = new HashMap<>();
+        subscriptions.forEach((topic, subscription) -> routes.put(topic, subscription.toRoute()));
+        return new XRocketMQConsumerDispatchListener(consumerGroup, routes);
+    }
+
+    /**
+     * 监听器数量
+     * @return
+     */
+    public int getListenerCount() {
+        Set<String> names = new LinkedHashSet<>();
+        subscriptions.values().forEach(subscription -> subscription.collectListenerNames(names));
+        return names.size();
+    }
+
+    public String getConsumerGroup() {
+        return consumerGroup;
+    }
+
+
+    /**
+     * 解析TAG表达式
+     * @param selectorExpress 消息过滤表达式
+     * @return 订阅全部标签时返回空集合
+     */
+    private static Set<String> parseTags(String selectorExpress) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (! StringUtils.hasText(selectorExpress)) {
+            return tags;
+        }
+        for (String tag : StringUtils.delimitedListToStringArray(selectorExpress, TAG_DELIMITER)) {
+            tag = tag.trim();
+            if (XRocketMQConstants.DEFAULT_FILTER_EXPRESS.equals(tag)) {
+                tags.clear();
+                return tags;
+            }
+            if (! tag.isEmpty()) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+
+    /**
+     * 话题订阅
+     */
+    private static final class TopicSubscription {
+
+        /* 标签 -> 监听器 */
+        private final Map<String, MessageListener> tagListeners = new LinkedHashMap<>();
+
+        /* 标签 -> 监听器名称 */
+        private final Map<String, String> tagListenerNames = new LinkedHashMap<>();
+
+        /* 订阅全部标签的监听器 */
+        private MessageListener wildcardListener;
+        private String wildcardListenerName;
+
+        /* SQL92监听器 */
+        private String sqlExpression;
+        private MessageListener sqlListener;
+        private String sqlListenerName;
+
+        boolean isEmpty() {
+            return tagListeners.isEmpty() && Objects.isNull(wildcardListener) && Objects.isNull(sqlListener);
+        }
+
+        String anyListenerName() {
+            return Objects.nonNull(wildcardListenerName) ? wildcardListenerName : tagListenerNames.values().iterator().next();
+        }
+
+        void collectListenerNames(Set<String> names) {
+            names.addAll(tagListenerNames.values());
+            if (Objects.nonNull(wildcardListenerName)) names.add(wildcardListenerName);
+            if (Objects.nonNull(sqlListenerName)) names.add(sqlListenerName);
+        }
+
+        FilterExpression toFilterExpression() {
+            if (Objects.nonNull(sqlListener)) {
+                return new FilterExpression(sqlExpression, FilterExpressionType.SQL92);
+            }
+            if (Objects.nonNull(wildcardListener)) {
+                return new FilterExpression(XRocketMQConstants.DEFAULT_FILTER_EXPRESS, FilterExpressionType.TAG);
+            }
+            return new FilterExpression(String.join(TAG_DELIMITER, tagListeners.keySet()), FilterExpressionType.TAG);
+        }
+
+        XRocketMQConsumerDispatchListener.TopicRoute toRoute() {
+            MessageListener defaultListener = Objects.nonNull(sqlListener) ? sqlListener : wildcardListener;
+            return new XRocketMQConsumerDispatchListener.TopicRoute(Map.copyOf(tagListeners), defaultListener);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.leegern.xrocketmq5.core.consumer.idempotent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 消费幂等本地缓存
+ *          有界、按时间过期的并发集合, 只保存键的64位哈希与过期时间(两个long数组, 每条16字节), 百万条目不产生额外对象.
+ *          按哈希分段加锁, 段内开放寻址且最多探测{@link #PROBE_LIMIT}个槽位; 无空闲或过期槽位时淘汰最早过期的条目.
+ *          淘汰只会造成漏判(重复消费), 哈希冲突造成误判的概率可忽略.
+ */
+public class XRocketMQConsumeIdempotentCache {
+
+    /* 最大探测槽位数 */
+    private static final int PROBE_LIMIT = 8;
+
+    /* 分段 */
+    private final Segment[] segments;
+
+    /* 分段掩码 */
+    private final int segmentMask;
+
+    /* 条目保留时间(纳秒) */
+    private final long ttlNanos;
+
+
+    /**
+     * 自定义构造器
+     * @param capacity   最大条目数
+     * @param ttlMillis  条目保留时间(毫秒)
+     */
+    public XRocketMQConsumeIdempotentCache(int capacity, long ttlMillis) {
+        int segmentCount = ceilingPowerOfTwo(Math.max(1, Runtime.getRuntime().availableProcessors() * 4));
+        int segmentCapacity = ceilingPowerOfTwo(Math.max(PROBE_LIMIT * 2, Math.max(1, capacity) / segmentCount));
+
+        this.segments     =  new Segment[segmentCount];
+        this.segmentMask  =  segmentCount - 1;
+        this.ttlNanos     =  TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+
+    /**
+     * 是否包含未过期的键
+     * @param key 幂等键
+     * @return
+     */
+    public boolean contains(String key) {
+        long hash = hash(key);
+        return this.segmentFor(hash).contains(hash, System.nanoTime());
+    }
+
+    /**
+     * 添加键(已存在时刷新过期时间)
+     * @param key 幂等键
+     */
+    public void add(String key) {
+        long hash = hash(key);
+        long now = System.nanoTime();
+        this.segmentFor(hash).add(hash, now, now + ttlNanos);
+    }
+
+
+    /**
+     * 获取键所在分段(高位选段, 低位选槽)
+     * @param hash 键哈希
+     * @return
+     */
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    /**
+     * 64位键哈希(FNV-1a后再做混淆), 0保留为空槽位
+     * @param key 幂等键
+     * @return
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0L ? 1L : h;
+    }
+
+    /**
+     * 不小于指定值的2的幂
+     * @param value
+     * @return
+     */
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+
+    /**
+     * 缓存分段
+     */
+    private static final class Segment {
+
+        /* 锁 */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /* 键哈希(0表示空槽位) */
+        private final long[] hashes;
+
+        /* 过期时间(System.nanoTime) */
+        private final long[] expires;
+
+        /* 槽位掩码 */
+        private final int mask;
+
+        Segment(int capacity) {
+            this.hashes   =  new long[capacity];
+            this.expires  =  new long[capacity];
+            this.mask     =  capacity - 1;
+        }
+
+        boolean contains(long hash, long now) {
+            int index = (int) hash & mask;
+            lock.lock();
+            try {
+                for (int i = 0; i < PROBE_LIMIT; i++) {
+                    int slot = (index + i) & mask;
+                    if (hashes[slot] == hash && expires[slot] - now > 0) {
+                        return true;
+                    }
+                    if (hashes[slot] == 0L) {
+                        return false;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(long hash, long now, long expireAt) {
+            int index = (int) hash & mask;
+            lock.lock();
+            try {
+                int victim = -1;
+                for (int i = 0; i < PROBE_LIMIT; i++) {
+                    int slot = (index + i) & mask;
+                    if (hashes[slot] == hash || hashes[slot] == 0L) {
+                        victim = slot;
+                        break;
+                    }
+                    // 优先复用过期槽位, 否则淘汰最早过期的条目
+                    if (victim < 0 || expires[slot] - expires[victim] < 0) {
+                        victim = slot;
+                    }
+                    if (expires[slot] - now <= 0) {
+                        victim = slot;
+                        break;
+                    }
+                }
+                hashes[victim]   =  hash;
+                expires[victim]  =  expireAt;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.leegern.xrocketmq5.core.consumer.idempotent;
+
+/**
+ * 消费幂等共享存储(如Redis), 注册为Spring bean后用于跨节点去重, 本地缓存作为其前置缓存.
+ *          幂等键的作用域为消费组+话题, 同一消费组下不同话题的相同业务键互不影响.
+ *          存储异常时视为未消费(宁可重复消费, 不可丢失消息).
+ */
+public interface XRocketMQConsumeIdempotentStore {
+
+    /**
+     * 是否已经消费成功
+     * @param consumerGroup 消费组
+     * @param topicName     话题
+     * @param key           幂等键
+     * @return
+     */
+    boolean contains(String consumerGroup, String topicName, String key);
+
+    /**
+     * 记录消费成功
+     * @param consumerGroup 消费组
+     * @param topicName     话题
+     * @param key           幂等键
+     * @param ttlMillis     保留时间(毫秒)
+     */
+    void put(String consumerGroup, String topicName, String key, long ttlMillis);
+}
@@ -0,0 +1,198 @@
+package com.leegern.xrocketmq5.core.consumer.idempotent;
+
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerMessageListener;
+import com.leegern.xrocketmq5.core.enums.IdempotentKeyType;
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
+import org.apache.rocketmq.client.apis.message.MessageView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.CollectionUtils;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 消费幂等监听器(装饰消费监听器)
+ *          消费前检查幂等键是否已消费成功, 已消费则直接返回成功; 消费成功后记录幂等键.
+ *          先查本地缓存, 再查共享存储(若有); 共享存储异常时视为未消费.
+ */
+public class XRocketMQConsumerIdempotentListener implements XRocketMQConsumerMessageListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerIdempotentListener.class);
+
+    /* 被装饰的消费监听器 */
+    private final XRocketMQConsumerMessageListener delegate;
+
+    /* 监听器名称(消费组:话题) */
+    private final String name;
+
+    /* 消费组 */
+    private final String consumerGroup;
+
+    /* 话题 */
+    private final String topicName;
+
+    /* 幂等键类型 */
+    private final IdempotentKeyType keyType;
+
+    /* 本地缓存 */
+    private final XRocketMQConsumeIdempotentCache cache;
+
+    /* 共享存储(可为空) */
+    private final XRocketMQConsumeIdempotentStore store;
+
+    /* 条目保留时间(毫秒) */
+    private final long ttlMillis;
+
+    /* 命中(重复消息)次数 */
+    private final LongAdder hits = new LongAdder();
+
+    /* 未命中次数 */
+    private final LongAdder misses = new LongAdder();
+
+
+    /**
+     * 自定义构造器
+     * @param delegate       被装饰的消费监听器
+     * @param consumerGroup  消费组
+     * @param topicName      话题
+     * @param keyType        幂等键类型
+     * @param capacity       本地缓存最大条目数
+     * @param ttlMillis      条目保留时间(毫秒)
+     * @param store          共享存储(可为空)
+     */
+    public XRocketMQConsumerIdempotentListener(XRocketMQConsumerMessageListener delegate, String consumerGroup, String topicName,
+                                               IdempotentKeyType keyType, int capacity, long ttlMillis, XRocketMQConsumeIdempotentStore store) {
+        this.delegate       =  delegate;
+        this.name           =  consumerGroup + ":" + topicName;
+        this.consumerGroup  =  consumerGroup;
+        this.topicName      =  topicName;
+        this.keyType        =  keyType;
+        this.cache          =  new XRocketMQConsumeIdempotentCache(capacity, ttlMillis);
+        this.store          =  store;
+        this.ttlMillis      =  ttlMillis;
+    }
+
+
+    @Override
+    public ConsumeResult consume(MessageView messageView) {
+        String key = this.resolveKey(messageView);
+        if (Objects.isNull(key)) {
+            return delegate.consume(messageView);
+        }
+        if (this.isConsumed(key)) {
+            hits.increment();
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Skip duplicate message[msgId={}, key={}] of {}", messageView.getMessageId(), key, name);
+            return ConsumeResult.SUCCESS;
+        }
+        misses.increment();
+
+        ConsumeResult result = delegate.consume(messageView);
+        if (result == ConsumeResult.SUCCESS) {
+            this.markConsumed(key);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletionStage<ConsumeResult> consumeAsync(MessageView messageView) {
+        String key = this.resolveKey(messageView);
+        if (Objects.isNull(key)) {
+            return delegate.consumeAsync(messageView);
+        }
+        if (this.isConsumed(key)) {
+            hits.increment();
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Skip duplicate message[msgId={}, key={}] of {}", messageView.getMessageId(), key, name);
+            return CompletableFuture.completedFuture(ConsumeResult.SUCCESS);
+        }
+        misses.increment();
+
+        return delegate.consumeAsync(messageView).thenApply(result -> {
+            if (result == ConsumeResult.SUCCESS) {
+                this.markConsumed(key);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Object convertMessage(MessageView messageView, Type targetType) {
+        return delegate.convertMessage(messageView, targetType);
+    }
+
+
+    /**
+     * 解析幂等键
+     * @param messageView 消息视图
+     * @return
+     */
+    private String resolveKey(MessageView messageView) {
+        if (keyType == IdempotentKeyType.BUSINESS_KEY) {
+            Collection<String> keys = messageView.getKeys();
+            if (! CollectionUtils.isEmpty(keys)) {
+                String key = keys.iterator().next();
+                if (Objects.nonNull(key) && ! key.isEmpty()) {
+                    return key;
+                }
+            }
+        }
+        return Objects.isNull(messageView.getMessageId()) ? null : messageView.getMessageId().toString();
+    }
+
+    /**
+     * 是否已经消费成功
+     * @param key 幂等键
+     * @return
+     */
+    private boolean isConsumed(String key) {
+        if (cache.contains(key)) {
+            return true;
+        }
+        if (Objects.nonNull(store)) {
+            try {
+                if (store.contains(consumerGroup, topicName, key)) {
+                    // 回填本地缓存
+                    cache.add(key);
+                    return true;
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Query idempotent store of {} failed, treat as not consumed: {}", name, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录消费成功
+     * @param key 幂等键
+     */
+    private void markConsumed(String key) {
+        cache.add(key);
+        if (Objects.nonNull(store)) {
+            try {
+                store.put(consumerGroup, topicName, key, ttlMillis);
+            } catch (Exception e) {
+                LOGGER.warn("Save idempotent key of {} failed: {}", name, e.getMessage());
+            }
+        }
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
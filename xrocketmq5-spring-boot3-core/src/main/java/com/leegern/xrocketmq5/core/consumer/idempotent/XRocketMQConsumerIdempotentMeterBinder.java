@@ -0,0 +1,39 @@
+package com.leegern.xrocketmq5.core.consumer.idempotent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 消费幂等指标
+ *          xrocketmq.consumer.idempotent.hits / misses, 标签listener为消费组:话题
+ */
+public class XRocketMQConsumerIdempotentMeterBinder implements MeterBinder {
+
+    /* 幂等监听器注册表 */
+    private final XRocketMQConsumerIdempotentRegistry idempotentRegistry;
+
+
+    /**
+     * 自定义构造器
+     * @param idempotentRegistry 幂等监听器注册表
+     */
+    public XRocketMQConsumerIdempotentMeterBinder(XRocketMQConsumerIdempotentRegistry idempotentRegistry) {
+        this.idempotentRegistry = idempotentRegistry;
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        idempotentRegistry.forEach(listener -> {
+            FunctionCounter.builder("xrocketmq.consumer.idempotent.hits", listener, XRocketMQConsumerIdempotentListener::getHitCount)
+                    .description("Duplicate messages skipped by the consumer idempotent cache")
+                    .tag("listener", listener.getName())
+                    .register(registry);
+            FunctionCounter.builder("xrocketmq.consumer.idempotent.misses", listener, XRocketMQConsumerIdempotentListener::getMissCount)
+                    .description("Messages not found in the consumer idempotent cache")
+                    .tag("listener", listener.getName())
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.leegern.xrocketmq5.core.consumer.idempotent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 消费幂等监听器注册表(用于暴露命中/未命中指标)
+ *          消费监听器在Bean初始化阶段注册, 可能晚于指标绑定, 因此支持注册回调
+ */
+public class XRocketMQConsumerIdempotentRegistry {
+
+    /* 已注册的幂等监听器 */
+    private final List<XRocketMQConsumerIdempotentListener> listeners = new CopyOnWriteArrayList<>();
+
+    /* 注册回调 */
+    private final List<Consumer<XRocketMQConsumerIdempotentListener>> callbacks = new CopyOnWriteArrayList<>();
+
+
+    /**
+     * 注册幂等监听器
+     * @param listener 幂等监听器
+     */
+    public synchronized void register(XRocketMQConsumerIdempotentListener listener) {
+        listeners.add(listener);
+        callbacks.forEach(callback -> callback.accept(listener));
+    }
+
+    /**
+     * 对已注册及之后注册的幂等监听器执行回调
+     * @param callback 回调
+     */
+    public synchronized void forEach(Consumer<XRocketMQConsumerIdempotentListener> callback) {
+        listeners.forEach(callback);
+        callbacks.add(callback);
+    }
+
+    public List<XRocketMQConsumerIdempotentListener> getListeners() {
+        return List.copyOf(listeners);
+    }
+}
@@ -0,0 +1,277 @@
+package com.leegern.xrocketmq5.core.consumer.listener;
+
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
+import com.leegern.xrocketmq5.core.consumer.XRocketMQConsumerInterceptor;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQConsumeRecorder;
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
+import org.apache.rocketmq.client.apis.message.MessageView;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消费者消费消息监听器抽象类
+ *          封装消息转换、方法调用、拦截器以及方法返回值到消费结果的转换;
+ *          消费方法可返回CompletionStage或Reactor Mono(结果为空、Boolean或ConsumeResult), 异步结果完成时确定消费结果
+ */
+public abstract class XRocketMQConsumerAbstractMessageListener implements XRocketMQConsumerMessageListener {
+
+    /* Reactor Mono类名 */
+    private static final String MONO_CLASS_NAME = "reactor.core.publisher.Mono";
+
+    /* 实例对象 */
+    protected final Object beanObj;
+
+    /* 消费消息的方法 */
+    protected final Method invocableMethod;
+
+    /* 消费方法调用器 */
+    protected final XRocketMQConsumerInvoker invoker;
+
+    /* 订阅话题的拦截器链(注册时匹配话题并排序, 只读) */
+    protected final XRocketMQConsumerInterceptor[] interceptors;
+
+    /* 订阅的主题 */
+    protected final String topicName;
+
+    /* 消息编解码器注册表 */
+    protected final XRocketMQMessageCodecRegistry codecRegistry;
+
+    /* 消费指标记录器 */
+    protected final XRocketMQConsumeRecorder recorder;
+
+    /* 消费方法是否返回异步结果 */
+    protected final boolean asyncReturn;
+
+    /* 同步等待异步结果的超时时间(毫秒) */
+    protected final long asyncTimeoutMillis;
+
+
+    /**
+     * 自定义构造器
+     * @param bean
+     * @param invocableMethod
+     * @param invoker
+     * @param interceptors
+     * @param topicName
+     * @param codecRegistry
+     * @param recorder           消费指标记录器(为空时不记录)
+     * @param asyncTimeoutMillis 同步等待异步结果的超时时间(毫秒)
+     */
+    protected XRocketMQConsumerAbstractMessageListener(Object bean, Method invocableMethod, XRocketMQConsumerInvoker invoker,
+                                                       List<XRocketMQConsumerInterceptor> interceptors,
+                                                       String topicName, XRocketMQMessageCodecRegistry codecRegistry,
+                                                       XRocketMQConsumeRecorder recorder, long asyncTimeoutMillis) {
+        this.beanObj            =   bean;
+        this.invocableMethod    =   invocableMethod;
+        this.invoker            =   invoker;
+        this.interceptors       =   resolveInterceptors(interceptors, topicName);
+        this.topicName          =   topicName;
+        this.codecRegistry      =   codecRegistry;
+        this.recorder           =   Objects.isNull(recorder) ? XRocketMQConsumeRecorder.NOOP : recorder;
+        this.asyncReturn        =   isAsyncReturnType(invocableMethod.getReturnType());
+        this.asyncTimeoutMillis =   asyncTimeoutMillis;
+    }
+
+
+    /**
+     * 是否为异步返回类型(CompletionStage及其实现, 或存在Reactor时的Mono)
+     * @param returnType 消费方法返回类型
+     * @return
+     */
+    public static boolean isAsyncReturnType(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType) || ReactorSupport.isMono(returnType);
+    }
+
+
+    @Override
+    public Object convertMessage(MessageView messageView, Type targetType) {
+        if (targetType == MessageView.class) {
+            return messageView;
+        }
+        // String、byte[]、ByteBuffer、InputStream或按编解码器直接从消息体解码
+        return this.codecRegistry.decode(messageView, targetType);
+    }
+
+
+    /**
+     * 执行消费消息方法
+     * @param paramObj 消息参数
+     * @return
+     * @throws Exception 消费方法抛出的异常
+     */
+    protected Object doInvoke(Object paramObj) throws Exception {
+        return invoker.invoke(beanObj, paramObj);
+    }
+
+    /**
+     * 消费方法的异步返回值转换为CompletableFuture
+     * @param returnVal 方法返回值
+     * @return 非异步返回值时返回已完成的结果
+     */
+    protected CompletableFuture<?> toFuture(Object returnVal) {
+        return toCompletableFuture(returnVal);
+    }
+
+    /**
+     * 异步返回值(CompletionStage或Mono)转换为CompletableFuture
+     * @param returnVal 方法返回值
+     * @return 非异步返回值时返回已完成的结果
+     */
+    public static CompletableFuture<?> toCompletableFuture(Object returnVal) {
+        if (returnVal instanceof CompletionStage<?> stage) {
+            return stage.toCompletableFuture();
+        }
+        if (Objects.nonNull(returnVal) && ReactorSupport.isMono(returnVal.getClass())) {
+            return ReactorSupport.toFuture(returnVal);
+        }
+        return CompletableFuture.completedFuture(returnVal);
+    }
+
+    /**
+     * 同步等待消费方法的异步返回值(批量消费等只能同步返回结果的场景)
+     * @param returnVal 方法返回值
+     * @return 异步结果的值, 非异步方法直接返回原值
+     * @throws Exception 异步结果异常完成时抛出其原始异常, 超时抛出TimeoutException
+     */
+    protected Object awaitReturn(Object returnVal) throws Exception {
+        if (! asyncReturn) {
+            return returnVal;
+        }
+        try {
+            return this.toFuture(returnVal).get(asyncTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * 解包异步结果的异常
+     * @param throwable 异步结果的异常
+     * @return 原始异常
+     */
+    protected static Exception unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && Objects.nonNull(cause.getCause())) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception e ? e : new XRocketMQException(cause);
+    }
+
+    /**
+     * 方法返回值转换为消费结果
+     * @param returnVal 方法返回值
+     * @return 返回值为空或不支持的类型时视为消费成功
+     */
+    protected ConsumeResult toConsumeResult(Object returnVal) {
+        if (returnVal instanceof ConsumeResult) {
+            return (ConsumeResult) returnVal;
+        }
+        else if (returnVal instanceof Boolean) {
+            return ((boolean) returnVal) ? ConsumeResult.SUCCESS : ConsumeResult.FAILURE;
+        }
+        return ConsumeResult.SUCCESS;
+    }
+
+
+    /**
+     * 消费消息之前拦截器
+     * @param messageView  消息视图
+     * @return
+     */
+    protected MessageView invokeBefore(MessageView messageView) {
+        for (XRocketMQConsumerInterceptor interceptor : interceptors) {
+            messageView = interceptor.before(messageView);
+        }
+        return messageView;
+    }
+
+    /**
+     * 消费消息之后拦截器
+     * @param messageView  消息视图
+     * @param ex
+     */
+    protected void invokeAfter(MessageView messageView, Exception ex) {
+        for (XRocketMQConsumerInterceptor interceptor : interceptors) {
+            interceptor.after(messageView, ex);
+        }
+    }
+
+
+    /**
+     * 解析订阅话题的拦截器链(matchTopics只在此时调用)
+     * @param interceptors 容器中的消费拦截器
+     * @param topicName    订阅的主题
+     * @return 按执行顺序排序的拦截器数组
+     */
+    private static XRocketMQConsumerInterceptor[] resolveInterceptors(List<XRocketMQConsumerInterceptor> interceptors, String topicName) {
+        if (CollectionUtils.isEmpty(interceptors)) {
+            return new XRocketMQConsumerInterceptor[0];
+        }
+        List<XRocketMQConsumerInterceptor> matched = new ArrayList<>(interceptors.size());
+        for (XRocketMQConsumerInterceptor interceptor : interceptors) {
+            List<String> matchTopics = interceptor.matchTopics();
+            if (CollectionUtils.isEmpty(matchTopics) || matchTopics.contains(topicName)) {
+                matched.add(interceptor);
+            }
+        }
+        matched.sort(Comparator.comparingInt(XRocketMQConsumerInterceptor::getOrder));
+        return matched.toArray(new XRocketMQConsumerInterceptor[0]);
+    }
+
+
+    /**
+     * Reactor支持(未引入reactor-core时不生效), Mono通过toFuture订阅
+     */
+    private static final class ReactorSupport {
+
+        /* Mono类型 */
+        private static final Class<?> MONO_CLASS;
+
+        /* Mono.toFuture() */
+        private static final MethodHandle TO_FUTURE;
+
+        static {
+            Class<?> monoClass = null;
+            MethodHandle toFuture = null;
+            ClassLoader classLoader = XRocketMQConsumerAbstractMessageListener.class.getClassLoader();
+            if (ClassUtils.isPresent(MONO_CLASS_NAME, classLoader)) {
+                try {
+                    monoClass = ClassUtils.forName(MONO_CLASS_NAME, classLoader);
+                    toFuture = MethodHandles.publicLookup().findVirtual(monoClass, "toFuture", MethodType.methodType(CompletableFuture.class));
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    monoClass = null;
+                }
+            }
+            MONO_CLASS  =  monoClass;
+            TO_FUTURE   =  toFuture;
+        }
+
+        static boolean isMono(Class<?> type) {
+            return Objects.nonNull(MONO_CLASS) && MONO_CLASS.isAssignableFrom(type);
+        }
+
+        static CompletableFuture<?> toFuture(Object mono) {
+            try {
+                return (CompletableFuture<?>) TO_FUTURE.invoke(mono);
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.leegern.xrocketmq5.core.consumer.listener;
+
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
+import com.leegern.xrocketmq5.core.consumer.XRocketMQConsumerInterceptor;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQConsumeRecorder;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
+import org.apache.rocketmq.client.apis.message.MessageView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 批量消费消息监听器
+ *          PushConsumer每次回调只投递一条消息且回调线程需同步返回消费结果, 因此每条消息的回调线程将消息放入缓冲区后等待;
+ *          首个空闲的等待线程成为收集者, 在条数达到上限或等待超时后将缓冲区消息合并为一个List调用消费方法,
+ *          再将每条消息的消费结果交还给对应的回调线程. 单批最大条数受消费线程数限制.
+ *
+ *          消费方法返回值: 空、Boolean或ConsumeResult作用于整批消息;
+ *          与入参等长的List(元素为Boolean或ConsumeResult)按下标对应每条消息.
+ *          单条消息转换失败只影响该条消息, 方法抛出异常时整批消息消费失败.
+ */
+public class XRocketMQConsumerBatchMessageListener extends XRocketMQConsumerAbstractMessageListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerBatchMessageListener.class);
+
+    /* 列表元素(消息)目标类型(注册时解析的泛型类型) */
+    private final Type elementType;
+
+    /* 单批最大消息条数 */
+    private final int batchMaxSize;
+
+    /* 单批最大等待时间(纳秒) */
+    private final long batchMaxWaitNanos;
+
+    /* 缓冲区锁 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* 缓冲区已满(通知收集者) */
+    private final Condition batchFull = lock.newCondition();
+
+    /* 收集者变更或消费结果已返回(通知等待线程) */
+    private final Condition stateChanged = lock.newCondition();
+
+    /* 待消费的消息缓冲区 */
+    private final Deque<BatchEntry> pending = new ArrayDeque<>();
+
+    /* 是否有线程正在收集批次 */
+    private boolean collecting;
+
+
+    /**
+     * 自定义构造器
+     * @param bean
+     * @param elementType        列表元素(消息)目标类型(支持泛型)
+     * @param invocableMethod
+     * @param invoker
+     * @param interceptors
+     * @param topicName
+     * @param codecRegistry
+     * @param recorder
+     * @param batchMaxSize       单批最大消息条数
+     * @param batchMaxWaitMs     单批最大等待时间(毫秒)
+     * @param asyncTimeoutMillis 等待异步结果的超时时间(毫秒)
+     */
+    public XRocketMQConsumerBatchMessageListener(Object bean, Type elementType, Method invocableMethod, XRocketMQConsumerInvoker invoker,
+                                                 List<XRocketMQConsumerInterceptor> interceptors, String topicName,
+                                                 XRocketMQMessageCodecRegistry codecRegistry, XRocketMQConsumeRecorder recorder,
+                                                 int batchMaxSize, long batchMaxWaitMs, long asyncTimeoutMillis) {
+        super(bean, invocableMethod, invoker, interceptors, topicName, codecRegistry, recorder, asyncTimeoutMillis);
+        this.elementType        =  elementType;
+        this.batchMaxSize       =  Math.max(1, batchMaxSize);
+        this.batchMaxWaitNanos  =  TimeUnit.MILLISECONDS.toNanos(Math.max(0L, batchMaxWaitMs));
+    }
+
+
+    @Override
+    public ConsumeResult consume(MessageView messageView) {
+        if (! ObjectUtils.allNotNull(messageView, messageView.getBody())) {
+            LOGGER.warn("'messageView' does not contain any body when consuming msg : {}", messageView);
+            return ConsumeResult.SUCCESS;
+        }
+        BatchEntry entry = new BatchEntry(messageView);
+        List<BatchEntry> batch;
+
+        lock.lock();
+        try {
+            pending.addLast(entry);
+            if (pending.size() >= batchMaxSize) {
+                batchFull.signal();
+            }
+            // 等待其他收集者返回结果, 或在没有收集者时成为收集者
+            while (Objects.isNull(entry.result)) {
+                if (! collecting && entry.queued) {
+                    collecting = true;
+                    break;
+                }
+                try {
+                    stateChanged.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (entry.queued) {
+                        // 尚未被收集, 直接放弃并稍后重新投递
+                        pending.remove(entry);
+                        entry.queued = false;
+                        return ConsumeResult.FAILURE;
+                    }
+                    // 已在消费中, 等待结果
+                    while (Objects.isNull(entry.result)) {
+                        stateChanged.awaitUninterruptibly();
+                    }
+                }
+            }
+            if (Objects.nonNull(entry.result)) {
+                return entry.result;
+            }
+            // 收集者: 等待批次填满或超时
+            long nanos = batchMaxWaitNanos;
+            try {
+                while (pending.size() < batchMaxSize && nanos > 0) {
+                    nanos = batchFull.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batch = this.drain(entry);
+            collecting = false;
+            // 缓冲区剩余消息的线程可成为下一个收集者
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        // 消费本批消息并返回每条消息的消费结果
+        try {
+            this.consumeBatch(batch);
+        } finally {
+            lock.lock();
+            try {
+                // 消费过程抛出Error等未捕获异常时, 未设置结果的消息按失败处理, 避免等待线程永久阻塞
+                for (BatchEntry drained : batch) {
+                    if (Objects.isNull(drained.result)) {
+                        drained.result = ConsumeResult.FAILURE;
+                    }
+                }
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return entry.result;
+    }
+
+
+    /**
+     * 从缓冲区取出一批消息(收集者自身的消息总在本批中)
+     * @param leader 收集者消息
+     * @return
+     */
+    private List<BatchEntry> drain(BatchEntry leader) {
+        List<BatchEntry> batch = new ArrayList<>(Math.min(batchMaxSize, pending.size()));
+        pending.remove(leader);
+        leader.queued = false;
+        batch.add(leader);
+        Iterator<BatchEntry> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < batchMaxSize) {
+            BatchEntry entry = iterator.next();
+            iterator.remove();
+            entry.queued = false;
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * 消费一批消息并设置每条消息的消费结果(结果在释放锁后由等待线程读取)
+     * @param batch 批次消息
+     */
+    private void consumeBatch(List<BatchEntry> batch) {
+        // 消费消息之前拦截器及消息转换, 单条失败不影响其他消息
+        List<BatchEntry> accepted = new ArrayList<>(batch.size());
+        List<Object> msgObjs = new ArrayList<>(batch.size());
+        for (BatchEntry entry : batch) {
+            try {
+                long start = System.nanoTime();
+                entry.messageView = this.invokeBefore(entry.messageView);
+                long converting = System.nanoTime();
+                entry.interceptorNanos = converting - start;
+                msgObjs.add(this.convertMessage(entry.messageView, elementType));
+                recorder.recordDeserialize(System.nanoTime() - converting);
+                accepted.add(entry);
+            } catch (Exception e) {
+                LOGGER.error("Convert message of method[{}] failed, msg:{}, err:{}", invocableMethod.getName(), entry.messageView, ExceptionUtils.getStackTrace(e));
+                this.complete(entry, ConsumeResult.FAILURE, e);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Exception ex = null;
+        List<ConsumeResult> results = null;
+        try {
+            long invoking = System.nanoTime();
+            // 消费消息
+            Object returnVal = this.awaitReturn(this.doInvoke(msgObjs));
+            long costNanos = System.nanoTime() - invoking;
+            recorder.recordHandler(costNanos);
+
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Consume batch of {} messages cost: {}ms", accepted.size(), TimeUnit.NANOSECONDS.toMillis(costNanos));
+
+            // 处理方法执行结果
+            results = this.toConsumeResults(returnVal, accepted.size());
+        } catch (Exception e) {
+            ex = e;
+            LOGGER.error("Consume batch of method[{}] failed, size:{}, err:{}", invocableMethod.getName(), accepted.size(), ExceptionUtils.getStackTrace(e));
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            this.complete(accepted.get(i), Objects.isNull(results) ? ConsumeResult.FAILURE : results.get(i), ex);
+        }
+    }
+
+    /**
+     * 方法返回值转换为每条消息的消费结果
+     * @param returnVal 方法返回值
+     * @param size      消息条数
+     * @return
+     */
+    private List<ConsumeResult> toConsumeResults(Object returnVal, int size) {
+        List<ConsumeResult> results = new ArrayList<>(size);
+        if (returnVal instanceof Collection<?> collection) {
+            if (collection.size() != size) {
+                throw new XRocketMQException(String.format("The size of batch consume results(%d) does not match the size of messages(%d)", collection.size(), size));
+            }
+            for (Object item : collection) {
+                results.add(this.toConsumeResult(item));
+            }
+            return results;
+        }
+        ConsumeResult result = this.toConsumeResult(returnVal);
+        for (int i = 0; i < size; i++) {
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * 设置消息的消费结果并执行消费消息之后拦截器
+     * @param entry  缓冲消息
+     * @param result 消费结果
+     * @param ex     异常信息
+     */
+    private void complete(BatchEntry entry, ConsumeResult result, Exception ex) {
+        long start = System.nanoTime();
+        try {
+            this.invokeAfter(entry.messageView, ex);
+        } catch (Exception e) {
+            LOGGER.error("Execute consumer 'invokeAfter' err:{}", ExceptionUtils.getStackTrace(e));
+        }
+        recorder.recordInterceptor(entry.interceptorNanos + System.nanoTime() - start);
+        recorder.recordResult(result == ConsumeResult.SUCCESS);
+        lock.lock();
+        try {
+            entry.result = result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 缓冲区中的消息
+     */
+    private static class BatchEntry {
+
+        /* 消息视图 */
+        private MessageView messageView;
+
+        /* 是否仍在缓冲区中 */
+        private boolean queued = true;
+
+        /* 消费结果 */
+        private ConsumeResult result;
+
+        /* 消费前拦截器耗时(纳秒) */
+        private long interceptorNanos;
+
+        BatchEntry(MessageView messageView) {
+            this.messageView = messageView;
+        }
+    }
+}
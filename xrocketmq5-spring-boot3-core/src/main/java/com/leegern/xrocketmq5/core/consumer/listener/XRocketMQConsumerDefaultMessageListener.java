@@ -1,115 +1,112 @@
 package com.leegern.xrocketmq5.core.consumer.listener;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
 import com.leegern.xrocketmq5.core.consumer.XRocketMQConsumerInterceptor;
-import com.leegern.xrocketmq5.core.json.JacksonProvider;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQConsumeRecorder;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.commons.lang3.time.StopWatch;
 import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
 import org.apache.rocketmq.client.apis.message.MessageView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.BridgeMethodResolver;
-import org.springframework.util.CollectionUtils;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.nio.charset.StandardCharsets;
-import java.util.Comparator;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  *  消费者消费消息监听器默认实现
  */
-public class XRocketMQConsumerDefaultMessageListener implements XRocketMQConsumerMessageListener {
+public class XRocketMQConsumerDefaultMessageListener extends XRocketMQConsumerAbstractMessageListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerDefaultMessageListener.class);
 
-    /* 实例对象 */
-    private Object beanObj;
-
-    /* 消息目标类clazz */
-    private Class<?> messageClazz;
-
-    /* 消费消息的方法 */
-    private Method invocableMethod;
-
-    /* 消费消息前后的拦截器 */
-    private List<XRocketMQConsumerInterceptor> interceptors;
-
-    /* 订阅的主题 */
-    private String topicName;
-
-    /* json序列化 */
-    private ObjectMapper json;
+    /* 消息目标类型(注册时解析的泛型类型) */
+    private final Type messageType;
 
     /**
      * 自定义构造器
-     * @param messageClazz
+     * @param bean
+     * @param messageType      消息目标类型(支持泛型)
      * @param invocableMethod
+     * @param invoker
      * @param interceptors
      * @param topicName
+     * @param codecRegistry
+     * @param recorder
+     * @param asyncTimeoutMillis PushConsumer等待异步结果的超时时间(毫秒)
      */
-    public XRocketMQConsumerDefaultMessageListener(Object bean, Class<?> messageClazz, Method invocableMethod,
-                                                   List<XRocketMQConsumerInterceptor> interceptors, String topicName) {
-        this.beanObj           =   bean;
-        this.messageClazz      =   messageClazz;
-        this.invocableMethod   =   invocableMethod;
-        this.interceptors      =   interceptors;
-        this.topicName         =   topicName;
-
-        // JSON实例化
-        this.json = JacksonProvider.getInstance().getJson();
-
-        // 拦截器排序
-        this.interceptors.sort(Comparator.comparingInt(XRocketMQConsumerInterceptor::getOrder));
+    public XRocketMQConsumerDefaultMessageListener(Object bean, Type messageType, Method invocableMethod, XRocketMQConsumerInvoker invoker,
+                                                   List<XRocketMQConsumerInterceptor> interceptors, String topicName,
+                                                   XRocketMQMessageCodecRegistry codecRegistry, XRocketMQConsumeRecorder recorder,
+                                                   long asyncTimeoutMillis) {
+        super(bean, invocableMethod, invoker, interceptors, topicName, codecRegistry, recorder, asyncTimeoutMillis);
+        this.messageType = messageType;
     }
 
 
     @Override
     public ConsumeResult consume(MessageView messageView) {
+        if (asyncReturn) {
+            // PushConsumer需同步返回消费结果, 等待异步结果完成; 超时按失败处理, 避免异步结果不完成时永久占用消费线程
+            try {
+                return this.consumeAsync(messageView).toCompletableFuture().get(asyncTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                LOGGER.warn("Consume message[msgId={}] of method[{}] not completed in {}ms, consume failed", messageView.getMessageId(), invocableMethod.getName(), asyncTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOGGER.error("Consume message of method[{}] failed, msg:{}, err:{}", invocableMethod.getName(), messageView, ExceptionUtils.getStackTrace(e.getCause()));
+            }
+            return ConsumeResult.FAILURE;
+        }
         if (ObjectUtils.allNotNull(messageView, messageView.getBody())) {
             Exception ex = null;
+            ConsumeResult result = ConsumeResult.FAILURE;
+            long interceptorNanos = 0L;
+            long start = System.nanoTime();
             try {
                 // 消费消息之前拦截器
                 messageView = this.invokeBefore(messageView);
+                long converting = System.nanoTime();
+                interceptorNanos = converting - start;
 
                 // 转换消息
-                Object msgObj = this.convertMessage(messageView, messageClazz);
+                Object msgObj = this.convertMessage(messageView, messageType);
+                long invoking = System.nanoTime();
+                recorder.recordDeserialize(invoking - converting);
 
-                StopWatch stopWatch = StopWatch.createStarted();
                 // 消费消息
-                Object returnVal = this.doInvoke(invocableMethod, beanObj, msgObj);
-                if(! stopWatch.isStopped())
-                    stopWatch.stop();
+                Object returnVal = this.doInvoke(msgObj);
+                long costNanos = System.nanoTime() - invoking;
+                recorder.recordHandler(costNanos);
 
                 if (LOGGER.isDebugEnabled())
-                    LOGGER.debug("Consume message[msgId={}] cost: {}ms", messageView.getMessageId(), stopWatch.getTime());
+                    LOGGER.debug("Consume message[msgId={}] cost: {}ms", messageView.getMessageId(), TimeUnit.NANOSECONDS.toMillis(costNanos));
 
                 // 处理方法执行结果
-                if (! Objects.isNull(returnVal)) {
-                    if (returnVal instanceof ConsumeResult) {
-                        return (ConsumeResult) returnVal;
-                    }
-                    else if (returnVal instanceof Boolean) {
-                        return ((boolean) returnVal) ? ConsumeResult.SUCCESS : ConsumeResult.FAILURE;
-                    }
-                }
+                result = this.toConsumeResult(returnVal);
+                return result;
             } catch (Exception e) {
                 ex = e;
                 LOGGER.error("Consume message of method[{}] failed, msg:{}, err:{}", invocableMethod.getName(), messageView, ExceptionUtils.getStackTrace(e));
                 return ConsumeResult.FAILURE;
             } finally {
+                long after = System.nanoTime();
                 try {
                     // 消费消息之后拦截器
                     this.invokeAfter(messageView, ex);
                 } catch (Exception e) {
                     LOGGER.error("Execute consumer 'invokeAfter' err:{}", ExceptionUtils.getStackTrace(e));
                 }
+                recorder.recordInterceptor(interceptorNanos + System.nanoTime() - after);
+                recorder.recordResult(result == ConsumeResult.SUCCESS);
             }
         } else {
             LOGGER.warn("'messageView' does not contain any body when consuming msg : {}", messageView);
@@ -118,73 +115,76 @@ public class XRocketMQConsumerDefaultMessageListener implements XRocketMQConsume
         return ConsumeResult.SUCCESS;
     }
 
-
     @Override
-    public Object convertMessage(MessageView messageView, Class<?> targetClazz) {
-        if (Objects.equals(targetClazz, MessageView.class)) {
-            return messageView;
+    public CompletionStage<ConsumeResult> consumeAsync(MessageView messageView) {
+        if (! asyncReturn) {
+            return CompletableFuture.completedFuture(this.consume(messageView));
         }
-        // 消息体
-        String msgBody = StandardCharsets.UTF_8.decode(messageView.getBody()).toString();
-        if (Objects.equals(targetClazz, String.class)) {
-            return msgBody;
+        if (! ObjectUtils.allNotNull(messageView, messageView.getBody())) {
+            LOGGER.warn("'messageView' does not contain any body when consuming msg : {}", messageView);
+            return CompletableFuture.completedFuture(ConsumeResult.SUCCESS);
         }
-        // json反序列化
+        long start = System.nanoTime();
+        long interceptorNanos = 0L;
+        long invoking = 0L;
+        CompletableFuture<?> future;
         try {
-            return this.json.readValue(msgBody, targetClazz);
-        } catch (JsonProcessingException e) {
-            throw new XRocketMQException("Json deserialization error", e);
+            // 消费消息之前拦截器
+            messageView = this.invokeBefore(messageView);
+            long converting = System.nanoTime();
+            interceptorNanos = converting - start;
+
+            // 转换消息
+            Object msgObj = this.convertMessage(messageView, messageType);
+            invoking = System.nanoTime();
+            recorder.recordDeserialize(invoking - converting);
+
+            // 消费消息, 方法返回后即释放当前线程
+            future = this.toFuture(this.doInvoke(msgObj));
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
         }
-    }
-
 
-    /**
-     * 执行消费消息方法
-     * @param invocableMethod 消费消息的方法
-     * @param beanObj         bean实例
-     * @param paramObj        消息参数
-     * @return
-     * @throws InvocationTargetException
-     * @throws IllegalAccessException
-     */
-    private Object doInvoke(Method invocableMethod, Object beanObj, Object paramObj)
-            throws InvocationTargetException, IllegalAccessException {
-        // 解析桥接方法对应的实际目标方法
-        Method invokeMethod = BridgeMethodResolver.findBridgedMethod(invocableMethod);
-        // 执行消费消息方法
-        return invokeMethod.invoke(beanObj, paramObj);
+        final MessageView view = messageView;
+        final long beforeNanos = interceptorNanos;
+        final long invokeStart = invoking;
+        return future.handle((returnVal, throwable) -> this.completeAsync(view, beforeNanos, invokeStart, returnVal, throwable));
     }
 
 
     /**
-     * 消费消息之前拦截器
-     * @param messageView  消息视图
+     * 异步结果完成后确定消费结果并执行消费消息之后拦截器(在完成异步结果的线程上执行)
+     * @param messageView       消息视图
+     * @param interceptorNanos  消费前拦截器耗时
+     * @param invoking          开始调用消费方法的时间(未调用时为0)
+     * @param returnVal         异步结果的值
+     * @param throwable         异步结果的异常
      * @return
      */
-    private MessageView invokeBefore(MessageView messageView) {
-        if (! CollectionUtils.isEmpty(interceptors)) {
-            for (XRocketMQConsumerInterceptor interceptor : interceptors) {
-                if (CollectionUtils.isEmpty(interceptor.matchTopics()) || interceptor.matchTopics().contains(topicName)) {
-                    messageView = interceptor.before(messageView);
-                }
-            }
+    private ConsumeResult completeAsync(MessageView messageView, long interceptorNanos, long invoking, Object returnVal, Throwable throwable) {
+        long after = System.nanoTime();
+        Exception ex = null;
+        ConsumeResult result = ConsumeResult.FAILURE;
+        if (invoking > 0L) {
+            recorder.recordHandler(after - invoking);
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Consume message[msgId={}] cost: {}ms", messageView.getMessageId(), TimeUnit.NANOSECONDS.toMillis(after - invoking));
         }
-        return messageView;
-    }
-
-    /**
-     * 消费消息之后拦截器
-     * @param messageView  消息视图
-     * @param ex
-     */
-    private void invokeAfter(MessageView messageView, Exception ex) {
-        if (! CollectionUtils.isEmpty(interceptors)) {
-            for (XRocketMQConsumerInterceptor interceptor : interceptors) {
-                if (CollectionUtils.isEmpty(interceptor.matchTopics()) || interceptor.matchTopics().contains(topicName)) {
-                    interceptor.after(messageView, ex);
-                }
-            }
+        if (Objects.isNull(throwable)) {
+            result = this.toConsumeResult(returnVal);
+        }
+        else {
+            ex = unwrap(throwable);
+            LOGGER.error("Consume message of method[{}] failed, msg:{}, err:{}", invocableMethod.getName(), messageView, ExceptionUtils.getStackTrace(ex));
         }
+        try {
+            // 消费消息之后拦截器
+            this.invokeAfter(messageView, ex);
+        } catch (Exception e) {
+            LOGGER.error("Execute consumer 'invokeAfter' err:{}", ExceptionUtils.getStackTrace(e));
+        }
+        recorder.recordInterceptor(interceptorNanos + System.nanoTime() - after);
+        recorder.recordResult(result == ConsumeResult.SUCCESS);
+        return result;
     }
-
 }
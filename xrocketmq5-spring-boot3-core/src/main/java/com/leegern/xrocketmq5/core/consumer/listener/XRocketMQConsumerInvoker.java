@@ -0,0 +1,18 @@
+package com.leegern.xrocketmq5.core.consumer.listener;
+
+/**
+ * 消费方法调用器
+ *          由{@link XRocketMQConsumerInvokerFactory}在注册消费监听器时生成一次, 消费消息时直接调用, 不经过反射
+ */
+@FunctionalInterface
+public interface XRocketMQConsumerInvoker {
+
+    /**
+     * 调用消费方法
+     * @param bean     bean实例
+     * @param message  消息参数
+     * @return 方法返回值(void方法返回null)
+     * @throws Exception 消费方法抛出的异常
+     */
+    Object invoke(Object bean, Object message) throws Exception;
+}
@@ -0,0 +1,140 @@
+package com.leegern.xrocketmq5.core.consumer.listener;
+
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 消费方法调用器工厂
+ *          解析桥接方法后通过LambdaMetafactory生成强类型调用器, 调用开销与直接方法调用相当;
+ *          无法生成时(如模块未开放)退化为MethodHandle, 最后退化为反射调用.
+ */
+public final class XRocketMQConsumerInvokerFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerInvokerFactory.class);
+
+    /* 调用器接口方法签名 */
+    private static final MethodType INVOKER_TYPE       =  MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType VOID_INVOKER_TYPE  =  MethodType.methodType(void.class, Object.class, Object.class);
+
+
+    private XRocketMQConsumerInvokerFactory() {
+    }
+
+
+    /**
+     * 创建消费方法调用器
+     * @param method 消费方法(单个参数)
+     * @return
+     */
+    public static XRocketMQConsumerInvoker create(Method method) {
+        // 解析桥接方法对应的实际目标方法
+        Method targetMethod = BridgeMethodResolver.findBridgedMethod(method);
+        if (targetMethod.getParameterCount() != 1) {
+            throw new XRocketMQException(String.format("The consume method[%s] must have exactly one parameter", targetMethod.getName()));
+        }
+        MethodHandle methodHandle;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(targetMethod.getDeclaringClass(), MethodHandles.lookup());
+            methodHandle = lookup.unreflect(targetMethod);
+            try {
+                return metafactory(lookup, methodHandle, targetMethod);
+            } catch (Throwable e) {
+                LOGGER.debug("Create lambda invoker of method[{}] failed, fallback to method handle: {}", targetMethod, e.getMessage());
+            }
+        } catch (IllegalAccessException e) {
+            LOGGER.debug("Lookup method[{}] failed, fallback to reflection: {}", targetMethod, e.getMessage());
+            return reflective(targetMethod);
+        }
+        return bound(methodHandle);
+    }
+
+
+    /**
+     * 通过LambdaMetafactory生成调用器
+     * @param lookup        目标类的查找器
+     * @param methodHandle  目标方法句柄
+     * @param targetMethod  目标方法
+     * @return
+     * @throws Throwable
+     */
+    private static XRocketMQConsumerInvoker metafactory(MethodHandles.Lookup lookup, MethodHandle methodHandle, Method targetMethod) throws Throwable {
+        MethodType instantiatedType = MethodType.methodType(targetMethod.getReturnType(), targetMethod.getDeclaringClass(), targetMethod.getParameterTypes()[0]).wrap();
+        if (targetMethod.getReturnType() == void.class) {
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(VoidInvoker.class),
+                    VOID_INVOKER_TYPE, methodHandle, instantiatedType.changeReturnType(void.class));
+            VoidInvoker voidInvoker = (VoidInvoker) callSite.getTarget().invokeExact();
+            return (bean, message) -> {
+                voidInvoker.invoke(bean, message);
+                return null;
+            };
+        }
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(XRocketMQConsumerInvoker.class),
+                INVOKER_TYPE, methodHandle, instantiatedType);
+        return (XRocketMQConsumerInvoker) callSite.getTarget().invokeExact();
+    }
+
+    /**
+     * 通过MethodHandle调用
+     * @param methodHandle 目标方法句柄
+     * @return
+     */
+    private static XRocketMQConsumerInvoker bound(MethodHandle methodHandle) {
+        final MethodHandle invoker = methodHandle.asType(INVOKER_TYPE);
+        return (bean, message) -> {
+            try {
+                return invoker.invokeExact(bean, message);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new XRocketMQException(e);
+            }
+        };
+    }
+
+    /**
+     * 通过反射调用
+     * @param targetMethod 目标方法
+     * @return
+     */
+    private static XRocketMQConsumerInvoker reflective(Method targetMethod) {
+        ReflectionUtils.makeAccessible(targetMethod);
+        return (bean, message) -> {
+            try {
+                return targetMethod.invoke(bean, message);
+            } catch (InvocationTargetException e) {
+                // 抛出消费方法的原始异常
+                if (e.getTargetException() instanceof Exception) {
+                    throw (Exception) e.getTargetException();
+                }
+                throw e;
+            }
+        };
+    }
+
+
+    /**
+     * void方法调用器(LambdaMetafactory要求返回类型一致)
+     */
+    @FunctionalInterface
+    public interface VoidInvoker {
+
+        /**
+         * 调用消费方法
+         * @param bean     bean实例
+         * @param message  消息参数
+         * @throws Exception
+         */
+        void invoke(Object bean, Object message) throws Exception;
+    }
+}
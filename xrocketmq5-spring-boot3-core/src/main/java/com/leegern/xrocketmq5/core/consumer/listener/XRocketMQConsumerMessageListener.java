@@ -1,8 +1,13 @@
 package com.leegern.xrocketmq5.core.consumer.listener;
 
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
 import org.apache.rocketmq.client.apis.consumer.MessageListener;
 import org.apache.rocketmq.client.apis.message.MessageView;
 
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * 消费者消费消息监听器
  */
@@ -11,8 +16,18 @@ public interface XRocketMQConsumerMessageListener extends MessageListener {
     /**
      * 转换消息为指定的目标类型实例
      * @param messageView  消息试图
-     * @param targetClazz  消息目标类型
+     * @param targetType   消息目标类型(支持泛型, 如List<Order>)
      * @return
      */
-    Object convertMessage(MessageView messageView, Class<?> targetClazz);
+    Object convertMessage(MessageView messageView, Type targetType);
+
+    /**
+     * 异步消费消息(SimpleConsumer引擎使用, 消费结果完成时确认消息)
+     *          默认同步消费; 消费方法返回异步结果时, 调用线程在方法返回后即释放
+     * @param messageView 消息视图
+     * @return 消费结果(不会异常完成)
+     */
+    default CompletionStage<ConsumeResult> consumeAsync(MessageView messageView) {
+        return CompletableFuture.completedFuture(this.consume(messageView));
+    }
 }
@@ -0,0 +1,104 @@
+package com.leegern.xrocketmq5.core.consumer.retry;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地消费重试策略
+ *          消费方法抛出指定类型的异常(含异常链中的cause)时在本地重试, 重试间隔指数增长并加入随机抖动;
+ *          重试次数与总耗时均有上限, 下一次重试会超出总耗时上限时不再等待, 直接将失败交还给broker重新投递.
+ */
+public class XRocketMQConsumeRetryPolicy {
+
+    /* 最大重试次数(不含首次调用) */
+    private final int maxRetries;
+
+    /* 需要重试的异常类型 */
+    private final List<Class<? extends Throwable>> retryOn;
+
+    /* 首次重试间隔(纳秒) */
+    private final long initialBackoffNanos;
+
+    /* 最大重试间隔(纳秒) */
+    private final long maxBackoffNanos;
+
+    /* 重试间隔增长倍数 */
+    private final double multiplier;
+
+    /* 随机抖动比例(0~1) */
+    private final double jitter;
+
+    /* 总耗时上限(纳秒, 含首次调用) */
+    private final long maxDurationNanos;
+
+
+    /**
+     * 自定义构造器
+     * @param maxRetries        最大重试次数(不含首次调用)
+     * @param retryOn           需要重试的异常类型
+     * @param initialBackoffMs  首次重试间隔(毫秒)
+     * @param maxBackoffMs      最大重试间隔(毫秒)
+     * @param multiplier        重试间隔增长倍数
+     * @param jitter            随机抖动比例(0~1), 实际间隔在[间隔 * (1 - jitter), 间隔]之间
+     * @param maxDurationMs     总耗时上限(毫秒, 含首次调用)
+     */
+    public XRocketMQConsumeRetryPolicy(int maxRetries, List<Class<? extends Throwable>> retryOn, long initialBackoffMs,
+                                       long maxBackoffMs, double multiplier, double jitter, long maxDurationMs) {
+        this.maxRetries           =  Math.max(0, maxRetries);
+        this.retryOn              =  Objects.isNull(retryOn) ? List.of() : List.copyOf(retryOn);
+        this.initialBackoffNanos  =  TimeUnit.MILLISECONDS.toNanos(Math.max(0L, initialBackoffMs));
+        this.maxBackoffNanos      =  Math.max(this.initialBackoffNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxBackoffMs)));
+        this.multiplier           =  Math.max(1d, multiplier);
+        this.jitter               =  Math.min(1d, Math.max(0d, jitter));
+        this.maxDurationNanos     =  TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxDurationMs));
+    }
+
+
+    /**
+     * 是否开启本地重试
+     * @return 未配置异常类型、重试次数或总耗时上限时不重试
+     */
+    public boolean isEnabled() {
+        return maxRetries > 0 && maxDurationNanos > 0 && ! retryOn.isEmpty();
+    }
+
+    /**
+     * 异常是否需要重试
+     * @param ex 消费方法抛出的异常
+     * @return
+     */
+    public boolean isRetryable(Throwable ex) {
+        for (Throwable cause = ex; Objects.nonNull(cause); cause = cause.getCause() == cause ? null : cause.getCause()) {
+            for (Class<? extends Throwable> type : retryOn) {
+                if (type.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 第retry次重试前的等待时间
+     * @param retry 重试序号(从1开始)
+     * @return 等待时间(纳秒)
+     */
+    public long backoffNanos(int retry) {
+        double backoff = initialBackoffNanos * Math.pow(multiplier, retry - 1);
+        long nanos = (long) Math.min(backoff, (double) maxBackoffNanos);
+        if (jitter > 0d && nanos > 0L) {
+            nanos -= (long) (nanos * jitter * ThreadLocalRandom.current().nextDouble());
+        }
+        return nanos;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getMaxDurationNanos() {
+        return maxDurationNanos;
+    }
+}
@@ -0,0 +1,139 @@
+package com.leegern.xrocketmq5.core.consumer.retry;
+
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerAbstractMessageListener;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerInvoker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地重试的消费方法调用器(装饰消费方法调用器)
+ *          只重试消费方法本身, 消息已完成拦截器与反序列化, 重试时不再重复执行;
+ *          消费方法返回失败(false或FAILURE)表示业务判定失败, 不重试. 重试期间占用当前消费线程(顺序消费时占用所在通道).
+ *          异步消费方法(CompletionStage/Mono)异步结果异常完成时同样重试, 退避后在延迟执行器上重新调用, 不占用消费线程.
+ */
+public class XRocketMQConsumerRetryInvoker implements XRocketMQConsumerInvoker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumerRetryInvoker.class);
+
+    /* 被装饰的调用器 */
+    private final XRocketMQConsumerInvoker delegate;
+
+    /* 重试策略 */
+    private final XRocketMQConsumeRetryPolicy policy;
+
+    /* 消费方法名称(用于日志) */
+    private final String methodName;
+
+    /* 消费方法是否返回异步结果 */
+    private final boolean asyncReturn;
+
+
+    /**
+     * 自定义构造器
+     * @param delegate   被装饰的调用器
+     * @param policy     重试策略
+     * @param methodName  消费方法名称
+     * @param asyncReturn 消费方法是否返回异步结果
+     */
+    public XRocketMQConsumerRetryInvoker(XRocketMQConsumerInvoker delegate, XRocketMQConsumeRetryPolicy policy, String methodName,
+                                         boolean asyncReturn) {
+        this.delegate     =  delegate;
+        this.policy       =  policy;
+        this.methodName   =  methodName;
+        this.asyncReturn  =  asyncReturn;
+    }
+
+
+    @Override
+    public Object invoke(Object bean, Object message) throws Exception {
+        long deadline = System.nanoTime() + policy.getMaxDurationNanos();
+        if (asyncReturn) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            this.invokeAsync(bean, message, 1, deadline, result);
+            return result;
+        }
+        for (int retry = 1; ; retry++) {
+            try {
+                return delegate.invoke(bean, message);
+            } catch (Exception e) {
+                if (retry > policy.getMaxRetries() || ! policy.isRetryable(e)) {
+                    throw e;
+                }
+                long backoff = policy.backoffNanos(retry);
+                // 等待后会超出总耗时上限时不再重试
+                if (System.nanoTime() + backoff >= deadline) {
+                    throw e;
+                }
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Consume method[{}] failed with {}, retry {}/{} after {}ms", methodName, e.getClass().getSimpleName(),
+                            retry, policy.getMaxRetries(), TimeUnit.NANOSECONDS.toMillis(backoff));
+                // parkNanos可能提前返回, 等满退避时间
+                long wakeUp = System.nanoTime() + backoff;
+                for (long remaining = backoff; remaining > 0L && ! Thread.currentThread().isInterrupted(); remaining = wakeUp - System.nanoTime()) {
+                    LockSupport.parkNanos(remaining);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 调用异步消费方法, 异步结果异常完成且可重试时退避后再次调用
+     * @param bean     实例对象
+     * @param message  消息参数
+     * @param retry    本次失败后的重试序号
+     * @param deadline 重试截止时间(纳秒)
+     * @param result   最终结果
+     */
+    private void invokeAsync(Object bean, Object message, int retry, long deadline, CompletableFuture<Object> result) {
+        CompletableFuture<?> future;
+        try {
+            future = XRocketMQConsumerAbstractMessageListener.toCompletableFuture(delegate.invoke(bean, message));
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((returnVal, throwable) -> {
+            if (Objects.isNull(throwable)) {
+                result.complete(returnVal);
+                return;
+            }
+            Throwable cause = unwrap(throwable);
+            long backoff = policy.backoffNanos(retry);
+            if (retry > policy.getMaxRetries() || ! policy.isRetryable(cause) || System.nanoTime() + backoff >= deadline) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Consume method[{}] failed with {}, retry {}/{} after {}ms", methodName, cause.getClass().getSimpleName(),
+                        retry, policy.getMaxRetries(), TimeUnit.NANOSECONDS.toMillis(backoff));
+            try {
+                CompletableFuture.delayedExecutor(backoff, TimeUnit.NANOSECONDS)
+                        .execute(() -> this.invokeAsync(bean, message, retry + 1, deadline, result));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * 解包异步结果的异常
+     * @param throwable 异步结果的异常
+     * @return 原始异常
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && Objects.nonNull(cause.getCause())) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
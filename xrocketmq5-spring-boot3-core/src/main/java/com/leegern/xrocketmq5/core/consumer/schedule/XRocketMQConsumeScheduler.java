@@ -0,0 +1,487 @@
+package com.leegern.xrocketmq5.core.consumer.schedule;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 共享消费调度器
+ *          所有消费监听器共用固定数量的平台消费线程, 每个监听器一个调度槽(Slot), 调度槽作为监听器的消费线程池使用.
+ *          空闲消费线程从任意调度槽取任务执行(冷门话题空闲的容量由热门话题使用), 取任务的顺序为:
+ *          1. 运行中任务数低于最小份额(minShare)的调度槽优先;
+ *          2. 其余运行中任务数低于最大份额(maxShare)的调度槽按权重(weight)公平调度(stride scheduling),
+ *             各调度槽占用的消费线程数与权重成正比, 空闲后重新排队的调度槽不累计空闲期间的份额.
+ *          运行中的任务不会被抢占, 最小份额表示有任务时优先获得下一个空闲线程, 而不是预留空闲线程.
+ *          每个调度槽的任务队列无锁入队, 只有调度槽由空闲变为有任务时才加锁进入就绪堆;
+ *          份额统计及就绪堆(按上述顺序排序的二叉堆)只在锁内修改, 消费线程每个任务只加锁一次(完成上一个任务并取下一个任务).
+ *          调度槽关闭且任务全部完成后从调度器移除, 并归还最小份额.
+ */
+public class XRocketMQConsumeScheduler implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQConsumeScheduler.class);
+
+    /* 权重为1时每次调度的步长 */
+    private static final long STRIDE = 1L << 20;
+
+    /* 关闭时等待消费线程退出的时间(毫秒) */
+    private static final long CLOSE_TIMEOUT = 1000L;
+
+    /* 调度锁 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* 有可调度的任务 */
+    private final Condition available = lock.newCondition();
+
+    /* 调度槽(持有锁时读写) */
+    private final Set<Slot> slots = new HashSet<>();
+
+    /* 就绪堆: 有待执行任务且未达到最大份额的调度槽(持有锁时读写, 调度槽记录自身下标, 在堆中时排序字段不变) */
+    private Slot[] ready = new Slot[16];
+
+    /* 就绪堆大小 */
+    private int readySize;
+
+    /* 消费线程 */
+    private final Thread[] workers;
+
+    /* 最近一次调度的进度(调度槽重新排队时的起点) */
+    private long virtualTime;
+
+    /* 已分配的最小份额之和 */
+    private int reservedShares;
+
+    /* 调度槽创建序号 */
+    private long slotSeq;
+
+    /* 运行状态 */
+    private volatile boolean running = true;
+
+
+    /**
+     * 自定义构造器
+     * @param threads      消费线程数
+     * @param threadPrefix 消费线程名前缀
+     */
+    public XRocketMQConsumeScheduler(int threads, String threadPrefix) {
+        ThreadFactory threadFactory = new CustomizableThreadFactory(threadPrefix);
+        this.workers = new Thread[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = threadFactory.newThread(this::work);
+            workers[i].start();
+        }
+    }
+
+
+    /**
+     * 创建调度槽
+     * @param name     调度槽名称(消费者名称)
+     * @param minShare 最小份额(有任务时优先获得的消费线程数)
+     * @param maxShare 最大份额(同时占用的消费线程数上限, 不大于0时为消费线程数)
+     * @param weight   权重
+     * @return
+     */
+    public Slot newSlot(String name, int minShare, int maxShare, int weight) {
+        int max = maxShare > 0 ? Math.min(maxShare, workers.length) : workers.length;
+        lock.lock();
+        try {
+            Slot slot = new Slot(name, Math.min(Math.max(0, minShare), max), max, Math.max(1, weight), slotSeq++);
+            slot.pass = virtualTime;
+            slots.add(slot);
+            reservedShares += slot.minShare;
+            if (reservedShares > workers.length) {
+                LOGGER.warn("Min shares({}) of consume scheduler exceed its threads({}) after slot[{}] is added, min shares can not all be honored",
+                        reservedShares, workers.length, name);
+            }
+            return slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 消费线程数
+     * @return
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * 调度槽数量(已关闭且任务全部完成的调度槽已移除)
+     * @return
+     */
+    public int getSlotCount() {
+        lock.lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 停止消费线程, 未执行的任务丢弃(消息在不可见时间后重新投递)
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            available.signalAll();
+            slots.forEach(slot -> slot.terminated.signalAll());
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT);
+        for (Thread worker : workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (remaining > 0L) {
+                    worker.join(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * 消费线程: 完成上一个任务并取下一个任务(一次加锁), 在锁外执行任务
+     */
+    private void work() {
+        Slot finished = null;
+        while (true) {
+            Slot slot;
+            Runnable task;
+            lock.lock();
+            try {
+                if (Objects.nonNull(finished)) {
+                    this.complete(finished);
+                    finished = null;
+                }
+                while (true) {
+                    if (! running) {
+                        return;
+                    }
+                    if (readySize > 0) {
+                        slot = ready[0];
+                        this.removeReady(slot);
+                        break;
+                    }
+                    available.awaitUninterruptibly();
+                }
+                // 就绪时队列中至少有queued个任务(先入队再计数, 只有持有锁的消费线程出队)
+                task = slot.queue.poll();
+                slot.queued.decrementAndGet();
+                slot.running++;
+                slot.pass += slot.stride;
+                virtualTime = slot.pass;
+                // 还有任务时按新的进度重新就绪, 并唤醒其他空闲线程
+                this.makeReady(slot);
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.error("Consume task of slot[{}] failed, err:{}", slot.name, ExceptionUtils.getStackTrace(e));
+            }
+            finished = slot;
+        }
+    }
+
+    /**
+     * 任务完成(持有锁时调用)
+     * @param slot 调度槽
+     */
+    private void complete(Slot slot) {
+        slot.running--;
+        // 运行数减少后可能低于最小份额, 按新的顺序重新就绪
+        if (slot.readyIndex >= 0 && slot.belowMin != (slot.running < slot.minShare)) {
+            this.removeReady(slot);
+        }
+        this.makeReady(slot);
+        if (slot.isTerminated()) {
+            slot.terminated.signalAll();
+            this.retire(slot);
+        }
+    }
+
+    /**
+     * 有待执行任务且未达到最大份额的调度槽加入就绪堆(持有锁时调用)
+     * @param slot 调度槽
+     */
+    private void makeReady(Slot slot) {
+        if (slot.readyIndex >= 0 || slot.retired || slot.queued.get() <= 0 || slot.running >= slot.maxShare) {
+            return;
+        }
+        slot.belowMin = slot.running < slot.minShare;
+        if (readySize == ready.length) {
+            ready = Arrays.copyOf(ready, readySize << 1);
+        }
+        this.siftUp(readySize++, slot);
+        available.signal();
+    }
+
+    /**
+     * 调度槽移出就绪堆(持有锁时调用)
+     * @param slot 调度槽
+     */
+    private void removeReady(Slot slot) {
+        int index = slot.readyIndex;
+        if (index < 0) {
+            return;
+        }
+        slot.readyIndex = -1;
+        Slot last = ready[--readySize];
+        ready[readySize] = null;
+        if (last != slot) {
+            this.siftDown(index, last);
+            if (ready[index] == last) {
+                this.siftUp(index, last);
+            }
+        }
+    }
+
+    private void siftUp(int index, Slot slot) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (! precedes(slot, ready[parent])) {
+                break;
+            }
+            this.place(index, ready[parent]);
+            index = parent;
+        }
+        this.place(index, slot);
+    }
+
+    private void siftDown(int index, Slot slot) {
+        int half = readySize >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            if (child + 1 < readySize && precedes(ready[child + 1], ready[child])) {
+                child++;
+            }
+            if (! precedes(ready[child], slot)) {
+                break;
+            }
+            this.place(index, ready[child]);
+            index = child;
+        }
+        this.place(index, slot);
+    }
+
+    private void place(int index, Slot slot) {
+        ready[index] = slot;
+        slot.readyIndex = index;
+    }
+
+    /**
+     * 就绪顺序: 低于最小份额的优先, 其次按调度进度, 进度相同时按创建顺序
+     * @param a 调度槽
+     * @param b 调度槽
+     * @return a是否排在b之前
+     */
+    private static boolean precedes(Slot a, Slot b) {
+        if (a.belowMin != b.belowMin) {
+            return a.belowMin;
+        }
+        return a.pass != b.pass ? a.pass < b.pass : a.seq < b.seq;
+    }
+
+    /**
+     * 移除已终止的调度槽并归还最小份额(持有锁时调用)
+     * @param slot 调度槽
+     */
+    private void retire(Slot slot) {
+        if (slot.retired) {
+            return;
+        }
+        slot.retired = true;
+        this.removeReady(slot);
+        slots.remove(slot);
+        reservedShares -= slot.minShare;
+    }
+
+
+    /**
+     * 调度槽(单个消费监听器的消费线程池)
+     */
+    public final class Slot extends AbstractExecutorService {
+
+        /* 调度槽名称 */
+        private final String name;
+
+        /* 最小份额 */
+        private final int minShare;
+
+        /* 最大份额 */
+        private final int maxShare;
+
+        /* 每次调度的步长(与权重成反比) */
+        private final long stride;
+
+        /* 创建序号 */
+        private final long seq;
+
+        /* 待执行的任务(无锁入队, 持有锁时出队) */
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+        /* 待执行的任务数(入队后增加, 出队后减少) */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        /* 任务全部完成 */
+        private final Condition terminated = lock.newCondition();
+
+        /* 调度进度(持有锁时读写) */
+        private long pass;
+
+        /* 运行中的任务数(持有锁时读写) */
+        private int running;
+
+        /* 在就绪堆中的下标(不在堆中时为-1), 加入时是否低于最小份额(持有锁时读写) */
+        private int readyIndex = -1;
+        private boolean belowMin;
+
+        /* 是否已从调度器移除(持有锁时读写) */
+        private boolean retired;
+
+        /* 是否已关闭 */
+        private volatile boolean shutdown;
+
+
+        private Slot(String name, int minShare, int maxShare, int weight, long seq) {
+            this.name      =  name;
+            this.minShare  =  minShare;
+            this.maxShare  =  maxShare;
+            this.stride    =  STRIDE / weight;
+            this.seq       =  seq;
+        }
+
+
+        @Override
+        public void execute(Runnable command) {
+            Objects.requireNonNull(command);
+            if (shutdown || ! XRocketMQConsumeScheduler.this.running) {
+                throw new RejectedExecutionException("Consume scheduler slot[" + name + "] is shut down");
+            }
+            queue.offer(command);
+            // 已有待执行任务时调度槽已就绪(或达到最大份额, 任务完成时重新就绪), 无需加锁
+            if (queued.getAndIncrement() > 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (retired) {
+                    queue.remove(command);
+                    queued.decrementAndGet();
+                    throw new RejectedExecutionException("Consume scheduler slot[" + name + "] is shut down");
+                }
+                // 空闲后重新排队, 不累计空闲期间的份额
+                if (readyIndex < 0 && running == 0 && pass < virtualTime) {
+                    pass = virtualTime;
+                }
+                XRocketMQConsumeScheduler.this.makeReady(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            lock.lock();
+            try {
+                shutdown = true;
+                if (this.isTerminated()) {
+                    terminated.signalAll();
+                    XRocketMQConsumeScheduler.this.retire(this);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            lock.lock();
+            try {
+                shutdown = true;
+                XRocketMQConsumeScheduler.this.removeReady(this);
+                // 只取出已计数的任务, 并发入队且尚未计数的任务由其提交线程处理
+                int count = queued.get();
+                List<Runnable> pending = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    pending.add(queue.poll());
+                }
+                queued.addAndGet(-count);
+                if (this.isTerminated()) {
+                    terminated.signalAll();
+                    XRocketMQConsumeScheduler.this.retire(this);
+                }
+                return pending;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            lock.lock();
+            try {
+                return shutdown && running == 0 && (queued.get() == 0 || ! XRocketMQConsumeScheduler.this.running);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (! this.isTerminated()) {
+                    if (nanos <= 0L) {
+                        return false;
+                    }
+                    nanos = terminated.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMaxShare() {
+            return maxShare;
+        }
+    }
+}
@@ -0,0 +1,527 @@
+package com.leegern.xrocketmq5.core.consumer.simple;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.consumer.adaptive.XRocketMQConsumeConcurrencyLimiter;
+import com.leegern.xrocketmq5.core.consumer.listener.XRocketMQConsumerMessageListener;
+import com.leegern.xrocketmq5.core.enums.ConsumeExecutorType;
+import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.rocketmq.client.apis.consumer.ConsumeResult;
+import org.apache.rocketmq.client.apis.consumer.MessageListener;
+import org.apache.rocketmq.client.apis.consumer.SimpleConsumer;
+import org.apache.rocketmq.client.apis.message.MessageView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SimpleConsumer消费引擎
+ *          按批长轮询拉取(receiveAsync)消息并分发给消费线程, 消费成功异步确认(ackAsync),
+ *          消费失败异步修改不可见时间(changeInvisibleDurationAsync)以延迟重新投递.
+ *          同一时刻只有一个拉取请求, 已拉取未完成的消息数不超过消费线程数加一批, 避免消息在本地排队超过不可见时间.
+ *          使用虚拟线程时每条消息一个虚拟线程, 已拉取未完成的消息数即为最大并发数.
+ *
+ *          顺序消费时按消息组(messageGroup)哈希到固定数量的串行通道(lane), 同一消息组在同一通道内按顺序消费,
+ *          不同通道并行消费; 通道队列达到上限时暂停拉取. 同一批拉取的消息中, 某消息组的消息消费失败后,
+ *          该批中同组的后续消息不再消费而是一并延迟重新投递, 以保证组内顺序.
+ *
+ *          开启自适应并发时, 在途消息数及单次拉取条数不超过并发限制器的当前上限.
+ *
+ *          消费方法返回异步结果时(非顺序消费), 消费线程在方法返回后即释放, 异步结果完成时确认消息;
+ *          在途消息数(含未完成的异步结果)不超过asyncMaxOutstanding.
+ *
+ *          指定外部消费线程池(共享消费调度器的调度槽)时不再创建消费线程池, 关闭引擎只关闭调度槽.
+ */
+public class XRocketMQSimpleConsumerEngine implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQSimpleConsumerEngine.class);
+
+    /* 消费者实例 */
+    private final SimpleConsumer simpleConsumer;
+
+    /* 消息监听器 */
+    private final MessageListener messageListener;
+
+    /* 异步消息监听器(消费方法返回异步结果时不为空) */
+    private final XRocketMQConsumerMessageListener asyncListener;
+
+    /* 消费线程池 */
+    private final ExecutorService consumeExecutor;
+
+    /* 单次拉取最大消息条数 */
+    private final int receiveBatchSize;
+
+    /* 已拉取未完成的最大消息数 */
+    private final int maxInFlight;
+
+    /* 拉取消息的不可见时间 */
+    private final Duration invisibleDuration;
+
+    /* 消费失败后的不可见时间 */
+    private final Duration nackInvisibleDuration;
+
+    /* 顺序消费通道(非顺序消费时为空) */
+    private final OrderlyLane[] lanes;
+
+    /* 单个通道的队列上限 */
+    private final int laneCapacity;
+
+    /* 自适应并发限制器(可为空) */
+    private final XRocketMQConsumeConcurrencyLimiter limiter;
+
+    /* 已拉取未完成(含拉取中预留)的消息数 */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /* 队列已满的通道数 */
+    private final AtomicInteger fullLanes = new AtomicInteger();
+
+    /* 拉取批次序号 */
+    private final AtomicLong receiveSequence = new AtomicLong();
+
+    /* 是否有拉取请求进行中 */
+    private final AtomicBoolean receiving = new AtomicBoolean();
+
+    /* 运行状态 */
+    private volatile boolean running;
+
+
+    /**
+     * 私有化构造器
+     * @param builder
+     */
+    private XRocketMQSimpleConsumerEngine(Builder builder) {
+        int threadNum = Math.max(1, builder.concurrency);
+        String threadPrefix = "xrocketmq-simple-" + builder.simpleConsumer.getConsumerGroup() + "-";
+
+        this.simpleConsumer         =  builder.simpleConsumer;
+        this.messageListener        =  builder.messageListener;
+        this.receiveBatchSize       =  Math.max(1, builder.simpleProperties.getReceiveBatchSize());
+        this.invisibleDuration      =  Duration.ofMillis(builder.simpleProperties.getInvisibleDuration());
+        this.nackInvisibleDuration  =  Duration.ofMillis(builder.simpleProperties.getNackInvisibleDuration());
+        this.laneCapacity           =  Math.max(1, builder.laneCapacity);
+        this.limiter                =  builder.limiter;
+
+        if (builder.orderlyLanes > 0) {
+            // 每个通道同一时刻只占用一个线程
+            threadNum = builder.orderlyLanes;
+            this.lanes = new OrderlyLane[builder.orderlyLanes];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new OrderlyLane();
+            }
+            this.maxInFlight = builder.orderlyLanes * this.laneCapacity;
+            this.asyncListener = null;
+        }
+        else if (builder.asyncMaxOutstanding > 0 && builder.messageListener instanceof XRocketMQConsumerMessageListener listener) {
+            this.lanes = null;
+            // 异步消费时消费线程只负责发起调用, 在途消息数由未完成的异步结果数限制
+            this.asyncListener = listener;
+            this.maxInFlight = builder.asyncMaxOutstanding;
+        }
+        else {
+            this.lanes = null;
+            // 虚拟线程无需排队, 在途消息数即并发数
+            this.maxInFlight = builder.executorType == ConsumeExecutorType.VIRTUAL ? threadNum : threadNum + this.receiveBatchSize;
+            this.asyncListener = null;
+        }
+        if (Objects.nonNull(builder.consumeExecutor)) {
+            // 共享消费调度器的调度槽, 并发数为其最大份额
+            this.consumeExecutor = builder.consumeExecutor;
+        }
+        else {
+            this.consumeExecutor = builder.executorType == ConsumeExecutorType.VIRTUAL
+                    ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadPrefix, 1).factory())
+                    : Executors.newFixedThreadPool(threadNum, new CustomizableThreadFactory(threadPrefix));
+        }
+    }
+
+
+    /**
+     * builder实例
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * 启动拉取消息
+     */
+    public void start() {
+        this.running = true;
+        this.receive();
+    }
+
+    /**
+     * 停止拉取并关闭消费者, 等待进行中的消息消费完成
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        consumeExecutor.shutdown();
+        try {
+            if (! consumeExecutor.awaitTermination(invisibleDuration.toMillis(), TimeUnit.MILLISECONDS)) {
+                consumeExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            consumeExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        simpleConsumer.close();
+    }
+
+
+    /**
+     * 在有空闲容量且没有进行中的拉取请求时发起一次长轮询拉取
+     */
+    private void receive() {
+        while (running && receiving.compareAndSet(false, true)) {
+            int capacity = Math.min(receiveBatchSize, this.currentMaxInFlight() - inFlight.get());
+            if (capacity > 0 && fullLanes.get() == 0) {
+                // 预留容量
+                inFlight.addAndGet(capacity);
+                this.receiveAsync(capacity);
+                return;
+            }
+            receiving.set(false);
+            // 释放容量时会再次发起拉取, 此处仅处理并发释放的竞态
+            if (this.currentMaxInFlight() - inFlight.get() <= 0 || fullLanes.get() > 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前允许的最大在途消息数
+     * @return
+     */
+    private int currentMaxInFlight() {
+        return Objects.isNull(limiter) ? maxInFlight : Math.min(maxInFlight, limiter.getLimit());
+    }
+
+    /**
+     * 异步拉取消息
+     * @param capacity 预留的容量
+     */
+    private void receiveAsync(int capacity) {
+        CompletableFuture<List<MessageView>> future;
+        try {
+            future = simpleConsumer.receiveAsync(capacity, invisibleDuration);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((messages, throwable) -> {
+            int received = Objects.isNull(messages) ? 0 : messages.size();
+            // 归还未使用的预留容量
+            inFlight.addAndGet(received - capacity);
+            receiving.set(false);
+
+            if (Objects.nonNull(throwable)) {
+                if (running) {
+                    LOGGER.warn("Receive messages of group[{}] failed, retry later: {}", simpleConsumer.getConsumerGroup(), throwable.getMessage());
+                    CompletableFuture.delayedExecutor(XRocketMQConstants.SIMPLE_RECEIVE_RETRY_DELAY, TimeUnit.MILLISECONDS).execute(this::receive);
+                }
+                return;
+            }
+            long sequence = receiveSequence.incrementAndGet();
+            for (MessageView messageView : messages) {
+                if (Objects.isNull(lanes)) {
+                    this.dispatch(messageView);
+                }
+                else {
+                    this.dispatchOrderly(messageView, sequence);
+                }
+            }
+            this.receive();
+        });
+    }
+
+    /**
+     * 分发消息到消费线程
+     * @param messageView 消息视图
+     */
+    private void dispatch(MessageView messageView) {
+        try {
+            if (Objects.nonNull(asyncListener)) {
+                consumeExecutor.execute(() -> this.consumeAsync(messageView));
+                return;
+            }
+            consumeExecutor.execute(() -> this.complete(messageView, this.consume(messageView)));
+        } catch (RejectedExecutionException e) {
+            // 引擎已关闭, 消息在不可见时间后重新投递
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 按消息组分发消息到顺序消费通道(无消息组的消息按消息ID分散)
+     * @param messageView 消息视图
+     * @param sequence    拉取批次序号
+     */
+    private void dispatchOrderly(MessageView messageView, long sequence) {
+        String messageGroup = messageView.getMessageGroup().orElse(null);
+        int hash = Objects.nonNull(messageGroup) ? messageGroup.hashCode() : Objects.hashCode(messageView.getMessageId());
+        OrderlyLane lane = lanes[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % lanes.length];
+
+        boolean schedule;
+        lane.lock.lock();
+        try {
+            lane.queue.addLast(new LaneTask(messageView, messageGroup, sequence));
+            if (! lane.full && lane.queue.size() >= laneCapacity) {
+                lane.full = true;
+                fullLanes.incrementAndGet();
+            }
+            schedule = ! lane.scheduled;
+            lane.scheduled = true;
+        } finally {
+            lane.lock.unlock();
+        }
+        if (schedule) {
+            try {
+                consumeExecutor.execute(() -> this.drainLane(lane));
+            } catch (RejectedExecutionException e) {
+                // 引擎已关闭, 消息在不可见时间后重新投递
+                LOGGER.debug("Engine of group[{}] is closed, orderly messages will be redelivered", simpleConsumer.getConsumerGroup());
+            }
+        }
+    }
+
+    /**
+     * 按顺序消费通道中的消息, 直至通道为空
+     * @param lane 顺序消费通道
+     */
+    private void drainLane(OrderlyLane lane) {
+        while (true) {
+            LaneTask task;
+            boolean released = false;
+            lane.lock.lock();
+            try {
+                task = lane.queue.pollFirst();
+                if (Objects.isNull(task)) {
+                    lane.scheduled = false;
+                    lane.failedGroups.clear();
+                    return;
+                }
+                if (lane.full && lane.queue.size() < laneCapacity) {
+                    lane.full = false;
+                    released = true;
+                }
+            } finally {
+                lane.lock.unlock();
+            }
+            if (released) {
+                fullLanes.decrementAndGet();
+                this.receive();
+            }
+
+            // 同批次中同组前序消息已失败, 不再消费以保证组内顺序
+            Long failedSequence = Objects.isNull(task.messageGroup) ? null : lane.failedGroups.get(task.messageGroup);
+            if (Objects.nonNull(failedSequence) && failedSequence >= task.sequence) {
+                this.complete(task.messageView, ConsumeResult.FAILURE);
+                continue;
+            }
+            ConsumeResult result = this.consume(task.messageView);
+            if (result != ConsumeResult.SUCCESS && Objects.nonNull(task.messageGroup)) {
+                lane.failedGroups.put(task.messageGroup, task.sequence);
+            }
+            this.complete(task.messageView, result);
+        }
+    }
+
+    /**
+     * 消费消息
+     * @param messageView 消息视图
+     * @return
+     */
+    private ConsumeResult consume(MessageView messageView) {
+        try {
+            return messageListener.consume(messageView);
+        } catch (Throwable e) {
+            LOGGER.error("Consume message failed, msg:{}, err:{}", messageView, ExceptionUtils.getStackTrace(e));
+            return ConsumeResult.FAILURE;
+        }
+    }
+
+    /**
+     * 异步消费消息, 异步结果完成时确认消费结果并释放容量
+     * @param messageView 消息视图
+     */
+    private void consumeAsync(MessageView messageView) {
+        CompletionStage<ConsumeResult> stage;
+        try {
+            stage = asyncListener.consumeAsync(messageView);
+        } catch (Throwable e) {
+            LOGGER.error("Consume message failed, msg:{}, err:{}", messageView, ExceptionUtils.getStackTrace(e));
+            this.complete(messageView, ConsumeResult.FAILURE);
+            return;
+        }
+        stage.whenComplete((result, throwable) -> {
+            if (Objects.nonNull(throwable)) {
+                LOGGER.error("Consume message failed, msg:{}, err:{}", messageView, ExceptionUtils.getStackTrace(throwable));
+            }
+            this.complete(messageView, Objects.isNull(throwable) && result == ConsumeResult.SUCCESS ? ConsumeResult.SUCCESS : ConsumeResult.FAILURE);
+        });
+    }
+
+    /**
+     * 异步确认消费结果并释放容量
+     * @param messageView 消息视图
+     * @param result      消费结果
+     */
+    private void complete(MessageView messageView, ConsumeResult result) {
+        try {
+            if (result == ConsumeResult.SUCCESS) {
+                simpleConsumer.ackAsync(messageView).whenComplete((v, throwable) -> {
+                    if (Objects.nonNull(throwable)) {
+                        LOGGER.warn("Ack message[msgId={}] failed, it will be redelivered: {}", messageView.getMessageId(), throwable.getMessage());
+                    }
+                });
+            }
+            else {
+                simpleConsumer.changeInvisibleDurationAsync(messageView, nackInvisibleDuration).whenComplete((v, throwable) -> {
+                    if (Objects.nonNull(throwable)) {
+                        LOGGER.warn("Nack message[msgId={}] failed: {}", messageView.getMessageId(), throwable.getMessage());
+                    }
+                });
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            this.receive();
+        }
+    }
+
+
+    /**
+     * 顺序消费通道
+     */
+    private static final class OrderlyLane {
+
+        /* 锁 */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /* 待消费的消息 */
+        private final ArrayDeque<LaneTask> queue = new ArrayDeque<>();
+
+        /* 消费失败的消息组 -> 拉取批次序号(仅由消费线程访问, 通道为空时清空) */
+        private final Map<String, Long> failedGroups = new HashMap<>();
+
+        /* 是否已提交消费任务 */
+        private boolean scheduled;
+
+        /* 队列是否已满 */
+        private boolean full;
+    }
+
+    /**
+     * 顺序消费通道中的消息
+     */
+    private record LaneTask(MessageView messageView, String messageGroup, long sequence) {
+    }
+
+
+    /**
+     * 建造器
+     */
+    public static final class Builder {
+        private SimpleConsumer simpleConsumer;
+        private MessageListener messageListener;
+        private XRocketMQProperties.XRocketMQSimpleConsumerProperties simpleProperties;
+        private ConsumeExecutorType executorType = ConsumeExecutorType.PLATFORM;
+        private int concurrency = 1;
+        private int orderlyLanes;
+        private int laneCapacity = 1;
+        private XRocketMQConsumeConcurrencyLimiter limiter;
+        private int asyncMaxOutstanding;
+        private ExecutorService consumeExecutor;
+
+        private Builder() {}
+
+        public Builder simpleConsumer(SimpleConsumer simpleConsumer) {
+            this.simpleConsumer = simpleConsumer;
+            return this;
+        }
+
+        public Builder messageListener(MessageListener messageListener) {
+            this.messageListener = messageListener;
+            return this;
+        }
+
+        public Builder simpleProperties(XRocketMQProperties.XRocketMQSimpleConsumerProperties simpleProperties) {
+            this.simpleProperties = simpleProperties;
+            return this;
+        }
+
+        /**
+         * 消费线程类型(PLATFORM或VIRTUAL)
+         */
+        public Builder executorType(ConsumeExecutorType executorType) {
+            this.executorType = executorType;
+            return this;
+        }
+
+        /**
+         * 消费并发数(平台线程数或虚拟线程最大并发数, 顺序消费时为通道数)
+         */
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * 顺序消费通道数(0表示非顺序消费)及单个通道的队列上限
+         */
+        public Builder orderly(int orderlyLanes, int laneCapacity) {
+            this.orderlyLanes  =  orderlyLanes;
+            this.laneCapacity  =  laneCapacity;
+            return this;
+        }
+
+        /**
+         * 自适应并发限制器(为空时使用固定并发)
+         */
+        public Builder limiter(XRocketMQConsumeConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+
+        /**
+         * 未完成的异步结果上限(大于0且消息监听器支持异步消费时生效, 顺序消费时不生效)
+         */
+        public Builder asyncMaxOutstanding(int asyncMaxOutstanding) {
+            this.asyncMaxOutstanding = asyncMaxOutstanding;
+            return this;
+        }
+
+        /**
+         * 外部消费线程池(共享消费调度器的调度槽, 为空时引擎自建), 并发数应为其最大并发数
+         */
+        public Builder consumeExecutor(ExecutorService consumeExecutor) {
+            this.consumeExecutor = consumeExecutor;
+            return this;
+        }
+
+        public XRocketMQSimpleConsumerEngine build() {
+            return new XRocketMQSimpleConsumerEngine(this);
+        }
+    }
+}
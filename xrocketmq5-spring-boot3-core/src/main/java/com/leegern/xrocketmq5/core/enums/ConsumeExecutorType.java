@@ -0,0 +1,22 @@
+package com.leegern.xrocketmq5.core.enums;
+
+/**
+ * 消费线程类型
+ */
+public enum ConsumeExecutorType {
+
+    /**
+     * 使用全局配置(仅用于消费监听器注解)
+     */
+    DEFAULT,
+
+    /**
+     * 平台线程, 固定consumeThreadNum个线程
+     */
+    PLATFORM,
+
+    /**
+     * 虚拟线程(Java 21), 每条消息一个虚拟线程, 并发数受最大并发数限制; 适合IO密集的消费逻辑
+     */
+    VIRTUAL
+}
@@ -0,0 +1,17 @@
+package com.leegern.xrocketmq5.core.enums;
+
+/**
+ * 消费者类型
+ */
+public enum ConsumerType {
+
+    /**
+     * PushConsumer, 由客户端内部拉取并缓存消息, 消费线程同步返回消费结果
+     */
+    PUSH,
+
+    /**
+     * SimpleConsumer, 按批长轮询拉取消息, 消费结果异步确认(ack)或修改不可见时间(nack)
+     */
+    SIMPLE
+}
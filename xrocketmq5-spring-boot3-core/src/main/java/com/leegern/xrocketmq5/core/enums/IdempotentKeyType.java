@@ -0,0 +1,17 @@
+package com.leegern.xrocketmq5.core.enums;
+
+/**
+ * 消费幂等键类型
+ */
+public enum IdempotentKeyType {
+
+    /**
+     * 消息ID, 只识别同一条消息的重复投递
+     */
+    MESSAGE_ID,
+
+    /**
+     * 业务键(生产者参数businessId, 即消息keys), 可识别重复发送的同一业务消息; 消息无keys时使用消息ID
+     */
+    BUSINESS_KEY
+}
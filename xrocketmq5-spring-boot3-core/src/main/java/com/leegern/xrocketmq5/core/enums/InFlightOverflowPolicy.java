@@ -0,0 +1,22 @@
+package com.leegern.xrocketmq5.core.enums;
+
+/**
+ * 异步发送在途窗口已满时的处理策略
+ */
+public enum InFlightOverflowPolicy {
+
+    /**
+     * 阻塞发送线程, 直到窗口释放或等待超时(超时则发送失败)
+     */
+    BLOCK,
+
+    /**
+     * 立即失败
+     */
+    FAIL_FAST,
+
+    /**
+     * 暂存到本地有界缓冲区, 窗口释放后按顺序发送(缓冲区已满则发送失败)
+     */
+    SPILL
+}
@@ -0,0 +1,17 @@
+package com.leegern.xrocketmq5.core.enums;
+
+/**
+ * 公共生产者池的发送路由策略
+ */
+public enum ProducerRoutingStrategy {
+
+    /**
+     * 轮询
+     */
+    ROUND_ROBIN,
+
+    /**
+     * 在途请求最少的生产者优先
+     */
+    LEAST_IN_FLIGHT
+}
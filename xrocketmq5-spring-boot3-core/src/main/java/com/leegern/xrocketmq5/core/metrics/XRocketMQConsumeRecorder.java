@@ -0,0 +1,52 @@
+package com.leegern.xrocketmq5.core.metrics;
+
+/**
+ * 消费者消费指标记录器
+ *          每个消费监听器(话题、消费组)解析一次, 消费时直接记录, 不做查找和标签拼接
+ */
+public interface XRocketMQConsumeRecorder {
+
+    /* 不记录指标 */
+    XRocketMQConsumeRecorder NOOP = new XRocketMQConsumeRecorder() {
+        @Override
+        public void recordInterceptor(long nanos) {
+        }
+
+        @Override
+        public void recordDeserialize(long nanos) {
+        }
+
+        @Override
+        public void recordHandler(long nanos) {
+        }
+
+        @Override
+        public void recordResult(boolean success) {
+        }
+    };
+
+
+    /**
+     * 记录拦截器(before与after)耗时
+     * @param nanos 耗时(纳秒)
+     */
+    void recordInterceptor(long nanos);
+
+    /**
+     * 记录消息反序列化耗时
+     * @param nanos 耗时(纳秒)
+     */
+    void recordDeserialize(long nanos);
+
+    /**
+     * 记录消费方法耗时
+     * @param nanos 耗时(纳秒)
+     */
+    void recordHandler(long nanos);
+
+    /**
+     * 记录一条消息的消费结果
+     * @param success 是否成功
+     */
+    void recordResult(boolean success);
+}
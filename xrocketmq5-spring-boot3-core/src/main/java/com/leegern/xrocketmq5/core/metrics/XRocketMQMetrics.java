@@ -0,0 +1,41 @@
+package com.leegern.xrocketmq5.core.metrics;
+
+import com.leegern.xrocketmq5.core.enums.MessageType;
+
+/**
+ * 指标扩展点
+ *          容器中没有该bean时不记录指标; 存在micrometer时自动配置{@link XRocketMQMicrometerMetrics}
+ */
+public interface XRocketMQMetrics {
+
+    /* 不记录指标 */
+    XRocketMQMetrics NOOP = new XRocketMQMetrics() {
+        @Override
+        public XRocketMQSendRecorder sendRecorder(String topic, String tag, MessageType msgType) {
+            return XRocketMQSendRecorder.NOOP;
+        }
+
+        @Override
+        public XRocketMQConsumeRecorder consumeRecorder(String topic, String consumerGroup) {
+            return XRocketMQConsumeRecorder.NOOP;
+        }
+    };
+
+
+    /**
+     * 获取生产者发送指标记录器
+     * @param topic    话题
+     * @param tag      标签
+     * @param msgType  消息类型
+     * @return
+     */
+    XRocketMQSendRecorder sendRecorder(String topic, String tag, MessageType msgType);
+
+    /**
+     * 获取消费者消费指标记录器
+     * @param topic          话题
+     * @param consumerGroup  消费组
+     * @return
+     */
+    XRocketMQConsumeRecorder consumeRecorder(String topic, String consumerGroup);
+}
@@ -0,0 +1,181 @@
+package com.leegern.xrocketmq5.core.metrics;
+
+import com.leegern.xrocketmq5.core.enums.MessageType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于micrometer的指标实现
+ *          生产者: xrocketmq.producer.send(耗时, 标签topic/tag/type/result), xrocketmq.producer.send.bytes(消息体大小);
+ *          消费者: xrocketmq.consumer.interceptor / deserialize / handler(耗时, 标签topic/group), xrocketmq.consumer.results(标签result).
+ *
+ *          记录器在发送计划或消费监听器创建时解析, 计量器注册在内部的组合注册表上, 绑定容器注册表前记录为空操作;
+ *          记录时只调用已解析计量器的record/increment, 不做查找、不拼接标签.
+ *          topic、tag、group的取值各自最多maxTagValues个, 超出的取值归并为OTHER, 保证标签基数有界.
+ */
+public class XRocketMQMicrometerMetrics implements XRocketMQMetrics, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQMicrometerMetrics.class);
+
+    /* 超出上限的标签取值 */
+    private static final String TAG_VALUE_OTHER = "OTHER";
+
+    /* 空标签取值 */
+    private static final String TAG_VALUE_NONE = "none";
+
+    /* 内部组合注册表(绑定后转发到容器注册表) */
+    private final CompositeMeterRegistry composite = new CompositeMeterRegistry();
+
+    /* 是否发布耗时直方图 */
+    private final boolean histogram;
+
+    /* 话题取值 */
+    private final TagValues topics;
+
+    /* 标签取值 */
+    private final TagValues tags;
+
+    /* 消费组取值 */
+    private final TagValues groups;
+
+
+    /**
+     * 自定义构造器
+     * @param histogram    是否发布耗时直方图
+     * @param maxTagValues 每个标签最多的取值个数
+     */
+    public XRocketMQMicrometerMetrics(boolean histogram, int maxTagValues) {
+        this.histogram  =  histogram;
+        this.topics     =  new TagValues("topic", maxTagValues);
+        this.tags       =  new TagValues("tag", maxTagValues);
+        this.groups     =  new TagValues("group", maxTagValues);
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        composite.add(registry);
+    }
+
+    @Override
+    public XRocketMQSendRecorder sendRecorder(String topic, String tag, MessageType msgType) {
+        Tags meterTags = Tags.of("topic", topics.limit(topic), "tag", tags.limit(tag),
+                "type", Objects.isNull(msgType) ? TAG_VALUE_NONE : msgType.name());
+
+        Timer success = this.timer("xrocketmq.producer.send", "Time to send a message to the broker", meterTags.and("result", "success"));
+        Timer failure = this.timer("xrocketmq.producer.send", "Time to send a message to the broker", meterTags.and("result", "failure"));
+        DistributionSummary payload = DistributionSummary.builder("xrocketmq.producer.send.bytes")
+                .description("Body size of sent messages")
+                .baseUnit("bytes")
+                .tags(meterTags)
+                .register(composite);
+
+        return (latencyNanos, payloadBytes, ok) -> {
+            (ok ? success : failure).record(latencyNanos, TimeUnit.NANOSECONDS);
+            payload.record(payloadBytes);
+        };
+    }
+
+    @Override
+    public XRocketMQConsumeRecorder consumeRecorder(String topic, String consumerGroup) {
+        Tags meterTags = Tags.of("topic", topics.limit(topic), "group", groups.limit(consumerGroup));
+
+        Timer interceptor = this.timer("xrocketmq.consumer.interceptor", "Time spent in consumer interceptors", meterTags);
+        Timer deserialize = this.timer("xrocketmq.consumer.deserialize", "Time to convert message bodies", meterTags);
+        Timer handler     = this.timer("xrocketmq.consumer.handler", "Time spent in the listener method", meterTags);
+        Counter success   = Counter.builder("xrocketmq.consumer.results").description("Consume results").tags(meterTags).tag("result", "success").register(composite);
+        Counter failure   = Counter.builder("xrocketmq.consumer.results").description("Consume results").tags(meterTags).tag("result", "failure").register(composite);
+
+        return new XRocketMQConsumeRecorder() {
+            @Override
+            public void recordInterceptor(long nanos) {
+                interceptor.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordDeserialize(long nanos) {
+                deserialize.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordHandler(long nanos) {
+                handler.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordResult(boolean ok) {
+                (ok ? success : failure).increment();
+            }
+        };
+    }
+
+
+    /**
+     * 注册耗时计量器
+     * @param name        名称
+     * @param description 描述
+     * @param meterTags   标签
+     * @return
+     */
+    private Timer timer(String name, String description, Tags meterTags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(meterTags)
+                .publishPercentileHistogram(histogram)
+                .register(composite);
+    }
+
+
+    /**
+     * 有界的标签取值集合
+     */
+    private static final class TagValues {
+
+        /* 标签名 */
+        private final String key;
+
+        /* 最多的取值个数 */
+        private final int maxValues;
+
+        /* 已使用的取值 */
+        private final Set<String> values = new HashSet<>();
+
+        TagValues(String key, int maxValues) {
+            this.key        =  key;
+            this.maxValues  =  Math.max(1, maxValues);
+        }
+
+        /**
+         * 限制标签取值(只在解析记录器时调用)
+         * @param value 原始取值
+         * @return 超出上限时返回OTHER
+         */
+        synchronized String limit(String value) {
+            if (! StringUtils.hasText(value)) {
+                return TAG_VALUE_NONE;
+            }
+            if (values.contains(value)) {
+                return value;
+            }
+            if (values.size() >= maxValues) {
+                LOGGER.warn("Metric tag '{}' exceeds {} values, '{}' is recorded as {}", key, maxValues, value, TAG_VALUE_OTHER);
+                return TAG_VALUE_OTHER;
+            }
+            values.add(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.leegern.xrocketmq5.core.metrics;
+
+/**
+ * 生产者发送指标记录器
+ *          每个发送计划(话题、标签、消息类型)解析一次, 发送时直接记录, 不做查找和标签拼接
+ */
+public interface XRocketMQSendRecorder {
+
+    /* 不记录指标 */
+    XRocketMQSendRecorder NOOP = (latencyNanos, payloadBytes, success) -> {};
+
+
+    /**
+     * 记录一次发送
+     * @param latencyNanos  发送耗时(纳秒)
+     * @param payloadBytes  消息体大小(字节)
+     * @param success       是否成功
+     */
+    void record(long latencyNanos, int payloadBytes, boolean success);
+}
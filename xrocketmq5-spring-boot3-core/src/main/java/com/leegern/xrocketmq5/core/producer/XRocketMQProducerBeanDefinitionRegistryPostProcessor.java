@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -62,8 +63,10 @@ public class XRocketMQProducerBeanDefinitionRegistryPostProcessor implements Bea
         String basePackage = XRocketMQConstants.SCAN_BASE_PACKAGE;
         Set<String> packages = null;
         if (! StringUtils.hasText(this.scanBasePackage)) {
-            // 获取生产者属性配置
-            XRocketMQProperties producerProperties = applicationContext.getBean(XRocketMQProperties.class);
+            // 直接从环境变量绑定生产者属性配置(此阶段获取XRocketMQProperties bean会使其提前实例化而无法完成属性绑定)
+            XRocketMQProperties producerProperties = Binder.get(applicationContext.getEnvironment())
+                    .bind(XRocketMQConstants.ROCKETMQ_KEY_PREFIX.substring(0, XRocketMQConstants.ROCKETMQ_KEY_PREFIX.length() - 1), XRocketMQProperties.class)
+                    .orElseGet(XRocketMQProperties::new);
             if (StringUtils.hasText(producerProperties.getProducer().getScanBasePackage())) {
                 // 设置包扫描路径
                 this.scanBasePackage = producerProperties.getProducer().getScanBasePackage();
@@ -121,6 +124,14 @@ public class XRocketMQProducerBeanDefinitionRegistryPostProcessor implements Bea
         this.applicationContext = applicationContext;
     }
 
+    /**
+     * 'producerHolder' of getter
+     * @return
+     */
+    public XRocketMQProducerHolder getProducerHolder() {
+        return producerHolder;
+    }
+
     /**
      * 'scanBasePackage' of setter
      * @param scanBasePackage
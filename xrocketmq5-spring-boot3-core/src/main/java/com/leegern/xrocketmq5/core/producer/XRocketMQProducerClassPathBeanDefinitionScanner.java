@@ -1,6 +1,8 @@
 package com.leegern.xrocketmq5.core.producer;
 
 import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.enums.MessageType;
+import com.leegern.xrocketmq5.core.producer.annotation.XRocketMQPusher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
@@ -9,6 +11,12 @@ import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
 
 import java.util.Set;
 
@@ -78,6 +86,8 @@ public class XRocketMQProducerClassPathBeanDefinitionScanner extends ClassPathBe
         String beanClassName = definition.getBeanClassName();
         if (LOGGER.isInfoEnabled())
             LOGGER.info(String.format("Creating bean with name '%s' and '%s' producerInterface", beanDefinitionHolder.getBeanName(), beanClassName));
+        // 登记公共生产者的话题
+        this.collectPublicTopics(beanClassName);
         // 设置构造器参数->producer接口的Class对象
         definition.getConstructorArgumentValues().addGenericArgumentValue(beanClassName);
         // 修改producer接口Class对象为DWRocketMQProducerFactoryBean.class
@@ -90,4 +100,25 @@ public class XRocketMQProducerClassPathBeanDefinitionScanner extends ClassPathBe
         // 作用域
         definition.setScope(XRocketMQConstants.DEFAULT_BEAN_SCOPE);
     }
+
+    /**
+     * 收集生产者接口中非事务消息的话题, 公共生产者创建时预先加载这些话题的路由
+     * @param beanClassName 生产者接口类名
+     */
+    private void collectPublicTopics(String beanClassName) {
+        Class<?> producerClazz;
+        try {
+            producerClazz = ClassUtils.forName(beanClassName, this.getResourceLoader().getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.warn("Load producer interface '{}' failed, skip collecting topics: {}", beanClassName, e.getMessage());
+            return;
+        }
+        for (Method method : producerClazz.getMethods()) {
+            XRocketMQPusher pusherAnnotation = AnnotationUtils.getAnnotation(method, XRocketMQPusher.class);
+            if (Objects.nonNull(pusherAnnotation) && pusherAnnotation.msgType() != MessageType.TRANSACTION
+                    && StringUtils.hasText(pusherAnnotation.topicName())) {
+                producerHolder.addPublicTopic(pusherAnnotation.topicName());
+            }
+        }
+    }
 }
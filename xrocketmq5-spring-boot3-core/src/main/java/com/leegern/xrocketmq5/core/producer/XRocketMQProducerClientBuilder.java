@@ -0,0 +1,231 @@
+package com.leegern.xrocketmq5.core.producer;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
+import org.apache.rocketmq.client.apis.ClientConfiguration;
+import org.apache.rocketmq.client.apis.ClientConfigurationBuilder;
+import org.apache.rocketmq.client.apis.ClientException;
+import org.apache.rocketmq.client.apis.ClientServiceProvider;
+import org.apache.rocketmq.client.apis.StaticSessionCredentialsProvider;
+import org.apache.rocketmq.client.apis.producer.Producer;
+import org.apache.rocketmq.client.apis.producer.ProducerBuilder;
+import org.apache.rocketmq.client.apis.producer.TransactionChecker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生产者客户端创建器
+ *          公共生产者按配置创建多个客户端组成生产者池(并行创建).
+ *          客户端启动时只加载本次发送话题的路由(客户端启动会同步等待所有话题路由, 单个话题异常会导致整个客户端创建失败),
+ *          其余已扫描到的非事务话题在客户端创建后异步预取路由, 预取失败只记录日志, 首次发送时再加载.
+ */
+public class XRocketMQProducerClientBuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerClientBuilder.class);
+
+    /* 客户端实现加载话题路由的方法(客户端版本不支持时为空) */
+    private static final Method ROUTE_DATA_METHOD = resolveRouteDataMethod();
+
+    /* 生产者实例持有者 */
+    private final XRocketMQProducerHolder producerHolder;
+
+    /* 属性配置 */
+    private final XRocketMQProperties properties;
+
+
+    /**
+     * 自定义构造器
+     * @param producerHolder  生产者实例持有者
+     * @param properties      属性配置
+     */
+    public XRocketMQProducerClientBuilder(XRocketMQProducerHolder producerHolder, XRocketMQProperties properties) {
+        this.producerHolder  =  producerHolder;
+        this.properties      =  properties;
+    }
+
+
+    /**
+     * 创建生产者实例
+     * @param producerName  生产者名称
+     * @param topic         话题(公共生产者可为空, 为空时为启动预热)
+     * @param txChecker     事务回查
+     * @return
+     */
+    public Producer build(String producerName, String topic, TransactionChecker txChecker) throws ClientException {
+        if (! XRocketMQConstants.PRODUCER_NAME_PUBLIC.equals(producerName)) {
+            return this.buildClient(topic, txChecker);
+        }
+        // 除本次发送话题以外的其他话题异步预取路由
+        Set<String> prefetchTopics = new LinkedHashSet<>(producerHolder.getPublicTopics());
+        if (Objects.nonNull(topic)) {
+            prefetchTopics.remove(topic);
+        }
+
+        Integer poolSize = properties.getProducer().getPoolSize();
+        List<Producer> producers;
+        if (Objects.isNull(poolSize) || poolSize <= 1) {
+            producers = List.of(this.buildClient(topic, null));
+        } else {
+            producers = this.buildPool(poolSize, topic);
+        }
+
+        List<CompletableFuture<Boolean>> prefetches = new ArrayList<>(producers.size());
+        for (Producer producer : producers) {
+            prefetches.add(this.prefetchRoutes(producer, prefetchTopics));
+        }
+        // 启动预热时客户端未加载任何路由, 需至少一个话题路由加载成功以确认服务端可用
+        if (Objects.isNull(topic) && ! prefetches.stream().allMatch(CompletableFuture::join)) {
+            this.closeQuietly(producers);
+            throw new ClientException(String.format("Load routes of all topics %s failed", prefetchTopics));
+        }
+        return producers.size() == 1 ? producers.get(0) : new XRocketMQProducerPool(producers, properties.getProducer().getRoutingStrategy());
+    }
+
+    /**
+     * 并行创建生产者池的客户端
+     * @param poolSize  客户端数量
+     * @param topic     话题(可为空)
+     * @return
+     */
+    private List<Producer> buildPool(int poolSize, String topic) throws ClientException {
+        List<CompletableFuture<Producer>> futures = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.buildClient(topic, null);
+                } catch (ClientException e) {
+                    throw new CompletionException(e);
+                }
+            }, producerHolder.getCreationExecutor()));
+        }
+        List<Producer> producers = new ArrayList<>(poolSize);
+        Throwable failure = null;
+        for (CompletableFuture<Producer> future : futures) {
+            try {
+                producers.add(future.join());
+            } catch (CompletionException e) {
+                failure = Objects.isNull(e.getCause()) ? e : e.getCause();
+            }
+        }
+        if (Objects.nonNull(failure)) {
+            // 关闭已创建的客户端
+            this.closeQuietly(producers);
+            if (failure instanceof ClientException) {
+                throw (ClientException) failure;
+            }
+            throw failure instanceof RuntimeException ? (RuntimeException) failure : new CompletionException(failure);
+        }
+        return producers;
+    }
+
+    /**
+     * 异步预取话题路由(尽力而为, 失败只记录日志)
+     *          客户端API未提供加载路由的方法, 通过反射调用客户端实现的getRouteData, 客户端版本不支持时跳过预取
+     * @param producer  生产者客户端
+     * @param topics    话题
+     * @return 至少一个话题路由加载成功(无需预取时为true)
+     */
+    private CompletableFuture<Boolean> prefetchRoutes(Producer producer, Set<String> topics) {
+        if (topics.isEmpty() || Objects.isNull(ROUTE_DATA_METHOD) || ! ROUTE_DATA_METHOD.getDeclaringClass().isInstance(producer)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        long timeout = properties.getProducer().getSendMsgTimeout();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                boolean loaded = false;
+                for (String topic : topics) {
+                    try {
+                        ((Future<?>) ROUTE_DATA_METHOD.invoke(producer, topic)).get(timeout, TimeUnit.MILLISECONDS);
+                        loaded = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return loaded;
+                    } catch (Exception e) {
+                        Throwable cause = e instanceof InvocationTargetException || e instanceof ExecutionException ? e.getCause() : e;
+                        LOGGER.warn("Prefetch route of topic[{}] failed, it will be loaded on first send: {}", topic, cause.getMessage());
+                    }
+                }
+                return loaded;
+            }, producerHolder.getCreationExecutor());
+        } catch (RejectedExecutionException e) {
+            // 生产者已关闭
+            LOGGER.debug("Skip prefetching routes of topics {} after producers closed", topics);
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+
+    /**
+     * 关闭客户端(忽略异常)
+     * @param producers 生产者客户端
+     */
+    private void closeQuietly(List<Producer> producers) {
+        for (Producer producer : producers) {
+            try {
+                producer.close();
+            } catch (Exception ex) {
+                LOGGER.warn("Close producer failed after creation error: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 解析客户端实现加载话题路由的方法
+     * @return 不支持时返回null
+     */
+    private static Method resolveRouteDataMethod() {
+        try {
+            Method method = Class.forName("org.apache.rocketmq.client.java.impl.ClientImpl").getDeclaredMethod("getRouteData", String.class);
+            method.setAccessible(true);
+            return method;
+        } catch (Exception e) {
+            LOGGER.info("Prefetching topic routes is not supported by current rocketmq client: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 创建生产者客户端
+     * @param topic      话题(启动时加载路由, 可为空)
+     * @param txChecker  事务回查
+     * @return
+     */
+    private Producer buildClient(String topic, TransactionChecker txChecker) throws ClientException {
+        final ClientServiceProvider provider = ClientServiceProvider.loadService();
+        ClientConfigurationBuilder configurationBuilder = ClientConfiguration.newBuilder()
+                .setEndpoints(properties.getEndpoints())
+                .enableSsl(properties.getSslEnabled())
+                .setRequestTimeout(Duration.ofMillis(properties.getProducer().getSendMsgTimeout()));
+        // 未开启安全访问时不设置凭证
+        if (StringUtils.hasText(properties.getAccessKey())) {
+            configurationBuilder.setCredentialProvider(new StaticSessionCredentialsProvider(properties.getAccessKey(), properties.getSecretKey()));
+        }
+        ClientConfiguration clientConfiguration = configurationBuilder.build();
+        ProducerBuilder builder = provider.newProducerBuilder()
+                .setClientConfiguration(clientConfiguration)
+                .setMaxAttempts(properties.getProducer().getRetrySendTimes());
+
+        if (Objects.nonNull(topic)) {
+            builder.setTopics(topic);
+        }
+        if (! Objects.isNull(txChecker)) {
+            builder.setTransactionChecker(txChecker);
+        }
+        return builder.build();
+    }
+}
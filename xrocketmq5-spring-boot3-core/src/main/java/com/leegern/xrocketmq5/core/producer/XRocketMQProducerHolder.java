@@ -1,50 +1,204 @@
 package com.leegern.xrocketmq5.core.producer;
 
+import com.leegern.xrocketmq5.core.producer.batch.XRocketMQProducerBatchAccumulator;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightControl;
+import com.leegern.xrocketmq5.core.producer.handler.XRocketMQProducerHandler;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.rocketmq.client.apis.producer.Producer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * 生产者实例缓存器
  */
 public class XRocketMQProducerHolder {
 
-    /* Producer实例持有者 */
-    private Map<String, Producer> producerHolder = new HashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerHolder.class);
+
+    /* Producer实例持有者(生产者名称 -> 创建中或已创建的实例) */
+    private final Map<String, CompletableFuture<Producer>> producerHolder = new ConcurrentHashMap<>();
+
+    /* 生产者实例创建线程池(不同生产者并行创建, 互不阻塞) */
+    private final ExecutorService creationExecutor = Executors.newCachedThreadPool(new CreationThreadFactory());
+
+    /* 批量发送累加器持有者(生产者名称) */
+    private final Map<String, XRocketMQProducerBatchAccumulator> accumulatorHolder = new ConcurrentHashMap<>();
+
+    /* 消息执行器持有者(生产者名称 + 消息类型) */
+    private final Map<String, XRocketMQProducerHandler> handlerHolder = new ConcurrentHashMap<>();
+
+    /* 公共生产者的话题(扫描@XRocketMQPusher注解得到, 用于预热路由) */
+    private final Set<String> publicTopics = ConcurrentHashMap.newKeySet();
+
+    /* 异步发送在途窗口管理(未限制时为空) */
+    private volatile XRocketMQProducerInFlightControl inFlightControl;
 
 
     /**
-     * 缓存Producer实例
-     * @param producerName  生产者者名称
-     * @param producer      生产者实例
+     * 获取Producer实例, 不存在时异步创建
+     *          同一生产者名称只创建一次, 创建失败时移除缓存以便下次重试; 创建过程不持有任何锁
+     * @param producerName     生产者名称
+     * @param producerFactory  生产者实例工厂
+     * @return 创建中或已创建的生产者实例future
      */
-    public void putProducer(String producerName, Producer producer) {
-        producerHolder.put(producerName, producer);
+    public CompletableFuture<Producer> getOrCreateProducer(String producerName, Callable<Producer> producerFactory) {
+        CompletableFuture<Producer> producerFuture = producerHolder.get(producerName);
+        if (Objects.nonNull(producerFuture)) {
+            return producerFuture;
+        }
+        CompletableFuture<Producer> created = new CompletableFuture<>();
+        if (Objects.nonNull(producerFuture = producerHolder.putIfAbsent(producerName, created))) {
+            return producerFuture;
+        }
+        try {
+            creationExecutor.execute(() -> {
+                try {
+                    created.complete(producerFactory.call());
+                } catch (Throwable e) {
+                    producerHolder.remove(producerName, created);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 已关闭
+            producerHolder.remove(producerName, created);
+            created.completeExceptionally(e);
+        }
+        return created;
     }
 
     /**
-     * 获取Producer实例
+     * 获取已创建完成的Producer实例
      * @param producerName 生产者名称
-     * @return
+     * @return 不存在或创建中时返回null
      */
     public Producer getProducer(String producerName) {
-        return producerHolder.get(producerName);
+        CompletableFuture<Producer> producerFuture = producerHolder.get(producerName);
+        if (Objects.isNull(producerFuture) || ! producerFuture.isDone() || producerFuture.isCompletedExceptionally()) {
+            return null;
+        }
+        return producerFuture.join();
+    }
+
+    /**
+     * 生产者实例创建线程池
+     * @return
+     */
+    Executor getCreationExecutor() {
+        return creationExecutor;
+    }
+
+    /**
+     * 登记公共生产者的话题
+     * @param topic 话题
+     */
+    public void addPublicTopic(String topic) {
+        publicTopics.add(topic);
+    }
+
+    /**
+     * 获取公共生产者的话题
+     * @return
+     */
+    public Set<String> getPublicTopics() {
+        return publicTopics;
+    }
+
+    /**
+     * 获取消息执行器, 不存在时创建(同一生产者与消息类型只创建一次)
+     * @param handlerKey     执行器缓存键
+     * @param handlerFactory 执行器工厂
+     * @return
+     */
+    public XRocketMQProducerHandler getOrCreateHandler(String handlerKey, Function<String, XRocketMQProducerHandler> handlerFactory) {
+        return handlerHolder.computeIfAbsent(handlerKey, handlerFactory);
+    }
+
+    /**
+     * 获取生产者的批量发送累加器, 不存在时创建
+     * @param producerName        生产者名称
+     * @param accumulatorFactory  累加器工厂
+     * @return
+     */
+    public XRocketMQProducerBatchAccumulator getOrCreateAccumulator(String producerName,
+                                                                    Function<String, XRocketMQProducerBatchAccumulator> accumulatorFactory) {
+        return accumulatorHolder.computeIfAbsent(producerName, accumulatorFactory);
+    }
+
+    /**
+     * 设置异步发送在途窗口管理
+     * @param inFlightControl 在途窗口管理
+     */
+    public void setInFlightControl(XRocketMQProducerInFlightControl inFlightControl) {
+        this.inFlightControl = inFlightControl;
     }
 
     /**
      * 关闭生产者实例连接
+     *          先发送批次中剩余的消息并等待完成, 再等待在途窗口中的消息完成(本地缓冲区超时未发送的按失败处理), 最后关闭生产者
      * @throws IOException
      */
     public void closeAll() throws IOException {
-        for (Map.Entry<String, Producer> entry : producerHolder.entrySet()) {
-            Producer producer = entry.getValue();
-            if (!Objects.isNull(producer)) {
+        // 先发送批次中剩余的消息
+        for (XRocketMQProducerBatchAccumulator accumulator : accumulatorHolder.values()) {
+            accumulator.close();
+        }
+        accumulatorHolder.clear();
+        // 等待在途消息及本地缓冲区
+        if (Objects.nonNull(inFlightControl)) {
+            inFlightControl.close();
+        }
+        creationExecutor.shutdown();
+        for (CompletableFuture<Producer> producerFuture : producerHolder.values()) {
+            // 创建中的实例在创建完成后关闭
+            producerFuture.thenAccept(XRocketMQProducerHolder::closeQuietly);
+        }
+        producerHolder.clear();
+        handlerHolder.clear();
+    }
+
+
+    /**
+     * 关闭生产者实例
+     * @param producer 生产者实例
+     */
+    private static void closeQuietly(Producer producer) {
+        if (Objects.nonNull(producer)) {
+            try {
                 producer.close();
+            } catch (Exception e) {
+                LOGGER.error("Close producer failed:{}", ExceptionUtils.getStackTrace(e));
             }
         }
-        producerHolder.clear();
+    }
+
+
+    /**
+     * 生产者实例创建线程工厂
+     */
+    private static class CreationThreadFactory implements ThreadFactory {
+        /* 线程序号 */
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "xrocketmq-producer-init-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
@@ -0,0 +1,142 @@
+package com.leegern.xrocketmq5.core.producer;
+
+import com.leegern.xrocketmq5.core.enums.ProducerRoutingStrategy;
+import org.apache.rocketmq.client.apis.ClientException;
+import org.apache.rocketmq.client.apis.message.Message;
+import org.apache.rocketmq.client.apis.producer.Producer;
+import org.apache.rocketmq.client.apis.producer.SendReceipt;
+import org.apache.rocketmq.client.apis.producer.Transaction;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 公共生产者池
+ *          由多个生产者客户端(各自独立的gRPC连接)组成, 发送时按路由策略选择其中一个客户端,
+ *          对执行器与批量累加器而言与单个Producer无区别
+ */
+public class XRocketMQProducerPool implements Producer {
+
+    /* 生产者客户端 */
+    private final Producer[] producers;
+
+    /* 路由策略 */
+    private final ProducerRoutingStrategy routingStrategy;
+
+    /* 轮询序号 */
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /* 各客户端在途请求数(仅LEAST_IN_FLIGHT策略统计) */
+    private final AtomicIntegerArray inFlights;
+
+
+    /**
+     * 自定义构造器
+     * @param producers        生产者客户端
+     * @param routingStrategy  路由策略
+     */
+    public XRocketMQProducerPool(List<Producer> producers, ProducerRoutingStrategy routingStrategy) {
+        this.producers        =  producers.toArray(new Producer[0]);
+        this.routingStrategy  =  Objects.isNull(routingStrategy) ? ProducerRoutingStrategy.ROUND_ROBIN : routingStrategy;
+        this.inFlights        =  new AtomicIntegerArray(this.producers.length);
+    }
+
+
+    @Override
+    public SendReceipt send(Message message) throws ClientException {
+        if (routingStrategy == ProducerRoutingStrategy.ROUND_ROBIN) {
+            return producers[this.nextIndex()].send(message);
+        }
+        int index = this.leastInFlightIndex();
+        inFlights.incrementAndGet(index);
+        try {
+            return producers[index].send(message);
+        } finally {
+            inFlights.decrementAndGet(index);
+        }
+    }
+
+    @Override
+    public CompletableFuture<SendReceipt> sendAsync(Message message) {
+        if (routingStrategy == ProducerRoutingStrategy.ROUND_ROBIN) {
+            return producers[this.nextIndex()].sendAsync(message);
+        }
+        int index = this.leastInFlightIndex();
+        inFlights.incrementAndGet(index);
+        CompletableFuture<SendReceipt> future;
+        try {
+            future = producers[index].sendAsync(message);
+        } catch (RuntimeException e) {
+            inFlights.decrementAndGet(index);
+            throw e;
+        }
+        future.whenComplete((sendReceipt, throwable) -> inFlights.decrementAndGet(index));
+        return future;
+    }
+
+    /**
+     * 事务消息需在开启事务的同一客户端发送, 公共生产者池固定使用首个客户端
+     */
+    @Override
+    public SendReceipt send(Message message, Transaction transaction) throws ClientException {
+        return producers[0].send(message, transaction);
+    }
+
+    @Override
+    public Transaction beginTransaction() throws ClientException {
+        return producers[0].beginTransaction();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (Producer producer : producers) {
+            try {
+                producer.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (Objects.nonNull(exception)) {
+            throw exception;
+        }
+    }
+
+
+    /**
+     * 轮询下一个客户端
+     * @return
+     */
+    private int nextIndex() {
+        return Math.floorMod(sequence.getAndIncrement(), producers.length);
+    }
+
+    /**
+     * 在途请求最少的客户端(从轮询位置开始比较, 相同时分散到不同客户端)
+     * @return
+     */
+    private int leastInFlightIndex() {
+        int start = this.nextIndex(), index = start, least = Integer.MAX_VALUE;
+        for (int i = 0; i < producers.length; i++) {
+            int candidate = (start + i) % producers.length;
+            int inFlight  = inFlights.get(candidate);
+            if (inFlight < least) {
+                least = inFlight;
+                index = candidate;
+                if (least == 0) {
+                    break;
+                }
+            }
+        }
+        return index;
+    }
+
+
+    public int size() {
+        return producers.length;
+    }
+}
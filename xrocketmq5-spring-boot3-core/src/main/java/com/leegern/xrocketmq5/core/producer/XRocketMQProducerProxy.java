@@ -1,20 +1,19 @@
 package com.leegern.xrocketmq5.core.producer;
 
-import com.leegern.xrocketmq5.core.XRocketMQConstants;
 import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
 import com.leegern.xrocketmq5.core.enums.MessageType;
-import com.leegern.xrocketmq5.core.producer.annotation.XRocketMQPusher;
-import com.leegern.xrocketmq5.core.producer.handler.*;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQMetrics;
+import com.leegern.xrocketmq5.core.producer.batch.XRocketMQProducerBatchAccumulator;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightControl;
+import com.leegern.xrocketmq5.core.producer.handler.XRocketMQProducerContext;
+import com.leegern.xrocketmq5.core.producer.handler.XRocketMQProducerHandler;
+import com.leegern.xrocketmq5.core.producer.journal.XRocketMQProducerJournal;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerTransactionParam;
 import com.leegern.xrocketmq5.core.producer.transaction.XRocketMQProducerTransactionChecker;
 import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
-import org.apache.rocketmq.client.apis.ClientConfiguration;
-import org.apache.rocketmq.client.apis.ClientException;
-import org.apache.rocketmq.client.apis.ClientServiceProvider;
-import org.apache.rocketmq.client.apis.StaticSessionCredentialsProvider;
 import org.apache.rocketmq.client.apis.producer.Producer;
-import org.apache.rocketmq.client.apis.producer.ProducerBuilder;
 import org.apache.rocketmq.client.apis.producer.TransactionChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,16 +21,16 @@ import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
 import org.springframework.context.ApplicationContext;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * 自定义生产者(producer)接口方法代理
@@ -51,10 +50,25 @@ public class XRocketMQProducerProxy implements MethodInterceptor {
     private XRocketMQProducerHolder producerHolder;
 
     /* 发送消息前后的拦截器 */
-    private List<XRocketMQProducerInterceptor> interceptors;
+    private volatile List<XRocketMQProducerInterceptor> interceptors;
 
     /* 生产者属性配置 */
-    private XRocketMQProperties producerProperties;
+    private volatile XRocketMQProperties producerProperties;
+
+    /* 异步发送在途窗口管理 */
+    private volatile XRocketMQProducerInFlightControl inFlightControl;
+
+    /* 发送失败消息的本地日志 */
+    private volatile XRocketMQProducerJournal journal;
+
+    /* 消息编解码器注册表 */
+    private volatile XRocketMQMessageCodecRegistry codecRegistry;
+
+    /* 指标扩展点 */
+    private volatile XRocketMQMetrics metrics;
+
+    /* 方法发送计划缓存 */
+    private final Map<Method, XRocketMQProducerSendPlan> sendPlans = new ConcurrentHashMap<>();
 
 
 
@@ -87,41 +101,25 @@ public class XRocketMQProducerProxy implements MethodInterceptor {
 
     @Override
     public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) throws Throwable {
-        // 获取producer接口方法上的注解
-        XRocketMQPusher pusherAnnotation = AnnotationUtils.getAnnotation(method, XRocketMQPusher.class);
-        if (! Objects.isNull(pusherAnnotation)) {
-            // 话题
-            String topicName = pusherAnnotation.topicName();
-            if (! StringUtils.hasText(topicName)) {
-                throw new XRocketMQException(String.format(XRocketMQConstants.CHECK_NULL_TIPS, "topicName", obj.getClass().getName(), method.getName()));
-            }
-            // 消息类型
-            MessageType msgType = pusherAnnotation.msgType();
-            if (Objects.isNull(msgType)) {
-                throw new XRocketMQException(String.format(XRocketMQConstants.CHECK_NULL_TIPS, "msgType", obj.getClass().getName(), method.getName()));
-            }
+        // 获取producer接口方法的发送计划
+        XRocketMQProducerSendPlan sendPlan = this.getSendPlan(method);
+        if (sendPlan.isPusher()) {
             // 提取原方法参数
-            ArgsEntity argsEntity = this.getArgsEntity(args);
-            if (Objects.isNull(argsEntity.param) || Objects.isNull(argsEntity.param.getMsgBody())) {
-                throw new XRocketMQException(String.format(XRocketMQConstants.CHECK_NULL_TIPS, "producer param or data", obj.getClass().getName(), method.getName()));
-            }
+            XRocketMQProducerParam param = sendPlan.getParam(args);
+            XRocketMQProducerCallback callback = sendPlan.getCallback(args);
 
-            // 生产者名称
-            String producerName = this.makeProducerName(msgType, obj.getClass().getName(), method.getName());
             // 核查事务消息且获取事务回查器
-            XRocketMQProducerTransactionChecker txCheck = this.checkAndGetTransactionChecker(msgType, argsEntity);
-
-            Producer producer = null;
-            try {
-                // 获取生产者实例
-                producer = this.makeAndGetProducer(producerName, this.getProducerProperties(), topicName, txCheck);
-            } catch (Exception e) {
-                throw new XRocketMQException("Create producer instance failed", e);
+            XRocketMQProducerTransactionChecker txCheck = this.checkAndGetTransactionChecker(sendPlan.getMsgType(), param, callback);
+
+            // 获取消息执行器(首次发送时创建生产者实例)
+            XRocketMQProducerHandler producerHandler = sendPlan.getHandler();
+            if (Objects.isNull(producerHandler)) {
+                producerHandler = this.resolveProducerHandler(sendPlan, txCheck);
             }
             // 发送消息
-            this.sendMessage(producer, argsEntity, topicName, pusherAnnotation.tagExpress(), msgType, pusherAnnotation.enableAsync());
+            CompletableFuture<XRocketMQProducerResponse> responseFuture = producerHandler.sendMessage(sendPlan, param, callback);
 
-            return null;
+            return sendPlan.toReturnValue(responseFuture);
         }
 
         // 如果没有生产者发送方法注解, 执行原始方法
@@ -130,71 +128,73 @@ public class XRocketMQProducerProxy implements MethodInterceptor {
 
 
     /**
-     * 发送消息
-     * @param producer     生产者实例
-     * @param argsParam    请求参数
-     * @param topicName    话题名称
-     * @param msgTag       消息标签
-     * @param msgType      消息类型
-     * @param enableAsync  异步发送
+     * 解析发送计划对应的消息执行器并缓存
+     * @param sendPlan  发送计划
+     * @param txCheck   事务回查器
+     * @return
      */
-    private void sendMessage(Producer producer, ArgsEntity argsParam, String topicName,
-                             String msgTag, MessageType msgType, boolean enableAsync) {
-
-        // 获取对应的消息发送器
-        XRocketMQProducerHandler producerHandler = this.getProducerHandler(msgType, producer, argsParam.callback);
-        // 发送消息
-        producerHandler.sendMessage(topicName, msgTag, enableAsync, argsParam.param);
-
+    private XRocketMQProducerHandler resolveProducerHandler(XRocketMQProducerSendPlan sendPlan, XRocketMQProducerTransactionChecker txCheck) {
+        Producer producer = null;
+        try {
+            // 获取生产者实例
+            producer = this.makeAndGetProducer(sendPlan.getProducerName(), this.getProducerProperties(), sendPlan.getTopicName(), txCheck);
+        } catch (Exception e) {
+            throw new XRocketMQException("Create producer instance failed", e);
+        }
+        // 同一(生产者, 消息类型)共享一个无状态执行器
+        final Producer handlerProducer = producer;
+        XRocketMQProducerHandler producerHandler = producerHolder.getOrCreateHandler(sendPlan.getHandlerKey(),
+                key -> sendPlan.newHandler(XRocketMQProducerContext.builder()
+                        .producer(handlerProducer)
+                        .interceptors(this.getProducerInterceptors())
+                        .batchAccumulator(this.getBatchAccumulator(sendPlan, handlerProducer))
+                        .inFlightControl(this.getInFlightControl())
+                        .journal(this.getJournal())
+                        .build()));
+        // 先设置编解码器及指标记录器再发布执行器
+        sendPlan.setCodec(this.getCodecRegistry().getCodec(sendPlan.getCodecName()));
+        sendPlan.setSendRecorder(this.getMetrics().sendRecorder(sendPlan.getTopicName(), sendPlan.getTagExpress(), sendPlan.getMsgType()));
+        sendPlan.setHandler(producerHandler);
+        return producerHandler;
     }
 
-
-
     /**
-     * 创建生产者实例
-     * @param producerProperties 生产者属性配置
-     * @param topic              话题
-     * @param txChecker          事务回查
+     * 获取生产者的批量发送累加器(事务消息不支持批量发送)
+     * @param sendPlan  发送计划
+     * @param producer  生产者实例
      * @return
      */
-    private Producer buildProducer(XRocketMQProperties producerProperties, String topic, TransactionChecker txChecker) throws ClientException {
-        final ClientServiceProvider provider = ClientServiceProvider.loadService();
-        ClientConfiguration clientConfiguration = ClientConfiguration.newBuilder()
-                .setEndpoints(producerProperties.getEndpoints())
-                .setCredentialProvider(new StaticSessionCredentialsProvider(producerProperties.getAccessKey(), producerProperties.getSecretKey()))
-                .enableSsl(producerProperties.getSslEnabled())
-                .setRequestTimeout(Duration.ofMillis(producerProperties.getProducer().getSendMsgTimeout()))
-                .build();
-        ProducerBuilder builder = provider.newProducerBuilder()
-                .setClientConfiguration(clientConfiguration)
-                .setTopics(topic)
-                .setMaxAttempts(producerProperties.getProducer().getRetrySendTimes());
-
-        if (! Objects.isNull(txChecker)) {
-            builder.setTransactionChecker(txChecker);
+    private XRocketMQProducerBatchAccumulator getBatchAccumulator(XRocketMQProducerSendPlan sendPlan, Producer producer) {
+        if (sendPlan.getMsgType() == MessageType.TRANSACTION) {
+            return null;
         }
-        return builder.build();
+        XRocketMQProperties.XRocketMQProducerProperties properties = this.getProducerProperties().getProducer();
+        return producerHolder.getOrCreateAccumulator(sendPlan.getProducerName(), key -> new XRocketMQProducerBatchAccumulator(producer,
+                properties.getBatchMaxCount(),
+                // 批次大小不超过最大消息大小
+                Math.min(properties.getBatchMaxBytes(), properties.getMaxMessageSize()),
+                properties.getBatchLingerMs(),
+                properties.getSendMsgTimeout()));
     }
 
-
     /**
-     * 生成生产者名称
-     * @param msgType        消息类型
-     * @param producerClazz  生产者类名
-     * @param txMethod       事务方法名
+     * 获取方法的发送计划(每个方法只解析一次)
+     * @param method 生产者方法
      * @return
      */
-    private String makeProducerName(MessageType msgType, String producerClazz, String txMethod) {
-        if (msgType == MessageType.TRANSACTION) {
-            return String.format(XRocketMQConstants.PRODUCER_NAME_TX, producerClazz, txMethod);
-        }
-        else {
-            return XRocketMQConstants.PRODUCER_NAME_PUBLIC;
+    private XRocketMQProducerSendPlan getSendPlan(Method method) {
+        XRocketMQProducerSendPlan sendPlan = sendPlans.get(method);
+        if (Objects.isNull(sendPlan)) {
+            sendPlan = sendPlans.computeIfAbsent(method, m -> XRocketMQProducerSendPlan.resolve(targetClazz, m));
         }
+        return sendPlan;
     }
 
+
+
     /**
      * 获取生产者实例
+     *          由持有者按名称只创建一次, 创建在独立线程中进行, 只有等待同一生产者的调用会被阻塞
      * @param producerName       生产者名称
      * @param producerProperties 生产者属性配置
      * @param topic              消息话题
@@ -202,35 +202,39 @@ public class XRocketMQProducerProxy implements MethodInterceptor {
      * @return
      */
     private Producer makeAndGetProducer(String producerName, XRocketMQProperties producerProperties,
-                                        String topic, TransactionChecker transactionChecker) throws ClientException {
-        Producer producer = null;
-        if (Objects.isNull(producer = producerHolder.getProducer(producerName))) {
-            synchronized (XRocketMQProducerProxy.class) {
-                if (Objects.isNull(producer = producerHolder.getProducer(producerName))) {
-                    // 创建生产者实例
-                    producer = this.buildProducer(producerProperties, topic, transactionChecker);
-                    // 存入缓存
-                    producerHolder.putProducer(producerName, producer);
-                }
-            }
+                                        String topic, TransactionChecker transactionChecker) throws Exception {
+        Producer producer = producerHolder.getProducer(producerName);
+        if (Objects.nonNull(producer)) {
+            return producer;
+        }
+        CompletableFuture<Producer> producerFuture = producerHolder.getOrCreateProducer(producerName,
+                () -> new XRocketMQProducerClientBuilder(producerHolder, producerProperties).build(producerName, topic, transactionChecker));
+        try {
+            return producerFuture.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
         }
-        return producer;
     }
 
     /**
      * 核查事务消息且获取事务回查器
      * @param messageType   消息类型
-     * @param argsParam     参数实体
+     * @param param         请求参数
+     * @param callback      响应结果回调
      * @return
      */
-    private XRocketMQProducerTransactionChecker checkAndGetTransactionChecker(MessageType messageType, ArgsEntity argsParam) {
+    private XRocketMQProducerTransactionChecker checkAndGetTransactionChecker(MessageType messageType, XRocketMQProducerParam param,
+                                                                              XRocketMQProducerCallback callback) {
         XRocketMQProducerTransactionChecker transactionChecker = null;
         // 是否是事务消息
         if (messageType == MessageType.TRANSACTION) {
-            if (! (XRocketMQProducerTransactionParam.class.isAssignableFrom(argsParam.param.getClass()))) {
+            if (! (XRocketMQProducerTransactionParam.class.isAssignableFrom(param.getClass()))) {
                 throw new XRocketMQException("'requestParam' must be instance of XRocketMQProducerTransactionParam when 'messageType' is Transaction");
             }
-            XRocketMQProducerTransactionParam transactionParam = (XRocketMQProducerTransactionParam) argsParam.param;
+            XRocketMQProducerTransactionParam transactionParam = (XRocketMQProducerTransactionParam) param;
             if (Objects.isNull(transactionParam.getTransactionChecker())) {
                 throw new XRocketMQException("'transactionChecker' must not be empty");
             }
@@ -238,7 +242,9 @@ public class XRocketMQProducerProxy implements MethodInterceptor {
 //            // 设置消息体clazz
 //            transactionChecker.setMessageClazz(transactionParam.getMsgBody().getClass());
             // 设置相应结果回调
-            transactionChecker.setResponseCallback(argsParam.callback);
+            transactionChecker.setResponseCallback(callback);
+            // 设置消息编解码器注册表
+            transactionChecker.setCodecRegistry(this.getCodecRegistry());
         }
         return transactionChecker;
     }
@@ -263,77 +269,80 @@ public class XRocketMQProducerProxy implements MethodInterceptor {
     }
 
     /**
-     * 获取生产者属性配置
-     * @return
+     * 获取容器中的异步发送在途窗口管理
+     * @return 未注册时返回null(不限制在途消息)
      */
-    private XRocketMQProperties getProducerProperties() {
-        if (Objects.isNull(this.producerProperties)) {
-            synchronized (XRocketMQProperties.class) {
-                if (Objects.isNull(this.producerProperties)) {
-                    this.producerProperties = applicationContext.getBean(XRocketMQProperties.class);
+    private XRocketMQProducerInFlightControl getInFlightControl() {
+        if (Objects.isNull(this.inFlightControl)) {
+            synchronized (this) {
+                if (Objects.isNull(this.inFlightControl)) {
+                    this.inFlightControl = applicationContext.getBeanProvider(XRocketMQProducerInFlightControl.class).getIfAvailable();
+                    // 关闭生产者前等待在途消息完成
+                    producerHolder.setInFlightControl(this.inFlightControl);
                 }
             }
         }
-        return this.producerProperties;
+        return this.inFlightControl;
     }
 
     /**
-     * 根据消息类型实例化对应的消息执行器
-     * @param msgType   消息类型
-     * @param producer  生产者实例
-     * @param responseCallback 响应结果回调
-     * @return
+     * 获取容器中的生产者本地日志
+     * @return 未开启时返回null(发送失败的消息只交给回调)
      */
-    private XRocketMQProducerHandler getProducerHandler(MessageType msgType, Producer producer, XRocketMQProducerCallback responseCallback) {
-        XRocketMQProducerHandler producerHandler = null;
-        switch (msgType) {
-            // 延时消息
-            case MessageType.DELAY -> producerHandler = new XRocketMQProducerDelayHandler();
-            // 有序消息
-            case MessageType.ORDERLY -> producerHandler = new XRocketMQProducerOrderlyHandler();
-            // 事务消息
-            case MessageType.TRANSACTION -> producerHandler = new XRocketMQProducerTransactionHandler();
-            // 普通消息
-            default -> producerHandler = new XRocketMQProducerNormalHandler();
+    private XRocketMQProducerJournal getJournal() {
+        if (Objects.isNull(this.journal)) {
+            synchronized (this) {
+                if (Objects.isNull(this.journal)) {
+                    this.journal = applicationContext.getBeanProvider(XRocketMQProducerJournal.class).getIfAvailable();
+                }
+            }
         }
-        producerHandler.setProducer(producer);
-        producerHandler.setInterceptors(this.getProducerInterceptors());
-        producerHandler.setResponseCallback(responseCallback);
-        return producerHandler;
+        return this.journal;
     }
 
     /**
-     * 提取方法参数
-     * @param args
-     * @return
+     * 获取容器中的消息编解码器注册表
+     * @return 未注册时使用内置编解码器及全局默认编解码器
      */
-    private ArgsEntity getArgsEntity(Object[] args) {
-        XRocketMQProducerParam param = null;
-        XRocketMQProducerCallback callback = null;
-        // 提取参数
-        for (Object arg : args) {
-            if (XRocketMQProducerParam.class.isAssignableFrom(arg.getClass())) {
-                param = (XRocketMQProducerParam) arg;
+    private XRocketMQMessageCodecRegistry getCodecRegistry() {
+        if (Objects.isNull(this.codecRegistry)) {
+            synchronized (this) {
+                if (Objects.isNull(this.codecRegistry)) {
+                    this.codecRegistry = applicationContext.getBeanProvider(XRocketMQMessageCodecRegistry.class)
+                            .getIfAvailable(() -> new XRocketMQMessageCodecRegistry(null, this.getProducerProperties().getProducer().getCodec()));
+                }
             }
-            else if (XRocketMQProducerCallback.class.isAssignableFrom(arg.getClass())) {
-                callback = (XRocketMQProducerCallback) arg;
+        }
+        return this.codecRegistry;
+    }
+
+    /**
+     * 获取容器中的指标扩展点
+     * @return 未注册时不记录指标
+     */
+    private XRocketMQMetrics getMetrics() {
+        if (Objects.isNull(this.metrics)) {
+            synchronized (this) {
+                if (Objects.isNull(this.metrics)) {
+                    this.metrics = applicationContext.getBeanProvider(XRocketMQMetrics.class).getIfAvailable(() -> XRocketMQMetrics.NOOP);
+                }
             }
         }
-        return new ArgsEntity(param, callback);
+        return this.metrics;
     }
 
     /**
-     * 参数实体
+     * 获取生产者属性配置
+     * @return
      */
-    static class ArgsEntity {
-        /* 消息请求参数 */
-        XRocketMQProducerParam param;
-        /* 返回结果回调 */
-        XRocketMQProducerCallback callback;
-
-        public ArgsEntity(XRocketMQProducerParam param, XRocketMQProducerCallback callback) {
-            this.param = param;
-            this.callback = callback;
+    private XRocketMQProperties getProducerProperties() {
+        if (Objects.isNull(this.producerProperties)) {
+            synchronized (this) {
+                if (Objects.isNull(this.producerProperties)) {
+                    this.producerProperties = applicationContext.getBean(XRocketMQProperties.class);
+                }
+            }
         }
+        return this.producerProperties;
     }
 }
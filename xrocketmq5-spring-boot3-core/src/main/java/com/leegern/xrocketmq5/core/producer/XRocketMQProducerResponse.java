@@ -14,6 +14,9 @@ public class XRocketMQProducerResponse {
     // 扩展信息
     private String extInfo;
 
+    // 发送失败的消息是否已写入本地日志(broker恢复后自动重新发送)
+    private Boolean journaled = false;
+
 
     public XRocketMQProducerResponse() {
         this.success = false;
@@ -45,12 +48,20 @@ public class XRocketMQProducerResponse {
         this.extInfo = extInfo;
     }
 
+    public Boolean getJournaled() {
+        return journaled;
+    }
+    public void setJournaled(Boolean journaled) {
+        this.journaled = journaled;
+    }
+
     @Override
     public String toString() {
         return "DWRocketMQProducerResponse{" +
                 "success=" + success +
                 ", messageId='" + messageId + '\'' +
                 ", extInfo='" + extInfo + '\'' +
+                ", journaled=" + journaled +
                 '}';
     }
 }
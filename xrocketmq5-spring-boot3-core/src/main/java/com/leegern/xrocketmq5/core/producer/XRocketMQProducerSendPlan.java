@@ -0,0 +1,390 @@
+package com.leegern.xrocketmq5.core.producer;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodec;
+import com.leegern.xrocketmq5.core.enums.MessageType;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQSendRecorder;
+import com.leegern.xrocketmq5.core.producer.annotation.XRocketMQPusher;
+import com.leegern.xrocketmq5.core.producer.handler.*;
+import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.WildcardType;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * 生产者接口方法的发送计划
+ *          每个Method只解析一次(注解、参数位置、生产者名称等)并缓存在代理中, 发送时直接使用
+ */
+public class XRocketMQProducerSendPlan {
+
+    /* 无@XRocketMQPusher注解方法的占位计划 */
+    static final XRocketMQProducerSendPlan NONE = new XRocketMQProducerSendPlan();
+
+    /* 话题 */
+    private final String topicName;
+
+    /* 消息标签 */
+    private final String tagExpress;
+
+    /* 消息类型 */
+    private final MessageType msgType;
+
+    /* 异步发送标识 */
+    private final boolean enableAsync;
+
+    /* 批量发送标识 */
+    private final boolean enableBatch;
+
+    /* 生产者名称 */
+    private final String producerName;
+
+    /* 消息执行器工厂 */
+    private final Function<XRocketMQProducerContext, XRocketMQProducerHandler> handlerFactory;
+
+    /* 消息执行器缓存键(生产者名称 + 消息类型) */
+    private final String handlerKey;
+
+    /* 已解析的消息执行器(无状态, 同一生产者与消息类型共享) */
+    private volatile XRocketMQProducerHandler handler;
+
+    /* 消息参数位置(未声明时为-1) */
+    private final int paramIndex;
+
+    /* 结果回调参数位置(未声明时为-1) */
+    private final int callbackIndex;
+
+    /* 消息参数声明为父类型(如Object), 发送时按实际类型查找 */
+    private final boolean scanParam;
+
+    /* 结果回调参数声明为父类型(如Object), 发送时按实际类型查找 */
+    private final boolean scanCallback;
+
+    /* 生产者接口类名 */
+    private final String clazzName;
+
+    /* 生产者方法名 */
+    private final String methodName;
+
+    /* 方法返回值类型 */
+    private final ReturnKind returnKind;
+
+    /* 消息编解码器名称(为空时使用全局配置) */
+    private final String codecName;
+
+    /* 已解析的消息编解码器 */
+    private volatile XRocketMQMessageCodec codec;
+
+    /* 已解析的发送指标记录器 */
+    private volatile XRocketMQSendRecorder sendRecorder = XRocketMQSendRecorder.NOOP;
+
+
+    /**
+     * 占位计划构造器
+     */
+    private XRocketMQProducerSendPlan() {
+        this.topicName       =  null;
+        this.tagExpress      =  null;
+        this.msgType         =  null;
+        this.enableAsync     =  false;
+        this.enableBatch     =  false;
+        this.producerName    =  null;
+        this.handlerFactory  =  null;
+        this.handlerKey      =  null;
+        this.paramIndex      =  -1;
+        this.callbackIndex   =  -1;
+        this.scanParam       =  false;
+        this.scanCallback    =  false;
+        this.clazzName       =  null;
+        this.methodName      =  null;
+        this.returnKind      =  ReturnKind.NONE;
+        this.codecName       =  null;
+    }
+
+    /**
+     * 自定义构造器
+     * @param targetClazz      生产者接口clazz
+     * @param method           生产者方法
+     * @param pusherAnnotation 生产者方法注解
+     */
+    private XRocketMQProducerSendPlan(Class<?> targetClazz, Method method, XRocketMQPusher pusherAnnotation) {
+        this.clazzName   =  targetClazz.getName();
+        this.methodName  =  method.getName();
+
+        // 话题
+        this.topicName = pusherAnnotation.topicName();
+        if (! StringUtils.hasText(topicName)) {
+            throw new XRocketMQException(String.format(XRocketMQConstants.CHECK_NULL_TIPS, "topicName", clazzName, methodName));
+        }
+        // 消息类型
+        this.msgType = pusherAnnotation.msgType();
+        if (Objects.isNull(msgType)) {
+            throw new XRocketMQException(String.format(XRocketMQConstants.CHECK_NULL_TIPS, "msgType", clazzName, methodName));
+        }
+        this.tagExpress    =  pusherAnnotation.tagExpress();
+        this.enableAsync   =  pusherAnnotation.enableAsync();
+        this.enableBatch   =  pusherAnnotation.enableBatch();
+        if (enableBatch && msgType != MessageType.NORMAL && msgType != MessageType.DELAY) {
+            throw new XRocketMQException(String.format("'enableBatch' only supports NORMAL or DELAY message when invoking '%s.%s()'", clazzName, methodName));
+        }
+        this.producerName  =  makeProducerName(msgType, clazzName, methodName);
+        this.handlerFactory = makeHandlerFactory(msgType);
+        this.handlerKey     =  producerName + XRocketMQConstants.HANDLER_KEY_DELIMITER + msgType.name();
+        this.codecName      =  pusherAnnotation.codec();
+
+        // 参数位置(按声明类型确定; 只声明为父类型(如Object)时, 发送时按参数的实际类型查找)
+        int paramIdx = -1, callbackIdx = -1;
+        boolean paramCandidate = false, callbackCandidate = false;
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (paramIdx < 0 && XRocketMQProducerParam.class.isAssignableFrom(parameterTypes[i])) {
+                paramIdx = i;
+            }
+            else if (callbackIdx < 0 && XRocketMQProducerCallback.class.isAssignableFrom(parameterTypes[i])) {
+                callbackIdx = i;
+            }
+            else {
+                paramCandidate    |=  parameterTypes[i].isAssignableFrom(XRocketMQProducerParam.class);
+                callbackCandidate |=  parameterTypes[i].isAssignableFrom(XRocketMQProducerCallback.class);
+            }
+        }
+        if (paramIdx < 0 && ! paramCandidate) {
+            throw new XRocketMQException(String.format("'%s.%s()' must declare a parameter of type XRocketMQProducerParam", clazzName, methodName));
+        }
+        this.paramIndex     =  paramIdx;
+        this.callbackIndex  =  callbackIdx;
+        this.scanParam      =  paramIdx < 0;
+        this.scanCallback   =  callbackIdx < 0 && callbackCandidate;
+
+        // 返回值类型
+        this.returnKind = resolveReturnKind(ResolvableType.forMethodReturnType(method, targetClazz));
+        if (Objects.isNull(returnKind)) {
+            throw new XRocketMQException(String.format("The return type of '%s.%s()' must be void, XRocketMQProducerResponse or CompletableFuture/CompletionStage/Future of XRocketMQProducerResponse or <?>",
+                    clazzName, methodName));
+        }
+    }
+
+
+    /**
+     * 解析生产者方法的发送计划
+     * @param targetClazz 生产者接口clazz
+     * @param method      生产者方法
+     * @return 无@XRocketMQPusher注解时返回占位计划
+     */
+    public static XRocketMQProducerSendPlan resolve(Class<?> targetClazz, Method method) {
+        XRocketMQPusher pusherAnnotation = AnnotationUtils.getAnnotation(method, XRocketMQPusher.class);
+        if (Objects.isNull(pusherAnnotation)) {
+            return NONE;
+        }
+        return new XRocketMQProducerSendPlan(targetClazz, method, pusherAnnotation);
+    }
+
+
+    /**
+     * 提取消息请求参数
+     * @param args 方法参数
+     * @return
+     */
+    @SuppressWarnings("rawtypes")
+    public XRocketMQProducerParam getParam(Object[] args) {
+        XRocketMQProducerParam param = scanParam ? findArg(args, XRocketMQProducerParam.class)
+                : paramIndex < 0 ? null : (XRocketMQProducerParam) args[paramIndex];
+        if (Objects.isNull(param) || Objects.isNull(param.getMsgBody())) {
+            throw new XRocketMQException(String.format(XRocketMQConstants.CHECK_NULL_TIPS, "producer param or data", clazzName, methodName));
+        }
+        return param;
+    }
+
+    /**
+     * 提取结果回调参数
+     * @param args 方法参数
+     * @return
+     */
+    public XRocketMQProducerCallback getCallback(Object[] args) {
+        if (scanCallback) {
+            return findArg(args, XRocketMQProducerCallback.class);
+        }
+        return callbackIndex < 0 ? null : (XRocketMQProducerCallback) args[callbackIndex];
+    }
+
+    /**
+     * 将发送结果转换为方法的返回值
+     * @param responseFuture 发送结果future
+     * @return
+     */
+    public Object toReturnValue(CompletableFuture<XRocketMQProducerResponse> responseFuture) {
+        return switch (returnKind) {
+            case FUTURE -> responseFuture;
+            // 同步返回响应结果(异步发送时等待发送完成)
+            case RESPONSE -> responseFuture.join();
+            default -> null;
+        };
+    }
+
+    /**
+     * 创建消息执行器
+     * @param context 执行器上下文
+     * @return
+     */
+    public XRocketMQProducerHandler newHandler(XRocketMQProducerContext context) {
+        return handlerFactory.apply(context);
+    }
+
+
+    /**
+     * 按实际类型查找方法参数
+     * @param args 方法参数
+     * @param type 参数类型
+     * @return 不存在时返回null
+     * @param <T>
+     */
+    private static <T> T findArg(Object[] args, Class<T> type) {
+        for (Object arg : args) {
+            if (type.isInstance(arg)) {
+                return type.cast(arg);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 生成生产者名称
+     * @param msgType        消息类型
+     * @param producerClazz  生产者类名
+     * @param txMethod       事务方法名
+     * @return
+     */
+    private static String makeProducerName(MessageType msgType, String producerClazz, String txMethod) {
+        if (msgType == MessageType.TRANSACTION) {
+            return String.format(XRocketMQConstants.PRODUCER_NAME_TX, producerClazz, txMethod);
+        }
+        else {
+            return XRocketMQConstants.PRODUCER_NAME_PUBLIC;
+        }
+    }
+
+    /**
+     * 解析方法返回值类型
+     * @param resolvableType 方法返回值类型(含泛型)
+     * @return 不支持的类型返回null
+     */
+    private static ReturnKind resolveReturnKind(ResolvableType resolvableType) {
+        Class<?> returnType = resolvableType.toClass();
+        if (returnType == void.class || returnType == Void.class) {
+            return ReturnKind.NONE;
+        }
+        if (returnType == CompletableFuture.class || returnType == CompletionStage.class || returnType == Future.class) {
+            // 泛型参数只能是XRocketMQProducerResponse或无界通配符(原始类型等同无界通配符)
+            if (resolvableType.getType() instanceof Class) {
+                return ReturnKind.FUTURE;
+            }
+            ResolvableType generic = resolvableType.getGeneric(0);
+            if (generic.getType() instanceof WildcardType wildcard
+                    && wildcard.getLowerBounds().length == 0 && Object.class.equals(wildcard.getUpperBounds()[0])) {
+                return ReturnKind.FUTURE;
+            }
+            return generic.resolve() == XRocketMQProducerResponse.class ? ReturnKind.FUTURE : null;
+        }
+        if (returnType == XRocketMQProducerResponse.class) {
+            return ReturnKind.RESPONSE;
+        }
+        return null;
+    }
+
+    /**
+     * 根据消息类型确定对应的消息执行器
+     * @param msgType 消息类型
+     * @return
+     */
+    private static Function<XRocketMQProducerContext, XRocketMQProducerHandler> makeHandlerFactory(MessageType msgType) {
+        return switch (msgType) {
+            // 延时消息
+            case DELAY -> XRocketMQProducerDelayHandler::new;
+            // 有序消息
+            case ORDERLY -> XRocketMQProducerOrderlyHandler::new;
+            // 事务消息
+            case TRANSACTION -> XRocketMQProducerTransactionHandler::new;
+            // 普通消息
+            default -> XRocketMQProducerNormalHandler::new;
+        };
+    }
+
+
+    public boolean isPusher() {
+        return this != NONE;
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public String getTagExpress() {
+        return tagExpress;
+    }
+
+    public MessageType getMsgType() {
+        return msgType;
+    }
+
+    public boolean isEnableAsync() {
+        return enableAsync;
+    }
+
+    public boolean isEnableBatch() {
+        return enableBatch;
+    }
+
+    public String getProducerName() {
+        return producerName;
+    }
+
+    public String getHandlerKey() {
+        return handlerKey;
+    }
+
+    public String getCodecName() {
+        return codecName;
+    }
+
+    public XRocketMQMessageCodec getCodec() {
+        return codec;
+    }
+    public void setCodec(XRocketMQMessageCodec codec) {
+        this.codec = codec;
+    }
+
+    public XRocketMQSendRecorder getSendRecorder() {
+        return sendRecorder;
+    }
+    public void setSendRecorder(XRocketMQSendRecorder sendRecorder) {
+        this.sendRecorder = sendRecorder;
+    }
+
+    public XRocketMQProducerHandler getHandler() {
+        return handler;
+    }
+    public void setHandler(XRocketMQProducerHandler handler) {
+        this.handler = handler;
+    }
+
+
+    /**
+     * 生产者方法返回值类型
+     */
+    private enum ReturnKind {
+        /* 无返回值 */
+        NONE,
+        /* CompletableFuture<XRocketMQProducerResponse> */
+        FUTURE,
+        /* XRocketMQProducerResponse */
+        RESPONSE
+    }
+}
@@ -0,0 +1,94 @@
+package com.leegern.xrocketmq5.core.producer;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
+import org.apache.rocketmq.client.apis.producer.Producer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 生产者启动预热
+ *          容器启动时(早于Web服务启动)创建并连接公共生产者池的所有客户端, 全部连接成功后才完成启动,
+ *          因此应用就绪(readiness)状态只会在生产者可用后上报; 预热失败或超时则启动失败.
+ *          已扫描话题的路由在客户端创建后预取, 至少一个话题路由加载成功即视为可用, 个别话题路由异常只记录日志.
+ *          事务生产者依赖发送时传入的事务回查器, 仍在首次发送时创建.
+ */
+public class XRocketMQProducerWarmUp implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerWarmUp.class);
+
+    /* 生产者实例持有者 */
+    private final XRocketMQProducerHolder producerHolder;
+
+    /* 属性配置 */
+    private final XRocketMQProperties properties;
+
+    /* 是否已启动 */
+    private volatile boolean running;
+
+
+    /**
+     * 自定义构造器
+     * @param producerHolder  生产者实例持有者
+     * @param properties      属性配置
+     */
+    public XRocketMQProducerWarmUp(XRocketMQProducerHolder producerHolder, XRocketMQProperties properties) {
+        this.producerHolder  =  producerHolder;
+        this.properties      =  properties;
+    }
+
+
+    @Override
+    public void start() {
+        if (producerHolder.getPublicTopics().isEmpty()) {
+            running = true;
+            return;
+        }
+        long begin = System.currentTimeMillis();
+        CompletableFuture<Producer> producerFuture = producerHolder.getOrCreateProducer(XRocketMQConstants.PRODUCER_NAME_PUBLIC,
+                () -> new XRocketMQProducerClientBuilder(producerHolder, properties).build(XRocketMQConstants.PRODUCER_NAME_PUBLIC, null, null));
+
+        Integer warmUpTimeout = properties.getProducer().getWarmUpTimeout();
+        int timeout = Objects.isNull(warmUpTimeout) ? XRocketMQConstants.PRODUCER_WARM_UP_TIMEOUT : warmUpTimeout;
+        try {
+            producerFuture.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new XRocketMQException("Warm up producer failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new XRocketMQException(String.format("Warm up producer timeout after %sms", timeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XRocketMQException("Warm up producer interrupted", e);
+        }
+        running = true;
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Warm up producer in {}ms, prefetching routes of topics {}", System.currentTimeMillis() - begin, producerHolder.getPublicTopics());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 早于Web服务启动(Web服务的阶段为DEFAULT_PHASE - 1024)
+     * @return
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
@@ -38,4 +38,17 @@ public @interface XRocketMQPusher {
      * @return
      */
     String tagExpress() default "";
+
+    /**
+     * 是否批量发送消息(仅支持普通消息与延时消息)
+     *      相同话题与标签的消息先进入本地累加器, 达到条数、大小或等待时间后以异步流水线方式发送
+     * @return
+     */
+    boolean enableBatch() default false;
+
+    /**
+     * 消息编解码器名称(json、smile、cbor、protobuf或自定义编解码器), 为空时使用全局配置rocketmq.producer.codec
+     * @return
+     */
+    String codec() default "";
 }
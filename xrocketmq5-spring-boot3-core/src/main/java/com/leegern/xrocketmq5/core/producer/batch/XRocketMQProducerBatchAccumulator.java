@@ -0,0 +1,311 @@
+package com.leegern.xrocketmq5.core.producer.batch;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.rocketmq.client.apis.message.Message;
+import org.apache.rocketmq.client.apis.producer.Producer;
+import org.apache.rocketmq.client.apis.producer.SendReceipt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 生产者批量发送累加器
+ *          相同话题与标签的消息先进入同一批次, 达到最大条数、最大字节数或等待时间后,
+ *          以流水线方式(Producer.sendAsync)发送整批消息, 每条消息的结果单独回调.
+ */
+public class XRocketMQProducerBatchAccumulator implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerBatchAccumulator.class);
+
+    /* 生产者实例 */
+    private final Producer producer;
+
+    /* 批次最大消息条数 */
+    private final int maxCount;
+
+    /* 批次最大字节数 */
+    private final int maxBytes;
+
+    /* 批次最大等待时间(纳秒) */
+    private final long lingerNanos;
+
+    /* 关闭时等待已发出消息完成的最长时间(毫秒) */
+    private final long closeTimeoutMs;
+
+    /* 已发出但未完成的消息条数 */
+    private final AtomicInteger sending = new AtomicInteger();
+
+    /* 话题 -> 标签 -> 批次 */
+    private final Map<String, Map<String, Batch>> batches = new ConcurrentHashMap<>();
+
+    /* 等待时间检查调度器(首次追加时创建) */
+    private volatile ScheduledExecutorService lingerScheduler;
+
+    /* 是否已关闭 */
+    private volatile boolean closed;
+
+
+    /**
+     * 自定义构造器
+     * @param producer  生产者实例
+     * @param maxCount  批次最大消息条数
+     * @param maxBytes  批次最大字节数
+     * @param lingerMs        批次最大等待时间(毫秒)
+     * @param closeTimeoutMs  关闭时等待已发出消息完成的最长时间(毫秒)
+     */
+    public XRocketMQProducerBatchAccumulator(Producer producer, int maxCount, int maxBytes, long lingerMs, long closeTimeoutMs) {
+        this.producer        =  producer;
+        this.maxCount        =  Math.max(1, maxCount);
+        this.maxBytes        =  Math.max(1, maxBytes);
+        this.lingerNanos     =  TimeUnit.MILLISECONDS.toNanos(Math.max(1, lingerMs));
+        this.closeTimeoutMs  =  Math.max(0, closeTimeoutMs);
+    }
+
+
+    /**
+     * 追加消息到对应批次, 批次已满时由当前线程直接发送
+     * @param topic      话题
+     * @param tag        标签
+     * @param message    rocketmq标准消息
+     * @param completion 单条消息发送结果处理
+     */
+    public void append(String topic, String tag, Message message, BiConsumer<SendReceipt, Throwable> completion) {
+        if (closed) {
+            // 累加器已关闭, 直接发送
+            this.flush(List.of(new Entry(message, message.getBody().remaining(), completion)));
+            return;
+        }
+        this.ensureLingerScheduler();
+
+        Batch batch = this.getBatch(topic, Objects.isNull(tag) ? "" : tag);
+        List<Entry> ready = batch.add(new Entry(message, message.getBody().remaining(), completion));
+        if (Objects.nonNull(ready)) {
+            this.flush(ready);
+        }
+    }
+
+    /**
+     * 发送所有批次中的消息
+     */
+    public void flushAll() {
+        for (Map<String, Batch> tagBatches : batches.values()) {
+            for (Batch batch : tagBatches.values()) {
+                List<Entry> ready = batch.drain();
+                if (Objects.nonNull(ready)) {
+                    this.flush(ready);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭累加器并发送剩余消息, 最多等待closeTimeout直到已发出的消息全部完成
+     *          关闭后追加的消息(包括与关闭并发追加的消息)直接发送
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (Objects.nonNull(lingerScheduler)) {
+            lingerScheduler.shutdownNow();
+        }
+        this.flushAll();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMs);
+        synchronized (this) {
+            try {
+                for (long remaining = deadline - System.nanoTime(); sending.get() > 0 && remaining > 0; remaining = deadline - System.nanoTime()) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (sending.get() > 0) {
+            LOGGER.warn("{} batched message(s) still sending after waiting {}ms on close", sending.get(), closeTimeoutMs);
+        }
+    }
+
+
+    /**
+     * 以流水线方式发送一批消息
+     * @param entries 批次消息
+     */
+    private void flush(List<Entry> entries) {
+        for (Entry entry : entries) {
+            sending.incrementAndGet();
+            try {
+                producer.sendAsync(entry.message).whenComplete((sendReceipt, throwable) -> this.complete(entry, sendReceipt, throwable));
+            } catch (Exception e) {
+                this.complete(entry, null, e);
+            }
+        }
+    }
+
+    /**
+     * 单条消息发送完成, 关闭后最后一条消息完成时唤醒等待关闭的线程
+     * @param entry       批次消息
+     * @param sendReceipt 发送回执
+     * @param throwable   异常
+     */
+    private void complete(Entry entry, SendReceipt sendReceipt, Throwable throwable) {
+        try {
+            entry.completion.accept(sendReceipt, throwable);
+        } finally {
+            if (sending.decrementAndGet() == 0 && closed) {
+                synchronized (this) {
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * 发送已超过等待时间的批次
+     */
+    private void flushExpired() {
+        long now = System.nanoTime();
+        for (Map<String, Batch> tagBatches : batches.values()) {
+            for (Batch batch : tagBatches.values()) {
+                List<Entry> ready = batch.drainIfExpired(now);
+                if (Objects.nonNull(ready)) {
+                    this.flush(ready);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取话题与标签对应的批次
+     * @param topic 话题
+     * @param tag   标签
+     * @return
+     */
+    private Batch getBatch(String topic, String tag) {
+        Map<String, Batch> tagBatches = batches.get(topic);
+        if (Objects.isNull(tagBatches)) {
+            tagBatches = batches.computeIfAbsent(topic, k -> new ConcurrentHashMap<>());
+        }
+        Batch batch = tagBatches.get(tag);
+        if (Objects.isNull(batch)) {
+            batch = tagBatches.computeIfAbsent(tag, k -> new Batch());
+        }
+        return batch;
+    }
+
+    /**
+     * 首次追加时启动等待时间检查调度器
+     */
+    private void ensureLingerScheduler() {
+        if (Objects.isNull(lingerScheduler)) {
+            synchronized (this) {
+                if (Objects.isNull(lingerScheduler) && ! closed) {
+                    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "xrocketmq-batch-linger");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    long period = Math.max(1, lingerNanos / 2);
+                    scheduler.scheduleAtFixedRate(() -> {
+                        try {
+                            this.flushExpired();
+                        } catch (Exception e) {
+                            LOGGER.error("Flush expired producer batch failed:{}", ExceptionUtils.getStackTrace(e));
+                        }
+                    }, period, period, TimeUnit.NANOSECONDS);
+                    lingerScheduler = scheduler;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * 单个话题与标签的消息批次
+     */
+    private class Batch {
+        /* 批次消息 */
+        private List<Entry> entries = new ArrayList<>();
+        /* 批次字节数 */
+        private int bytes;
+        /* 批次首条消息时间 */
+        private long firstAppendNanos;
+
+        /**
+         * 追加消息
+         * @param entry
+         * @return 达到发送条件时返回待发送的批次, 否则返回null
+         */
+        synchronized List<Entry> add(Entry entry) {
+            // 与关闭并发追加: 关闭时已发送过本批次, 直接发送
+            if (closed) {
+                return List.of(entry);
+            }
+            List<Entry> ready = null;
+            // 超过最大字节数则先发送已有批次
+            if (! entries.isEmpty() && bytes + entry.size > maxBytes) {
+                ready = this.take();
+            }
+            if (entries.isEmpty()) {
+                firstAppendNanos = System.nanoTime();
+            }
+            entries.add(entry);
+            bytes += entry.size;
+
+            if (entries.size() >= maxCount || bytes >= maxBytes) {
+                List<Entry> full = this.take();
+                if (Objects.isNull(ready)) {
+                    return full;
+                }
+                ready.addAll(full);
+            }
+            return ready;
+        }
+
+        synchronized List<Entry> drain() {
+            return entries.isEmpty() ? null : this.take();
+        }
+
+        synchronized List<Entry> drainIfExpired(long now) {
+            if (entries.isEmpty() || now - firstAppendNanos < lingerNanos) {
+                return null;
+            }
+            return this.take();
+        }
+
+        private List<Entry> take() {
+            List<Entry> taken = entries;
+            entries = new ArrayList<>(Math.min(maxCount, 64));
+            bytes = 0;
+            return taken;
+        }
+    }
+
+    /**
+     * 批次中的单条消息
+     */
+    private static class Entry {
+        /* rocketmq标准消息 */
+        final Message message;
+        /* 消息体大小 */
+        final int size;
+        /* 发送结果处理 */
+        final BiConsumer<SendReceipt, Throwable> completion;
+
+        Entry(Message message, int size, BiConsumer<SendReceipt, Throwable> completion) {
+            this.message     =  message;
+            this.size        =  size;
+            this.completion  =  completion;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.leegern.xrocketmq5.core.producer.flow;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步发送在途窗口管理
+ *          按话题配置的窗口独立计数, 其余话题共享全局窗口; 未配置上限时不创建窗口(不做限制)
+ */
+public class XRocketMQProducerInFlightControl {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerInFlightControl.class);
+
+    /* 全局窗口(未限制时为空) */
+    private final XRocketMQProducerInFlightWindow globalWindow;
+
+    /* 话题窗口(话题未限制时值为空) */
+    private final Map<String, XRocketMQProducerInFlightWindow> topicWindows;
+
+    /* 关闭时等待在途消息完成的最长时间(毫秒) */
+    private final long closeTimeoutMs;
+
+
+    /**
+     * 自定义构造器
+     * @param producerProperties 生产者属性配置
+     */
+    public XRocketMQProducerInFlightControl(XRocketMQProperties.XRocketMQProducerProperties producerProperties) {
+        this.globalWindow = createWindow(XRocketMQConstants.IN_FLIGHT_GLOBAL_WINDOW, producerProperties.getInFlight());
+
+        Map<String, XRocketMQProducerInFlightWindow> windows = new HashMap<>();
+        if (! CollectionUtils.isEmpty(producerProperties.getTopicInFlight())) {
+            producerProperties.getTopicInFlight().forEach((topic, properties) -> windows.put(topic, createWindow(topic, properties)));
+        }
+        this.topicWindows = windows;
+        this.closeTimeoutMs = Objects.isNull(producerProperties.getSendMsgTimeout())
+                ? XRocketMQConstants.SEND_MSG_TIMEOUT : producerProperties.getSendMsgTimeout();
+    }
+
+
+    /**
+     * 获取话题的在途窗口
+     * @param topic 话题
+     * @return 未限制时返回null
+     */
+    public XRocketMQProducerInFlightWindow getWindow(String topic) {
+        return topicWindows.isEmpty() ? globalWindow : topicWindows.getOrDefault(topic, globalWindow);
+    }
+
+    /**
+     * 获取所有在途窗口
+     * @return
+     */
+    public List<XRocketMQProducerInFlightWindow> getWindows() {
+        List<XRocketMQProducerInFlightWindow> windows = new ArrayList<>();
+        if (Objects.nonNull(globalWindow)) {
+            windows.add(globalWindow);
+        }
+        topicWindows.values().stream().filter(Objects::nonNull).forEach(windows::add);
+        return Collections.unmodifiableList(windows);
+    }
+
+    /**
+     * 关闭生产者前调用: 最多等待sendMsgTimeout直到所有窗口的在途消息完成、本地缓冲区发送完毕,
+     *          超时后本地缓冲区中仍未发送的消息按失败处理(执行回调及返回的future)
+     */
+    public void close() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMs);
+        for (XRocketMQProducerInFlightWindow window : this.getWindows()) {
+            if (window.awaitIdle(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                continue;
+            }
+            int rejected = window.rejectSpilled(new XRocketMQException(
+                    String.format("Producer is closing before spilled message of in-flight window '%s' is sent", window.getName())));
+            LOGGER.warn("In-flight window '{}' is not idle after waiting {}ms on close, {} message(s) in flight, {} spilled message(s) failed",
+                    window.getName(), closeTimeoutMs, window.getInFlightRequests(), rejected);
+        }
+    }
+
+
+    /**
+     * 创建在途窗口
+     * @param name       窗口名称
+     * @param properties 窗口配置
+     * @return 未配置上限时返回null
+     */
+    private static XRocketMQProducerInFlightWindow createWindow(String name, XRocketMQProperties.XRocketMQInFlightProperties properties) {
+        if (Objects.isNull(properties)) {
+            return null;
+        }
+        int  maxRequests = Objects.isNull(properties.getMaxRequests()) ? 0 : properties.getMaxRequests();
+        long maxBytes    = Objects.isNull(properties.getMaxBytes()) ? 0 : properties.getMaxBytes();
+        if (maxRequests <= 0 && maxBytes <= 0) {
+            return null;
+        }
+        return new XRocketMQProducerInFlightWindow(name, maxRequests, maxBytes, properties.getOverflowPolicy(),
+                Objects.isNull(properties.getBlockTimeout()) ? XRocketMQConstants.IN_FLIGHT_BLOCK_TIMEOUT : properties.getBlockTimeout(),
+                Objects.isNull(properties.getSpillCapacity()) ? XRocketMQConstants.IN_FLIGHT_SPILL_CAPACITY : properties.getSpillCapacity());
+    }
+}
@@ -0,0 +1,44 @@
+package com.leegern.xrocketmq5.core.producer.flow;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 异步发送在途窗口指标
+ *          xrocketmq.producer.inflight.requests / bytes / spilled, 标签window为话题或global
+ */
+public class XRocketMQProducerInFlightMeterBinder implements MeterBinder {
+
+    /* 在途窗口管理 */
+    private final XRocketMQProducerInFlightControl inFlightControl;
+
+
+    /**
+     * 自定义构造器
+     * @param inFlightControl 在途窗口管理
+     */
+    public XRocketMQProducerInFlightMeterBinder(XRocketMQProducerInFlightControl inFlightControl) {
+        this.inFlightControl = inFlightControl;
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (XRocketMQProducerInFlightWindow window : inFlightControl.getWindows()) {
+            Gauge.builder("xrocketmq.producer.inflight.requests", window, XRocketMQProducerInFlightWindow::getInFlightRequests)
+                    .description("In-flight async send requests of producer")
+                    .tag("window", window.getName())
+                    .register(registry);
+            Gauge.builder("xrocketmq.producer.inflight.bytes", window, XRocketMQProducerInFlightWindow::getInFlightBytes)
+                    .description("In-flight async send bytes of producer")
+                    .baseUnit("bytes")
+                    .tag("window", window.getName())
+                    .register(registry);
+            Gauge.builder("xrocketmq.producer.inflight.spilled", window, XRocketMQProducerInFlightWindow::getSpilledCount)
+                    .description("Messages spilled to local buffer while the in-flight window is full")
+                    .tag("window", window.getName())
+                    .register(registry);
+        }
+    }
+}
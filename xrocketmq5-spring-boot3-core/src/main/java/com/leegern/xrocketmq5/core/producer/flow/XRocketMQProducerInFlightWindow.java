@@ -0,0 +1,338 @@
+package com.leegern.xrocketmq5.core.producer.flow;
+
+import com.leegern.xrocketmq5.core.enums.InFlightOverflowPolicy;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 异步发送在途窗口
+ *          限制已发出但未完成的消息条数与字节数, 消息发送完成(包括失败)后释放窗口.
+ *          窗口已满时按策略阻塞、立即失败或暂存到本地有界缓冲区.
+ */
+public class XRocketMQProducerInFlightWindow {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerInFlightWindow.class);
+
+    /* 窗口名称(话题或global) */
+    private final String name;
+
+    /* 最大在途消息条数(小于等于0表示不限制) */
+    private final int maxRequests;
+
+    /* 最大在途消息字节数(小于等于0表示不限制) */
+    private final long maxBytes;
+
+    /* 窗口已满时的处理策略 */
+    private final InFlightOverflowPolicy overflowPolicy;
+
+    /* 阻塞策略的最大等待时间(纳秒) */
+    private final long blockTimeoutNanos;
+
+    /* 本地缓冲区最大消息条数 */
+    private final int spillCapacity;
+
+    /* 在途消息条数 */
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /* 在途消息字节数 */
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    /* 阻塞等待及本地缓冲区的锁 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* 窗口释放条件 */
+    private final Condition released = lock.newCondition();
+
+    /* 阻塞等待的线程数 */
+    private volatile int waiters;
+
+    /* 本地缓冲区(窗口释放后按顺序发送) */
+    private final ArrayDeque<Spilled> spilled = new ArrayDeque<>();
+
+    /* 本地缓冲区消息条数 */
+    private volatile int spilledCount;
+
+    /* 是否有线程正在发送本地缓冲区中的消息(持有锁时读写) */
+    private boolean draining;
+
+    /**
+     * 自定义构造器
+     * @param name            窗口名称
+     * @param maxRequests     最大在途消息条数
+     * @param maxBytes        最大在途消息字节数
+     * @param overflowPolicy  窗口已满时的处理策略
+     * @param blockTimeoutMs  阻塞策略的最大等待时间(毫秒)
+     * @param spillCapacity   本地缓冲区最大消息条数
+     */
+    public XRocketMQProducerInFlightWindow(String name, int maxRequests, long maxBytes, InFlightOverflowPolicy overflowPolicy,
+                                           long blockTimeoutMs, int spillCapacity) {
+        this.name               =  name;
+        this.maxRequests        =  maxRequests;
+        this.maxBytes           =  maxBytes;
+        this.overflowPolicy     =  Objects.isNull(overflowPolicy) ? InFlightOverflowPolicy.BLOCK : overflowPolicy;
+        this.blockTimeoutNanos  =  TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeoutMs));
+        this.spillCapacity      =  Math.max(0, spillCapacity);
+    }
+
+
+    /**
+     * 申请发送许可
+     *          阻塞策略下最多等待blockTimeout; 暂存策略下缓冲区非空时直接返回false, 保证发送顺序
+     * @param size 消息字节数
+     * @return 是否获得许可
+     */
+    public boolean acquire(int size) {
+        if (overflowPolicy == InFlightOverflowPolicy.SPILL && spilledCount > 0) {
+            return false;
+        }
+        if (this.tryAcquireNow(size)) {
+            return true;
+        }
+        if (overflowPolicy != InFlightOverflowPolicy.BLOCK || blockTimeoutNanos <= 0) {
+            return false;
+        }
+        lock.lock();
+        try {
+            waiters++;
+            long nanos = blockTimeoutNanos;
+            while (! this.tryAcquireNow(size)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiters--;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 暂存到本地缓冲区, 窗口释放后获得许可并执行发送任务
+     * @param size      消息字节数
+     * @param task      发送任务(执行时已获得许可)
+     * @param rejection 关闭时仍未发送的处理(未获得许可)
+     * @return 非暂存策略或缓冲区已满时返回false
+     */
+    public boolean spill(int size, Runnable task, Consumer<Throwable> rejection) {
+        if (overflowPolicy != InFlightOverflowPolicy.SPILL) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (spilled.size() >= spillCapacity) {
+                return false;
+            }
+            spilled.addLast(new Spilled(size, task, rejection));
+            spilledCount = spilled.size();
+        } finally {
+            lock.unlock();
+        }
+        // 入队期间窗口可能已释放
+        this.drainSpilled();
+        return true;
+    }
+
+    /**
+     * 释放发送许可
+     * @param size 消息字节数
+     */
+    public void release(int size) {
+        inFlightRequests.decrementAndGet();
+        inFlightBytes.addAndGet(-size);
+        if (spilledCount > 0) {
+            this.drainSpilled();
+        }
+        this.signalWaiters();
+    }
+
+    /**
+     * 等待在途消息全部完成且本地缓冲区为空
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 超时返回false
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            waiters++;
+            while (inFlightRequests.get() > 0 || ! spilled.isEmpty()) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiters--;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清空本地缓冲区, 未发送的消息按失败处理
+     * @param cause 失败原因
+     * @return 清空的消息条数
+     */
+    public int rejectSpilled(Throwable cause) {
+        List<Spilled> rejected;
+        lock.lock();
+        try {
+            rejected = new ArrayList<>(spilled);
+            spilled.clear();
+            spilledCount = 0;
+        } finally {
+            lock.unlock();
+        }
+        for (Spilled next : rejected) {
+            try {
+                next.rejection.accept(cause);
+            } catch (Throwable e) {
+                LOGGER.error("Reject spilled message of in-flight window '{}' failed:{}", name, ExceptionUtils.getStackTrace(e));
+            }
+        }
+        return rejected.size();
+    }
+
+
+    /**
+     * 尝试立即获得许可
+     * @param size 消息字节数
+     * @return
+     */
+    private boolean tryAcquireNow(int size) {
+        if (maxRequests > 0) {
+            int current;
+            do {
+                if ((current = inFlightRequests.get()) >= maxRequests) {
+                    return false;
+                }
+            } while (! inFlightRequests.compareAndSet(current, current + 1));
+        } else {
+            inFlightRequests.incrementAndGet();
+        }
+        long bytes = inFlightBytes.addAndGet(size);
+        // 窗口为空时放行单条超过上限的消息, 避免永远无法发送
+        if (maxBytes > 0 && bytes > maxBytes && bytes != size) {
+            inFlightBytes.addAndGet(-size);
+            inFlightRequests.decrementAndGet();
+            this.signalWaiters();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按顺序发送本地缓冲区中已获得许可的消息
+     *          同一时间只有一个线程发送, 保证发送顺序; 其他线程释放的窗口在锁内可见, 由正在发送的线程继续获取许可
+     */
+    private void drainSpilled() {
+        lock.lock();
+        try {
+            if (draining) {
+                return;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        for (;;) {
+            Spilled next;
+            lock.lock();
+            try {
+                next = spilled.peekFirst();
+                if (Objects.isNull(next) || ! this.tryAcquireNow(next.size)) {
+                    draining = false;
+                    return;
+                }
+                spilled.pollFirst();
+                spilledCount = spilled.size();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                next.task.run();
+            } catch (Throwable e) {
+                LOGGER.error("Send spilled message of in-flight window '{}' failed:{}", name, ExceptionUtils.getStackTrace(e));
+            }
+        }
+    }
+
+    /**
+     * 唤醒阻塞等待的线程
+     */
+    private void signalWaiters() {
+        if (waiters > 0) {
+            lock.lock();
+            try {
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public int getSpilledCount() {
+        return spilledCount;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+
+    /**
+     * 本地缓冲区中的消息
+     */
+    private static class Spilled {
+        /* 消息字节数 */
+        final int size;
+        /* 发送任务 */
+        final Runnable task;
+        /* 关闭时仍未发送的处理 */
+        final Consumer<Throwable> rejection;
+
+        Spilled(int size, Runnable task, Consumer<Throwable> rejection) {
+            this.size       =  size;
+            this.task       =  task;
+            this.rejection  =  rejection;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.leegern.xrocketmq5.core.producer.handler;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
 import com.leegern.xrocketmq5.core.XRocketMQException;
-import com.leegern.xrocketmq5.core.json.JacksonProvider;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodec;
+import com.leegern.xrocketmq5.core.metrics.XRocketMQSendRecorder;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerCallback;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerInterceptor;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerMessage;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerResponse;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerSendPlan;
+import com.leegern.xrocketmq5.core.producer.batch.XRocketMQProducerBatchAccumulator;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightWindow;
+import com.leegern.xrocketmq5.core.producer.journal.XRocketMQProducerJournal;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.rocketmq.client.apis.ClientServiceProvider;
@@ -20,12 +24,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 /**
  * 生产者发送消息的执行器抽象类
@@ -35,64 +39,88 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerBaseHandler.class);
 
-    /* 生产者实例 */
-    private Producer producer;
-
-    /* 发送消息前后的拦截器 */
-    private List<XRocketMQProducerInterceptor> interceptors;
-
-    /* 返回结果回调 */
-    private XRocketMQProducerCallback responseCallback;
-
-    /* json序列化 */
-    private ObjectMapper json;
+    /* 执行器上下文(生产者实例、拦截器、批量累加器、在途窗口) */
+    private final XRocketMQProducerContext context;
 
 
     /**
      * 自定义构造器
+     * @param context 执行器上下文
      */
-    public XRocketMQProducerBaseHandler() {
-        // JSON实例化
-        this.json = JacksonProvider.getInstance().getJson();
+    public XRocketMQProducerBaseHandler(XRocketMQProducerContext context) {
+        this.context = context;
     }
 
 
     @Override
-    public <T> void sendMessage(String topic, String tag, Boolean enableAsync, XRocketMQProducerParam<T> requestParam) {
+    public <T> CompletableFuture<XRocketMQProducerResponse> sendMessage(XRocketMQProducerSendPlan sendPlan, XRocketMQProducerParam<T> requestParam,
+                                XRocketMQProducerCallback responseCallback) {
+        String topic = sendPlan.getTopicName();
 
         // 构建平台内部消息实体
-        Message dwMessage = this.buildRocketMessage(topic, tag, requestParam);
+        Message dwMessage = this.buildRocketMessage(topic, sendPlan.getTagExpress(), requestParam, sendPlan.getCodec());
 
         // 执行消息发送前的拦截器
         dwMessage = this.invokeBefore(topic, dwMessage);
 
-        // 发送消息
-        this.doSend(enableAsync, topic, dwMessage);
+        XRocketMQSendRecorder recorder = sendPlan.getSendRecorder();
+        if (recorder == XRocketMQSendRecorder.NOOP) {
+            // 发送消息
+            return this.doSend(sendPlan, dwMessage, requestParam, responseCallback);
+        }
 
+        // 发送消息并记录指标
+        int payloadBytes = dwMessage.getBody().remaining();
+        long start = System.nanoTime();
+        CompletableFuture<XRocketMQProducerResponse> responseFuture;
+        try {
+            responseFuture = this.doSend(sendPlan, dwMessage, requestParam, responseCallback);
+        } catch (RuntimeException e) {
+            recorder.record(System.nanoTime() - start, payloadBytes, false);
+            throw e;
+        }
+        if (responseFuture.isDone()) {
+            // 同步发送在此记录, 不注册回调
+            XRocketMQProducerResponse response = responseFuture.getNow(null);
+            recorder.record(System.nanoTime() - start, payloadBytes, Objects.nonNull(response) && Boolean.TRUE.equals(response.getSuccess()));
+        }
+        else {
+            responseFuture.whenComplete((response, throwable) -> recorder.record(System.nanoTime() - start, payloadBytes,
+                    Objects.isNull(throwable) && Objects.nonNull(response) && Boolean.TRUE.equals(response.getSuccess())));
+        }
+        return responseFuture;
     }
 
     /**
      * 执行发送消息
-     * @param enableAsync 异步发送标识
-     * @param topic       话题
-     * @param dwMessage   平台内部消息
+     * @param sendPlan         发送计划
+     * @param dwMessage        平台内部消息
+     * @param requestParam     消息参数
+     * @param responseCallback 响应结果回调
+     * @return 发送结果future
      */
-    protected void doSend(Boolean enableAsync, String topic, Message dwMessage) {
-        if (enableAsync) {
+    protected <T> CompletableFuture<XRocketMQProducerResponse> doSend(XRocketMQProducerSendPlan sendPlan, Message dwMessage, XRocketMQProducerParam<T> requestParam,
+                              XRocketMQProducerCallback responseCallback) {
+        if (sendPlan.isEnableBatch()) {
+            // 批量发送
+            return this.sendBatch(sendPlan.getTopicName(), sendPlan.getTagExpress(), dwMessage, responseCallback);
+        } else if (sendPlan.isEnableAsync()) {
             // 异步发送
-            this.sendAsync(topic, dwMessage);
+            return this.sendAsync(sendPlan.getTopicName(), dwMessage, responseCallback);
         } else {
             // 同步发送
-            this.sendSync(topic, dwMessage);
+            return CompletableFuture.completedFuture(this.sendSync(sendPlan.getTopicName(), dwMessage, responseCallback));
         }
     }
 
     /**
      * 同步发送
-     * @param topic     话题
-     * @param dwMessage 平台内部消息
+     * @param topic            话题
+     * @param dwMessage        平台内部消息
+     * @param responseCallback 响应结果回调
+     * @return 响应结果
      */
-    protected void sendSync(String topic, Message dwMessage) {
+    protected XRocketMQProducerResponse sendSync(String topic, Message dwMessage, XRocketMQProducerCallback responseCallback) {
         SendReceipt sendReceipt = null;
         Exception   exception   = null;
 
@@ -100,7 +128,7 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
             // 转换成rocketmq标准消息
             Message message = this.convertMessage(dwMessage);
             // 同步发送
-            sendReceipt = producer.send(message);
+            sendReceipt = this.getProducer().send(message);
         } catch (Exception e) {
             exception = e;
         } finally {
@@ -113,33 +141,143 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
         }
         // 组装响应结果
         XRocketMQProducerResponse response = this.populateProducerResponse(sendReceipt, dwMessage);
+        // 发送失败时写入本地日志
+        this.appendJournal(response, dwMessage);
         // 执行返回结果回调方法
-        this.doResponseCallback(response, exception);
+        this.doResponseCallback(responseCallback, response, exception);
+        return response;
     }
 
     /**
      * 异步发送
-     * @param topic     话题
-     * @param dwMessage 平台内部消息
+     * @param topic            话题
+     * @param dwMessage        平台内部消息
+     * @param responseCallback 响应结果回调
+     * @return 发送结果future
      */
-    protected void sendAsync(String topic, Message dwMessage) {
+    protected CompletableFuture<XRocketMQProducerResponse> sendAsync(String topic, Message dwMessage, XRocketMQProducerCallback responseCallback) {
         // 转换消息
         Message message = this.convertMessage(dwMessage);
-        // 异步发送
-        CompletableFuture<SendReceipt> resultFuture = producer.sendAsync(message);
-        // 处理结果
-        resultFuture.whenComplete(((sendReceipt, throwable) -> {
-            try {
-                // 发送消息之后拦截器
-                this.invokeAfter(topic, dwMessage, throwable);
-            } catch (Exception e) {
-                LOGGER.error("Execute producer 'invokeAfter' failed after async sending:{}", ExceptionUtils.getStackTrace(e));
-            }
-            // 组装响应结果
-            XRocketMQProducerResponse response = populateProducerResponse(sendReceipt, dwMessage);
-            // 执行返回结果回调方法
-            doResponseCallback(response, throwable);
-        }));
+        // 在途窗口内异步发送
+        return this.sendWithinWindow(topic, message, dwMessage, responseCallback,
+                (msg, completion) -> this.getProducer().sendAsync(msg).whenComplete(completion));
+    }
+
+    /**
+     * 批量发送(进入累加器, 由累加器以流水线方式异步发送)
+     * @param topic            话题
+     * @param tag              标签
+     * @param dwMessage        平台内部消息
+     * @param responseCallback 响应结果回调
+     * @return 发送结果future
+     */
+    protected CompletableFuture<XRocketMQProducerResponse> sendBatch(String topic, String tag, Message dwMessage, XRocketMQProducerCallback responseCallback) {
+        XRocketMQProducerBatchAccumulator accumulator = context.getBatchAccumulator();
+        if (Objects.isNull(accumulator)) {
+            return this.sendAsync(topic, dwMessage, responseCallback);
+        }
+        // 转换消息
+        Message message = this.convertMessage(dwMessage);
+        // 在途窗口内进入批次(批次中等待发送的消息同样占用窗口)
+        return this.sendWithinWindow(topic, message, dwMessage, responseCallback,
+                (msg, completion) -> accumulator.append(topic, tag, msg, completion));
+    }
+
+    /**
+     * 在话题的在途窗口内异步发送, 发送完成(包括失败)后释放窗口
+     *          窗口已满时按策略阻塞、立即失败或暂存到本地缓冲区
+     * @param topic            话题
+     * @param message          rocketmq标准消息
+     * @param dwMessage        平台内部消息
+     * @param responseCallback 响应结果回调
+     * @param sender           异步发送动作(消息, 发送结果处理)
+     * @return 发送结果future
+     */
+    private CompletableFuture<XRocketMQProducerResponse> sendWithinWindow(String topic, Message message, Message dwMessage,
+                                                                          XRocketMQProducerCallback responseCallback,
+                                                                          BiConsumer<Message, BiConsumer<SendReceipt, Throwable>> sender) {
+        CompletableFuture<XRocketMQProducerResponse> responseFuture = new CompletableFuture<>();
+        XRocketMQProducerInFlightWindow window = context.getInFlightWindow(topic);
+        if (Objects.isNull(window)) {
+            this.dispatch(sender, message, (sendReceipt, throwable) ->
+                    this.completeResponse(responseFuture, topic, dwMessage, responseCallback, sendReceipt, throwable));
+            return responseFuture;
+        }
+
+        int size = message.getBody().remaining();
+        Runnable sendTask = () -> this.dispatch(sender, message, (sendReceipt, throwable) -> {
+            window.release(size);
+            this.completeResponse(responseFuture, topic, dwMessage, responseCallback, sendReceipt, throwable);
+        });
+        if (window.acquire(size)) {
+            sendTask.run();
+        }
+        else if (! window.spill(size, sendTask, throwable ->
+                this.completeResponse(responseFuture, topic, dwMessage, responseCallback, null, throwable))) {
+            // 窗口已满
+            this.completeResponse(responseFuture, topic, dwMessage, responseCallback, null,
+                    new XRocketMQException(String.format("In-flight window '%s' is full when sending message to topic '%s'", window.getName(), topic)));
+        }
+        return responseFuture;
+    }
+
+    /**
+     * 执行异步发送动作, 同步抛出的异常同样交给发送结果处理
+     * @param sender     异步发送动作
+     * @param message    rocketmq标准消息
+     * @param completion 发送结果处理
+     */
+    private void dispatch(BiConsumer<Message, BiConsumer<SendReceipt, Throwable>> sender, Message message,
+                          BiConsumer<SendReceipt, Throwable> completion) {
+        try {
+            sender.accept(message, completion);
+        } catch (Exception e) {
+            completion.accept(null, e);
+        }
+    }
+
+    /**
+     * 发送完成后处理并完成发送结果future
+     * @param responseFuture   发送结果future
+     * @param topic            话题
+     * @param dwMessage        平台内部消息
+     * @param responseCallback 响应结果回调
+     * @param sendReceipt      发送回执
+     * @param throwable        异常
+     */
+    private void completeResponse(CompletableFuture<XRocketMQProducerResponse> responseFuture, String topic, Message dwMessage,
+                                  XRocketMQProducerCallback responseCallback, SendReceipt sendReceipt, Throwable throwable) {
+        try {
+            responseFuture.complete(this.onSendComplete(topic, dwMessage, responseCallback, sendReceipt, throwable));
+        } catch (Throwable e) {
+            responseFuture.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 异步发送完成后处理: 执行发送之后拦截器及结果回调
+     * @param topic            话题
+     * @param dwMessage        平台内部消息
+     * @param responseCallback 响应结果回调
+     * @param sendReceipt      发送回执
+     * @param throwable        异常
+     * @return 响应结果
+     */
+    protected XRocketMQProducerResponse onSendComplete(String topic, Message dwMessage, XRocketMQProducerCallback responseCallback,
+                                  SendReceipt sendReceipt, Throwable throwable) {
+        try {
+            // 发送消息之后拦截器
+            this.invokeAfter(topic, dwMessage, throwable);
+        } catch (Exception e) {
+            LOGGER.error("Execute producer 'invokeAfter' failed after async sending:{}", ExceptionUtils.getStackTrace(e));
+        }
+        // 组装响应结果
+        XRocketMQProducerResponse response = this.populateProducerResponse(sendReceipt, dwMessage);
+        // 发送失败(包括在途窗口已满)时写入本地日志
+        this.appendJournal(response, dwMessage);
+        // 执行返回结果回调方法
+        this.doResponseCallback(responseCallback, response, throwable);
+        return response;
     }
 
     /**
@@ -147,11 +285,12 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
      * @param topic          话题
      * @param tag            标签
      * @param requestParam   请求参数
+     * @param codec          消息编解码器
      * @return
      * @param <T>
      */
-    protected <T> Message buildRocketMessage(String topic, String tag, XRocketMQProducerParam<T> requestParam) {
-        return new XRocketMQProducerMessage(topic, parseJson(requestParam.getMsgBody()), tag, List.of(requestParam.getBusinessId()), null, null, new HashMap<>());
+    protected <T> Message buildRocketMessage(String topic, String tag, XRocketMQProducerParam<T> requestParam, XRocketMQMessageCodec codec) {
+        return new XRocketMQProducerMessage(topic, encode(codec, requestParam.getMsgBody()), tag, List.of(requestParam.getBusinessId()), null, null, newProperties(codec));
     }
 
     /**
@@ -185,16 +324,24 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
 
 
     /**
-     * 消息对象json序列化
-     * @param msgBody
+     * 编码消息对象
+     * @param codec   消息编解码器
+     * @param msgBody 消息对象
      * @return
      */
-    protected byte[] parseJson(Object msgBody) {
-        try {
-            return this.json.writeValueAsString(msgBody).getBytes(StandardCharsets.UTF_8);
-        } catch (JsonProcessingException e) {
-            throw new XRocketMQException("Json serialization error", e);
-        }
+    protected byte[] encode(XRocketMQMessageCodec codec, Object msgBody) {
+        return codec.encode(msgBody);
+    }
+
+    /**
+     * 创建消息属性组并记录编解码器名称, 消费者据此选择解码器
+     * @param codec 消息编解码器
+     * @return
+     */
+    protected Map<String, String> newProperties(XRocketMQMessageCodec codec) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(XRocketMQConstants.CODEC_PROPERTY, codec.getName());
+        return properties;
     }
 
     /**
@@ -217,12 +364,25 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
         return response;
     }
 
+    /**
+     * 发送失败的消息写入本地日志, 由后台线程在broker恢复后重新发送
+     * @param response  响应结果
+     * @param dwMessage 平台内部消息(已执行发送前拦截器)
+     */
+    protected void appendJournal(XRocketMQProducerResponse response, Message dwMessage) {
+        XRocketMQProducerJournal journal = context.getJournal();
+        if (Objects.nonNull(journal) && ! Boolean.TRUE.equals(response.getSuccess())) {
+            response.setJournaled(journal.append(dwMessage));
+        }
+    }
+
     /**
      * 执行返回结果回调方法
-     * @param response  返回结果
-     * @param exception 异常实体
+     * @param responseCallback 响应结果回调
+     * @param response         返回结果
+     * @param exception        异常实体
      */
-    protected void doResponseCallback(XRocketMQProducerResponse response, Throwable exception) {
+    protected void doResponseCallback(XRocketMQProducerCallback responseCallback, XRocketMQProducerResponse response, Throwable exception) {
         if (Objects.nonNull(exception)) {
             LOGGER.warn("Send message to rocketmq error: {}", ExceptionUtils.getStackTrace(exception));
         }
@@ -245,12 +405,8 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
      * @param ex    异常
      */
     protected void invokeAfter(String topic, Message msg, Throwable ex) {
-        if (! CollectionUtils.isEmpty(this.interceptors)) {
-            for (XRocketMQProducerInterceptor interceptor : this.interceptors) {
-                if (CollectionUtils.isEmpty(interceptor.matchTopics()) || interceptor.matchTopics().contains(topic)) {
-                    interceptor.after(msg, ex);
-                }
-            }
+        for (XRocketMQProducerInterceptor interceptor : context.getInterceptors(topic)) {
+            interceptor.after(msg, ex);
         }
     }
 
@@ -259,36 +415,7 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
      * @return
      */
     public Producer getProducer() {
-        return producer;
-    }
-
-    /**
-     * 'producer' of setter
-     * @param producer 生产者实例
-     */
-    @Override
-    public void setProducer(Producer producer) {
-        this.producer = producer;
-    }
-
-    /**
-     * 'interceptors' of setter
-     * @param interceptors
-     */
-    @Override
-    public void setInterceptors(List<XRocketMQProducerInterceptor> interceptors) {
-        this.interceptors = interceptors;
-        // 拦截器排序
-        this.interceptors.sort(Comparator.comparingInt(XRocketMQProducerInterceptor::getOrder));
-    }
-
-    /**
-     * 'responseCallback' of setter
-     * @param responseCallback
-     */
-    @Override
-    public void setResponseCallback(XRocketMQProducerCallback responseCallback) {
-        this.responseCallback = responseCallback;
+        return context.getProducer();
     }
 
 
@@ -299,12 +426,8 @@ public abstract class XRocketMQProducerBaseHandler implements XRocketMQProducerH
      * @return
      */
     private Message invokeBefore(String topic, Message msg) {
-        if (! CollectionUtils.isEmpty(this.interceptors)) {
-            for (XRocketMQProducerInterceptor interceptor : this.interceptors) {
-                if (CollectionUtils.isEmpty(interceptor.matchTopics()) || interceptor.matchTopics().contains(topic)) {
-                    msg = interceptor.before(msg);
-                }
-            }
+        for (XRocketMQProducerInterceptor interceptor : context.getInterceptors(topic)) {
+            msg = interceptor.before(msg);
         }
         return msg;
     }
@@ -0,0 +1,203 @@
+package com.leegern.xrocketmq5.core.producer.handler;
+
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerInterceptor;
+import com.leegern.xrocketmq5.core.producer.batch.XRocketMQProducerBatchAccumulator;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightControl;
+import com.leegern.xrocketmq5.core.producer.flow.XRocketMQProducerInFlightWindow;
+import com.leegern.xrocketmq5.core.producer.journal.XRocketMQProducerJournal;
+import org.apache.rocketmq.client.apis.producer.Producer;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消息执行器的不可变上下文
+ *          包括生产者实例、已排序的拦截器、批量累加器、在途窗口、本地日志等, 同一(生产者, 消息类型)的执行器共享且线程安全;
+ *          拦截器链按话题解析一次(匹配话题、排序)后缓存为只读数组, 发送消息时直接遍历数组
+ */
+public class XRocketMQProducerContext {
+
+    /* 空拦截器链 */
+    private static final XRocketMQProducerInterceptor[] NO_INTERCEPTORS = new XRocketMQProducerInterceptor[0];
+
+    /* 生产者实例 */
+    private final Producer producer;
+
+    /* 发送消息前后的拦截器(已排序, 只读) */
+    private final List<XRocketMQProducerInterceptor> interceptors;
+
+    /* 话题 -> 拦截器链 */
+    private final Map<String, XRocketMQProducerInterceptor[]> topicInterceptors = new ConcurrentHashMap<>();
+
+    /* 批量发送累加器(事务生产者为空) */
+    private final XRocketMQProducerBatchAccumulator batchAccumulator;
+
+    /* 异步发送在途窗口管理(未配置时为空) */
+    private final XRocketMQProducerInFlightControl inFlightControl;
+
+    /* 发送失败消息的本地日志(未开启时为空) */
+    private final XRocketMQProducerJournal journal;
+
+
+    /**
+     * 私有化构造器
+     * @param builder
+     */
+    private XRocketMQProducerContext(Builder builder) {
+        this.producer          =  builder.producer;
+        this.interceptors      =  sortInterceptors(builder.interceptors);
+        this.batchAccumulator  =  builder.batchAccumulator;
+        this.inFlightControl   =  builder.inFlightControl;
+        this.journal           =  builder.journal;
+    }
+
+
+    /**
+     * builder实例
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * 'producer' of getter
+     * @return
+     */
+    public Producer getProducer() {
+        return producer;
+    }
+
+    /**
+     * 'interceptors' of getter
+     * @return
+     */
+    public List<XRocketMQProducerInterceptor> getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * 获取话题的拦截器链(首次使用时解析, 之后直接返回缓存)
+     * @param topic 话题
+     * @return 已排序的拦截器数组, 调用方不可修改
+     */
+    public XRocketMQProducerInterceptor[] getInterceptors(String topic) {
+        if (interceptors.isEmpty()) {
+            return NO_INTERCEPTORS;
+        }
+        XRocketMQProducerInterceptor[] chain = topicInterceptors.get(topic);
+        if (Objects.isNull(chain)) {
+            chain = topicInterceptors.computeIfAbsent(topic, this::resolveInterceptors);
+        }
+        return chain;
+    }
+
+
+    /**
+     * 'batchAccumulator' of getter
+     * @return
+     */
+    public XRocketMQProducerBatchAccumulator getBatchAccumulator() {
+        return batchAccumulator;
+    }
+
+
+    /**
+     * 获取话题的异步发送在途窗口
+     * @param topic 话题
+     * @return 未限制时返回null
+     */
+    public XRocketMQProducerInFlightWindow getInFlightWindow(String topic) {
+        return Objects.isNull(inFlightControl) ? null : inFlightControl.getWindow(topic);
+    }
+
+
+    /**
+     * 'journal' of getter
+     * @return 未开启时返回null
+     */
+    public XRocketMQProducerJournal getJournal() {
+        return journal;
+    }
+
+
+    /**
+     * 解析话题匹配的拦截器(matchTopics只在此时调用)
+     * @param topic 话题
+     * @return
+     */
+    private XRocketMQProducerInterceptor[] resolveInterceptors(String topic) {
+        List<XRocketMQProducerInterceptor> matched = new ArrayList<>(interceptors.size());
+        for (XRocketMQProducerInterceptor interceptor : interceptors) {
+            List<String> matchTopics = interceptor.matchTopics();
+            if (CollectionUtils.isEmpty(matchTopics) || matchTopics.contains(topic)) {
+                matched.add(interceptor);
+            }
+        }
+        return matched.isEmpty() ? NO_INTERCEPTORS : matched.toArray(NO_INTERCEPTORS);
+    }
+
+    /**
+     * 拷贝并排序拦截器, 不修改调用方的集合
+     * @param interceptors
+     * @return
+     */
+    private static List<XRocketMQProducerInterceptor> sortInterceptors(List<XRocketMQProducerInterceptor> interceptors) {
+        if (CollectionUtils.isEmpty(interceptors)) {
+            return Collections.emptyList();
+        }
+        List<XRocketMQProducerInterceptor> sorted = new ArrayList<>(interceptors);
+        sorted.sort(Comparator.comparingInt(XRocketMQProducerInterceptor::getOrder));
+        return Collections.unmodifiableList(sorted);
+    }
+
+
+    /**
+     * 建造器
+     */
+    public static final class Builder {
+        private Producer producer;
+        private List<XRocketMQProducerInterceptor> interceptors;
+        private XRocketMQProducerBatchAccumulator batchAccumulator;
+        private XRocketMQProducerInFlightControl inFlightControl;
+        private XRocketMQProducerJournal journal;
+
+        private Builder() {}
+
+        public Builder producer(Producer producer) {
+            this.producer = producer;
+            return this;
+        }
+
+        public Builder interceptors(List<XRocketMQProducerInterceptor> interceptors) {
+            this.interceptors = interceptors;
+            return this;
+        }
+
+        public Builder batchAccumulator(XRocketMQProducerBatchAccumulator batchAccumulator) {
+            this.batchAccumulator = batchAccumulator;
+            return this;
+        }
+
+        public Builder inFlightControl(XRocketMQProducerInFlightControl inFlightControl) {
+            this.inFlightControl = inFlightControl;
+            return this;
+        }
+
+        public Builder journal(XRocketMQProducerJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        public XRocketMQProducerContext build() {
+            return new XRocketMQProducerContext(this);
+        }
+    }
+}
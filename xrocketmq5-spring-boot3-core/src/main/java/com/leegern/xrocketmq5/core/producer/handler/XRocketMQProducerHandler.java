@@ -1,41 +1,26 @@
 package com.leegern.xrocketmq5.core.producer.handler;
 
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerCallback;
-import com.leegern.xrocketmq5.core.producer.XRocketMQProducerInterceptor;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerResponse;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerSendPlan;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
-import org.apache.rocketmq.client.apis.producer.Producer;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 生产者发送消息的执行器接口
+ *          执行器无状态且线程安全, 生产者实例与拦截器由构造时的上下文提供, 每次发送的数据通过参数传入
  */
 public interface XRocketMQProducerHandler {
 
     /**
      * 发送消息
-     * @param topic         消息主题
-     * @param tag           消息标签
-     * @param enableAsync   异步发送标识
-     * @param requestParam  消息参数
+     * @param sendPlan          发送计划(话题、标签、异步标识等)
+     * @param requestParam      消息参数
+     * @param responseCallback  响应结果回调
+     * @return 发送结果future, 发送完成(包括失败)后以响应结果正常完成, 成功与否见{@link XRocketMQProducerResponse#getSuccess()}
      */
-    <T> void sendMessage(String topic, String tag, Boolean enableAsync, XRocketMQProducerParam<T> requestParam);
+    <T> CompletableFuture<XRocketMQProducerResponse> sendMessage(XRocketMQProducerSendPlan sendPlan, XRocketMQProducerParam<T> requestParam,
+                                                                 XRocketMQProducerCallback responseCallback);
 
-    /**
-     * 设置生产者对象
-     * @param producer 生产者实例
-     */
-    void setProducer(Producer producer);
-
-    /**
-     * 设置发送消息前后的拦截器
-     * @param interceptors
-     */
-    void setInterceptors(List<XRocketMQProducerInterceptor> interceptors);
-
-    /**
-     * 设置相应结果回调
-     * @param responseCallback
-     */
-    void setResponseCallback(XRocketMQProducerCallback responseCallback);
 }
@@ -1,6 +1,5 @@
 package com.leegern.xrocketmq5.core.producer.handler;
 
-import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
 
 /**
  * 生产者发送普通消息执行器
@@ -8,8 +7,11 @@ import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
 public class XRocketMQProducerNormalHandler extends XRocketMQProducerBaseHandler {
 
 
-    @Override
-    public <T> void sendMessage(String topic, String tag, Boolean enableAsync, XRocketMQProducerParam<T> requestParam) {
-        super.sendMessage(topic, tag, enableAsync, requestParam);
+    /**
+     * 自定义构造器
+     * @param context 执行器上下文
+     */
+    public XRocketMQProducerNormalHandler(XRocketMQProducerContext context) {
+        super(context);
     }
 }
@@ -1,13 +1,13 @@
 package com.leegern.xrocketmq5.core.producer.handler;
 
 import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodec;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerMessage;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerOrderlyParam;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
 import org.apache.rocketmq.client.apis.message.Message;
 import org.springframework.util.StringUtils;
 
-import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -16,9 +16,12 @@ import java.util.List;
 public class XRocketMQProducerOrderlyHandler extends XRocketMQProducerBaseHandler {
 
 
-    @Override
-    public <T> void sendMessage(String topic, String tag, Boolean enableAsync, XRocketMQProducerParam<T> requestParam) {
-        super.sendMessage(topic, tag, enableAsync, requestParam);
+    /**
+     * 自定义构造器
+     * @param context 执行器上下文
+     */
+    public XRocketMQProducerOrderlyHandler(XRocketMQProducerContext context) {
+        super(context);
     }
 
 
@@ -27,11 +30,12 @@ public class XRocketMQProducerOrderlyHandler extends XRocketMQProducerBaseHandle
      * @param topic          话题
      * @param tag            标签
      * @param requestParam   请求参数
+     * @param codec          消息编解码器
      * @return
      * @param <T>
      */
     @Override
-    protected <T> Message buildRocketMessage(String topic, String tag, XRocketMQProducerParam<T> requestParam) {
+    protected <T> Message buildRocketMessage(String topic, String tag, XRocketMQProducerParam<T> requestParam, XRocketMQMessageCodec codec) {
         if (! (XRocketMQProducerOrderlyParam.class.isAssignableFrom(requestParam.getClass()))) {
             throw new XRocketMQException("'requestParam' must be instance of XRocketMQProducerOrderlyParam.");
         }
@@ -39,7 +43,7 @@ public class XRocketMQProducerOrderlyHandler extends XRocketMQProducerBaseHandle
         if (! StringUtils.hasText(orderlyParam.getOrderGroup())) {
             throw new XRocketMQException("'orderGroup' must not be empty.");
         }
-        return new XRocketMQProducerMessage(topic, parseJson(requestParam.getMsgBody()), tag, List.of(requestParam.getBusinessId()), orderlyParam.getOrderGroup(), null, new HashMap<>());
+        return new XRocketMQProducerMessage(topic, encode(codec, requestParam.getMsgBody()), tag, List.of(requestParam.getBusinessId()), orderlyParam.getOrderGroup(), null, newProperties(codec));
     }
 
 
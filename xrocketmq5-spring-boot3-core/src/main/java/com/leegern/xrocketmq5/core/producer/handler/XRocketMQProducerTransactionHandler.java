@@ -1,7 +1,9 @@
 package com.leegern.xrocketmq5.core.producer.handler;
 
 import com.leegern.xrocketmq5.core.XRocketMQException;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerCallback;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerResponse;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerSendPlan;
 import com.leegern.xrocketmq5.core.producer.transaction.XRocketMQProducerTransactionAction;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerParam;
 import com.leegern.xrocketmq5.core.producer.params.XRocketMQProducerTransactionParam;
@@ -14,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 生产者发送事务消息执行器
@@ -22,27 +25,40 @@ public class XRocketMQProducerTransactionHandler extends XRocketMQProducerBaseHa
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerTransactionHandler.class);
 
-    /* 本地事务执行器 */
-    private XRocketMQProducerTransactionAction transactionAction;
+
+    /**
+     * 自定义构造器
+     * @param context 执行器上下文
+     */
+    public XRocketMQProducerTransactionHandler(XRocketMQProducerContext context) {
+        super(context);
+    }
 
 
     @Override
-    public <T> void sendMessage(String topic, String tag, Boolean enableAsync, XRocketMQProducerParam<T> requestParam) {
-        // 获取本地事务执行器
-        this.transactionAction = this.getTransactionAction(requestParam);
+    public <T> CompletableFuture<XRocketMQProducerResponse> sendMessage(XRocketMQProducerSendPlan sendPlan, XRocketMQProducerParam<T> requestParam,
+                                XRocketMQProducerCallback responseCallback) {
+        // 校验本地事务执行器
+        this.getTransactionAction(requestParam);
         // 调用父类发送消息
-        super.sendMessage(topic, tag, enableAsync, requestParam);
+        return super.sendMessage(sendPlan, requestParam, responseCallback);
     }
 
 
     /**
      * 覆写执行发送事务消息方法(事务消息只支持同步发送)
-     * @param enableAsync 异步发送标识
-     * @param topic       话题
-     * @param dwMessage   平台内部消息实体
+     * @param sendPlan         发送计划
+     * @param dwMessage        平台内部消息实体
+     * @param requestParam     消息参数
+     * @param responseCallback 响应结果回调
+     * @return 已完成的发送结果future
      */
     @Override
-    protected void doSend(Boolean enableAsync, String topic, Message dwMessage)  {
+    protected <T> CompletableFuture<XRocketMQProducerResponse> doSend(XRocketMQProducerSendPlan sendPlan, Message dwMessage, XRocketMQProducerParam<T> requestParam,
+                              XRocketMQProducerCallback responseCallback) {
+        // 本地事务执行器
+        XRocketMQProducerTransactionAction transactionAction = this.getTransactionAction(requestParam);
+        String      topic        = sendPlan.getTopicName();
         SendReceipt sendReceipt  = null;
         Transaction transaction  = null;
         Exception   txException  = null;
@@ -81,9 +97,9 @@ public class XRocketMQProducerTransactionHandler extends XRocketMQProducerBaseHa
             // 组装响应结果
             XRocketMQProducerResponse response = super.populateProducerResponse(sendReceipt, dwMessage);
             // 执行返回结果回调方法
-            super.doResponseCallback(response, txException);
+            super.doResponseCallback(responseCallback, response, txException);
             // 直接退出
-            return;
+            return CompletableFuture.completedFuture(response);
         }
 
         /*
@@ -121,7 +137,8 @@ public class XRocketMQProducerTransactionHandler extends XRocketMQProducerBaseHa
         // 本地事务返回失败
         if (Objects.nonNull(txException)) response.setSuccess(false);
         // 执行返回结果回调方法
-        super.doResponseCallback(response, txException);
+        super.doResponseCallback(responseCallback, response, txException);
+        return CompletableFuture.completedFuture(response);
     }
 
     /**
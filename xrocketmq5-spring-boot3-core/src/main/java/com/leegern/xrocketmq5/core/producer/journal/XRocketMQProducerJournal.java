@@ -0,0 +1,830 @@
+package com.leegern.xrocketmq5.core.producer.journal;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.rocketmq.client.apis.message.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 生产者本地日志(发送失败或在途窗口溢出的消息)
+ *          只追加写入内存映射的定长分段文件, 每条记录为[长度][CRC32][消息], 消息包含话题、标签、消息标识、消息分组、
+ *          定时时间、属性及消息体; 先写消息再写长度, 重启时按CRC校验截断未写完的记录.
+ *          只有一个重放线程按追加顺序读取, 消息重新发送成功(或无法发送而丢弃)后提交读取位置,
+ *          读取位置越过的分段文件直接删除; 读取位置定期写入checkpoint文件, 重启后从该位置继续重放,
+ *          因此进程异常退出时最近提交的少量消息可能重复发送.
+ *          追加只在锁内写入内存映射, 刷盘及预分配下一个分段由后台刷盘线程完成(不持有锁);
+ *          分段文件数达到上限(maxBytes)时不再写入, 追加返回false.
+ */
+public class XRocketMQProducerJournal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerJournal.class);
+
+    /* 分段文件后缀 */
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /* 读取位置文件 */
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /* 记录头长度(长度 + CRC32) */
+    private static final int RECORD_HEADER = 8;
+
+    /* 记录格式版本 */
+    private static final byte RECORD_VERSION = 1;
+
+    /* 写入读取位置的最小间隔(纳秒) */
+    private static final long CHECKPOINT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /* 日志目录 */
+    private final Path directory;
+
+    /* 分段文件大小 */
+    private final int segmentSize;
+
+    /* 最大分段文件数 */
+    private final int maxSegments;
+
+    /* 每次追加后是否刷盘 */
+    private final boolean forceOnAppend;
+
+    /* 追加锁 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* 有新追加的记录 */
+    private final Condition appended = lock.newCondition();
+
+    /* 有分段需要刷盘或需要预分配分段 */
+    private final Condition flushRequested = lock.newCondition();
+
+    /* 刷盘完成 */
+    private final Condition forced = lock.newCondition();
+
+    /* 后台刷盘线程 */
+    private final Thread flusher;
+
+    /* 分段文件(按序号排列, 最后一个为写入分段) */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    /* 未重放的记录数 */
+    private final AtomicLong pending = new AtomicLong();
+
+    /* 预分配的下一个写入分段(持有锁时读写) */
+    private Segment spare;
+
+    /* 是否有待处理的刷盘或预分配(持有锁时读写) */
+    private boolean flushPending = true;
+
+    /* 需要刷盘的追加序号(持有锁时读写) */
+    private long appendSeq;
+
+    /* 已刷盘的追加序号(持有锁时读写) */
+    private long forcedSeq;
+
+    /* 日志是否已满(只在状态变化时打印日志) */
+    private boolean full;
+
+    /* 读取分段(仅重放线程修改, 修改及其他线程读取时持有锁) */
+    private Segment readSegment;
+
+    /* 读取位置(仅重放线程修改, 修改及其他线程读取时持有锁) */
+    private int readOffset;
+
+    /* 上次写入读取位置的时间(持有锁时读写) */
+    private long lastCheckpoint;
+
+    /* 读取位置是否未写入(持有锁时读写) */
+    private boolean checkpointDirty;
+
+    /* 是否已关闭 */
+    private volatile boolean closed;
+
+
+    /**
+     * 自定义构造器, 打开日志目录并恢复未重放的记录
+     * @param directory      日志目录
+     * @param segmentSize    分段文件大小(byte)
+     * @param maxBytes       日志文件最大总大小(byte, 不大于0时不限制), 至少保留2个分段
+     * @param forceOnAppend  每次追加后是否刷盘(否则由操作系统回写, 进程退出不丢失, 宕机可能丢失)
+     * @throws IOException
+     */
+    public XRocketMQProducerJournal(Path directory, int segmentSize, long maxBytes, boolean forceOnAppend) throws IOException {
+        this.directory      =  directory;
+        this.segmentSize    =  Math.max(segmentSize, 64 * 1024);
+        this.maxSegments    =  maxBytes <= 0L ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, Math.max(2L, maxBytes / this.segmentSize));
+        this.forceOnAppend  =  forceOnAppend;
+        Files.createDirectories(directory);
+        this.recover();
+
+        this.flusher = new Thread(this::flush, "xrocketmq-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+
+    /**
+     * 追加消息
+     *          开启forceOnAppend时等待后台线程刷盘后返回(等待期间不持有锁, 并发追加的记录合并刷盘)
+     * @param message 消息
+     * @return 日志已关闭、日志已满、消息超过分段大小或写入失败时返回false
+     */
+    public boolean append(Message message) {
+        byte[] record;
+        try {
+            record = encode(message);
+        } catch (IOException e) {
+            LOGGER.error("Encode journal record of topic '{}' failed:{}", message.getTopic(), ExceptionUtils.getStackTrace(e));
+            return false;
+        }
+        if (record.length + RECORD_HEADER > segmentSize) {
+            LOGGER.error("Journal record of topic '{}' is {} bytes, larger than the segment size {}", message.getTopic(), record.length, segmentSize);
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            Segment segment = segments.peekLast();
+            if (segment.capacity() - segment.writePos < record.length + RECORD_HEADER) {
+                if (Objects.isNull(segment = this.roll())) {
+                    return false;
+                }
+            }
+            int position = segment.writePos;
+            // 先写消息及CRC, 最后写长度
+            segment.buffer.put(position + RECORD_HEADER, record);
+            segment.buffer.putInt(position + 4, (int) crc.getValue());
+            segment.buffer.putInt(position, record.length);
+            segment.writePos = position + record.length + RECORD_HEADER;
+            pending.incrementAndGet();
+            appended.signalAll();
+            if (forceOnAppend) {
+                long seq = ++appendSeq;
+                this.requestFlush();
+                while (forcedSeq < seq && ! closed) {
+                    forced.awaitUninterruptibly();
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Append journal record of topic '{}' failed:{}", message.getTopic(), ExceptionUtils.getStackTrace(e));
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 读取下一条未重放的记录(不移动读取位置, 仅由重放线程调用)
+     * @param timeout 无记录时的最大等待时间
+     * @param unit    时间单位
+     * @return 超时或已关闭时返回null
+     * @throws InterruptedException
+     */
+    public Entry peek(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        while (! closed) {
+            Segment segment = readSegment;
+            if (readOffset < segment.writePos) {
+                return decode(segment, readOffset);
+            }
+            Segment finished = null;
+            lock.lock();
+            try {
+                if (readOffset < segment.writePos) {
+                    continue;
+                }
+                // 已读完的非写入分段, 转到下一个分段
+                if (segment != segments.peekLast()) {
+                    finished = this.advance();
+                }
+                else if (nanos <= 0L) {
+                    return null;
+                }
+                else {
+                    nanos = appended.awaitNanos(nanos);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (Objects.nonNull(finished)) {
+                this.delete(finished);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 提交已重放的记录, 移动读取位置(仅由重放线程调用)
+     * @param entry peek读取的记录
+     */
+    public void commit(Entry entry) {
+        if (entry.segmentId != readSegment.id || entry.offset != readOffset) {
+            throw new IllegalStateException("Journal entry is not at the read position");
+        }
+        pending.decrementAndGet();
+        lock.lock();
+        try {
+            readOffset = entry.nextOffset;
+            checkpointDirty = true;
+            if (System.nanoTime() - lastCheckpoint >= CHECKPOINT_INTERVAL) {
+                this.writeCheckpoint();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 未重放的记录数
+     * @return
+     */
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 写入读取位置并关闭分段文件
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // 关闭后不再写入读取位置, 重放线程之后的提交在重启后重新重放
+            if (checkpointDirty) {
+                this.writeCheckpoint();
+            }
+            closed = true;
+            appended.signalAll();
+            flushRequested.signalAll();
+            forced.signalAll();
+            for (Segment segment : segments) {
+                segment.close(true);
+            }
+            if (Objects.nonNull(spare)) {
+                spare.close(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 写入分段已满, 切换到预分配的下一个分段(持有锁时调用), 已满的分段由后台线程刷盘
+     * @return 新的写入分段, 分段文件数达到上限时返回null
+     * @throws IOException
+     */
+    private Segment roll() throws IOException {
+        if (segments.size() >= maxSegments) {
+            if (! full) {
+                full = true;
+                LOGGER.warn("Producer journal '{}' is full with {} segment(s) of {} bytes, failed messages are not journaled until replay frees a segment",
+                        directory, segments.size(), segmentSize);
+            }
+            return null;
+        }
+        Segment next = spare;
+        spare = null;
+        if (Objects.isNull(next)) {
+            // 后台线程尚未完成预分配
+            next = this.openSegment(segments.peekLast().id + 1);
+        }
+        segments.addLast(next);
+        if (full) {
+            full = false;
+            LOGGER.info("Producer journal '{}' has free segments again", directory);
+        }
+        this.requestFlush();
+        return next;
+    }
+
+    /**
+     * 读取位置转到下一个分段(持有锁时调用)
+     * @return 已重放的分段
+     */
+    private Segment advance() {
+        Segment finished = segments.pollFirst();
+        readSegment = segments.peekFirst();
+        readOffset = 0;
+        // 分段文件数减少, 可以预分配下一个分段
+        this.requestFlush();
+        return finished;
+    }
+
+    /**
+     * 删除已重放的分段(不持有锁, 仅由重放线程调用)
+     * @param finished 已重放的分段
+     */
+    private void delete(Segment finished) {
+        // 先写读取位置再删除文件, 避免重启后找不到读取分段; 已关闭时保留文件, 重启后由恢复流程删除
+        boolean written = this.writeCheckpoint();
+        finished.close(false);
+        if (! written) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(finished.path);
+        } catch (IOException e) {
+            LOGGER.warn("Delete replayed journal segment '{}' failed: {}", finished.path, e.getMessage());
+        }
+    }
+
+    /**
+     * 唤醒后台刷盘线程(持有锁时调用)
+     */
+    private void requestFlush() {
+        flushPending = true;
+        flushRequested.signal();
+    }
+
+    /**
+     * 后台刷盘线程: 刷盘已写满的分段(开启forceOnAppend时包括写入分段), 预分配下一个分段
+     */
+    private void flush() {
+        while (true) {
+            List<Segment> dirty;
+            long seq;
+            long nextId;
+            boolean needSpare;
+            lock.lock();
+            try {
+                while (! flushPending && ! closed) {
+                    flushRequested.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                flushPending = false;
+                dirty     =  new ArrayList<>(segments);
+                seq       =  appendSeq;
+                nextId    =  segments.peekLast().id + 1;
+                needSpare =  Objects.isNull(spare) && segments.size() < maxSegments;
+            } finally {
+                lock.unlock();
+            }
+
+            Segment writing = dirty.get(dirty.size() - 1);
+            for (Segment segment : dirty) {
+                int end = segment.writePos;
+                if (segment.forcedPos < end && (forceOnAppend || segment != writing)) {
+                    try {
+                        segment.buffer.force(segment.forcedPos, end - segment.forcedPos);
+                    } catch (Exception e) {
+                        LOGGER.warn("Force journal segment '{}' failed: {}", segment.path, e.getMessage());
+                    }
+                    segment.forcedPos = end;
+                }
+            }
+            Segment created = null;
+            if (needSpare) {
+                try {
+                    created = this.openSegment(nextId);
+                } catch (IOException e) {
+                    LOGGER.warn("Preallocate journal segment {} in '{}' failed: {}", nextId, directory, e.getMessage());
+                }
+            }
+
+            lock.lock();
+            try {
+                if (Objects.nonNull(created)) {
+                    // 预分配期间已同步创建同一分段时放弃
+                    if (! closed && Objects.isNull(spare) && segments.peekLast().id + 1 == created.id) {
+                        spare = created;
+                        created = null;
+                    }
+                }
+                forcedSeq = Math.max(forcedSeq, seq);
+                forced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (Objects.nonNull(created)) {
+                created.close(false);
+            }
+        }
+    }
+
+    /**
+     * 写入读取位置(先写临时文件再原子替换), 持有锁执行, 避免重放线程与关闭流程同时写入
+     * @return 已关闭时不写入, 返回false
+     */
+    private boolean writeCheckpoint() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            ByteBuffer checkpoint = ByteBuffer.allocate(12);
+            checkpoint.putLong(readSegment.id).putInt(readOffset).flip();
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    channel.write(checkpoint);
+                    if (forceOnAppend) {
+                        channel.force(true);
+                    }
+                }
+                Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                checkpointDirty = false;
+            } catch (IOException e) {
+                LOGGER.warn("Write journal checkpoint to '{}' failed: {}", directory, e.getMessage());
+            }
+            lastCheckpoint = System.nanoTime();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 恢复分段文件: 删除已重放的分段, 校验记录确定写入位置, 统计未重放的记录数
+     * @throws IOException
+     */
+    private void recover() throws IOException {
+        long checkpointSegment = -1L;
+        int checkpointOffset = 0;
+        Path checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointPath)) {
+            ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointPath));
+            if (checkpoint.remaining() == 12) {
+                checkpointSegment = checkpoint.getLong();
+                checkpointOffset = checkpoint.getInt();
+            }
+        }
+
+        List<Long> segmentIds = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            segmentIds.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            LOGGER.warn("Ignore unknown journal file '{}'", name);
+                        }
+                    });
+        }
+        Collections.sort(segmentIds);
+        for (long id : segmentIds) {
+            if (id < checkpointSegment) {
+                Files.deleteIfExists(this.segmentPath(id));
+                continue;
+            }
+            Segment segment = this.openSegment(id);
+            segment.writePos = this.scan(segment);
+            segments.addLast(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(this.openSegment(Math.max(0L, checkpointSegment)));
+        }
+        // 清除写入分段中截断位置之后的残留数据
+        Segment last = segments.peekLast();
+        if (this.hasResidue(last)) {
+            byte[] zeros = new byte[4096];
+            for (int position = last.writePos; position < last.capacity(); position += zeros.length) {
+                last.buffer.put(position, zeros, 0, Math.min(zeros.length, last.capacity() - position));
+            }
+            last.buffer.force();
+        }
+
+        readSegment = segments.peekFirst();
+        readOffset = readSegment.id == checkpointSegment ? Math.min(checkpointOffset, readSegment.writePos) : 0;
+        long count = 0L;
+        for (Segment segment : segments) {
+            for (int position = segment == readSegment ? readOffset : 0; position < segment.writePos; ) {
+                position += segment.buffer.getInt(position) + RECORD_HEADER;
+                count++;
+            }
+        }
+        pending.set(count);
+        lastCheckpoint = System.nanoTime();
+        if (count > 0L) {
+            LOGGER.info("Recovered {} unsent message(s) from producer journal '{}'", count, directory);
+        }
+    }
+
+    /**
+     * 校验分段中的记录
+     * @param segment 分段
+     * @return 最后一条完整记录之后的位置
+     */
+    private int scan(Segment segment) {
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER <= segment.capacity()) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || length > segment.capacity() - position - RECORD_HEADER) {
+                break;
+            }
+            crc.reset();
+            crc.update(segment.buffer.slice(position + RECORD_HEADER, length));
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                LOGGER.warn("Journal segment '{}' is truncated at {} because of a broken record", segment.path, position);
+                break;
+            }
+            position += length + RECORD_HEADER;
+        }
+        return position;
+    }
+
+    /**
+     * 写入位置之后是否有残留数据
+     * @param segment 分段
+     * @return
+     */
+    private boolean hasResidue(Segment segment) {
+        for (int position = segment.writePos; position + 8 <= segment.capacity(); position += 8) {
+            if (segment.buffer.getLong(position) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 打开(或创建)分段文件并映射到内存
+     * @param id 分段序号
+     * @return
+     * @throws IOException
+     */
+    private Segment openSegment(long id) throws IOException {
+        Path path = this.segmentPath(id);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = Math.max(segmentSize, channel.size());
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+    }
+
+
+    /**
+     * 编码消息
+     * @param message 消息
+     * @return
+     * @throws IOException
+     */
+    private static byte[] encode(Message message) throws IOException {
+        ByteBuffer body = message.getBody().duplicate();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.remaining() + 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_VERSION);
+        out.writeLong(System.currentTimeMillis());
+        writeString(out, message.getTopic());
+        writeString(out, message.getTag().orElse(null));
+        Collection<String> keys = Objects.isNull(message.getKeys()) ? List.of() : message.getKeys();
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            writeString(out, key);
+        }
+        writeString(out, message.getMessageGroup().orElse(null));
+        out.writeLong(message.getDeliveryTimestamp().orElse(-1L));
+        Map<String, String> properties = Objects.isNull(message.getProperties()) ? Map.of() : message.getProperties();
+        out.writeInt(properties.size());
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            writeString(out, property.getKey());
+            writeString(out, property.getValue());
+        }
+        out.writeInt(body.remaining());
+        if (body.hasArray()) {
+            out.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        }
+        else {
+            byte[] copy = new byte[body.remaining()];
+            body.get(copy);
+            out.write(copy);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解码记录
+     * @param segment 分段
+     * @param offset  记录位置
+     * @return
+     */
+    private static Entry decode(Segment segment, int offset) {
+        int length = segment.buffer.getInt(offset);
+        ByteBuffer in = segment.buffer.slice(offset + RECORD_HEADER, length);
+        in.get(); // 记录格式版本
+        long appendTime = in.getLong();
+        String topic = readString(in);
+        String tag = readString(in);
+        int keyCount = in.getInt();
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(readString(in));
+        }
+        String messageGroup = readString(in);
+        long deliveryTimestamp = in.getLong();
+        int propertyCount = in.getInt();
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.put(readString(in), readString(in));
+        }
+        byte[] body = new byte[in.getInt()];
+        in.get(body);
+        return new Entry(topic, tag, keys, messageGroup, deliveryTimestamp < 0L ? null : deliveryTimestamp, properties, body,
+                appendTime, segment.id, offset, offset + length + RECORD_HEADER);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * 分段文件
+     */
+    private static final class Segment {
+
+        /* 分段序号 */
+        private final long id;
+
+        /* 文件路径 */
+        private final Path path;
+
+        /* 文件通道 */
+        private final FileChannel channel;
+
+        /* 内存映射 */
+        private final MappedByteBuffer buffer;
+
+        /* 写入位置(追加时在锁内更新, 重放线程无锁读取) */
+        private volatile int writePos;
+
+        /* 已刷盘位置(仅后台刷盘线程访问) */
+        private int forcedPos;
+
+        Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id       =  id;
+            this.path     =  path;
+            this.channel  =  channel;
+            this.buffer   =  buffer;
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        void close(boolean force) {
+            try {
+                if (force) {
+                    buffer.force();
+                }
+                channel.close();
+            } catch (Exception e) {
+                LOGGER.warn("Close journal segment '{}' failed: {}", path, e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * 日志记录
+     */
+    public static final class Entry {
+
+        /* 话题 */
+        private final String topic;
+
+        /* 标签 */
+        private final String tag;
+
+        /* 消息标识 */
+        private final List<String> keys;
+
+        /* 消息分组 */
+        private final String messageGroup;
+
+        /* 定时投递时间 */
+        private final Long deliveryTimestamp;
+
+        /* 消息属性 */
+        private final Map<String, String> properties;
+
+        /* 消息体 */
+        private final byte[] body;
+
+        /* 写入日志的时间 */
+        private final long appendTime;
+
+        /* 记录所在分段及位置 */
+        private final long segmentId;
+        private final int offset;
+        private final int nextOffset;
+
+        Entry(String topic, String tag, List<String> keys, String messageGroup, Long deliveryTimestamp, Map<String, String> properties,
+              byte[] body, long appendTime, long segmentId, int offset, int nextOffset) {
+            this.topic              =  topic;
+            this.tag                =  tag;
+            this.keys               =  keys;
+            this.messageGroup       =  messageGroup;
+            this.deliveryTimestamp  =  deliveryTimestamp;
+            this.properties         =  properties;
+            this.body               =  body;
+            this.appendTime         =  appendTime;
+            this.segmentId          =  segmentId;
+            this.offset             =  offset;
+            this.nextOffset         =  nextOffset;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public List<String> getKeys() {
+            return keys;
+        }
+
+        public String getMessageGroup() {
+            return messageGroup;
+        }
+
+        public Long getDeliveryTimestamp() {
+            return deliveryTimestamp;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public long getAppendTime() {
+            return appendTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{topic=" + topic + ", tag=" + tag + ", keys=" + keys + ", messageGroup=" + messageGroup
+                    + ", deliveryTimestamp=" + deliveryTimestamp + ", appendTime=" + appendTime + "}";
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.leegern.xrocketmq5.core.producer.journal;
+
+import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerClientBuilder;
+import com.leegern.xrocketmq5.core.producer.XRocketMQProducerHolder;
+import com.leegern.xrocketmq5.core.properties.XRocketMQProperties;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.rocketmq.client.apis.ClientServiceProvider;
+import org.apache.rocketmq.client.apis.message.Message;
+import org.apache.rocketmq.client.apis.message.MessageBuilder;
+import org.apache.rocketmq.client.apis.producer.Producer;
+import org.apache.rocketmq.client.java.exception.BadRequestException;
+import org.apache.rocketmq.client.java.exception.PayloadTooLargeException;
+import org.apache.rocketmq.client.java.exception.UnsupportedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 生产者本地日志重放
+ *          单个后台线程按追加顺序读取日志, 使用公共生产者同步重新发送, 每秒发送条数不超过replayRate;
+ *          发送失败(broker不可用)时等待replayRetryInterval后重发同一条消息, 恢复后继续按顺序重放.
+ *          消息本身无法发送(请求非法、消息过大、不支持)时记录错误日志后丢弃, 避免阻塞后续消息.
+ *          重放不再执行发送拦截器(写入日志前已执行), 重放的消息与新发送的消息之间不保证顺序.
+ */
+public class XRocketMQProducerJournalReplayer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XRocketMQProducerJournalReplayer.class);
+
+    /* 无记录时的等待时间(毫秒) */
+    private static final long POLL_TIMEOUT = 1000L;
+
+    /* 停止时等待重放线程退出的时间(毫秒) */
+    private static final long STOP_TIMEOUT = 5000L;
+
+    /* 本地日志 */
+    private final XRocketMQProducerJournal journal;
+
+    /* 生产者实例持有者 */
+    private final XRocketMQProducerHolder producerHolder;
+
+    /* 属性配置 */
+    private final XRocketMQProperties properties;
+
+    /* 相邻两次发送的最小间隔(纳秒, 0表示不限速) */
+    private final long intervalNanos;
+
+    /* 发送失败后的重试间隔(纳秒) */
+    private final long retryIntervalNanos;
+
+    /* 重放线程 */
+    private volatile Thread replayThread;
+
+    /* 运行状态 */
+    private volatile boolean running;
+
+
+    /**
+     * 自定义构造器
+     * @param journal         本地日志
+     * @param producerHolder  生产者实例持有者
+     * @param properties      属性配置
+     */
+    public XRocketMQProducerJournalReplayer(XRocketMQProducerJournal journal, XRocketMQProducerHolder producerHolder, XRocketMQProperties properties) {
+        XRocketMQProperties.XRocketMQJournalProperties journalProperties = properties.getProducer().getJournal();
+        Integer replayRate = journalProperties.getReplayRate();
+        Integer retryInterval = journalProperties.getReplayRetryInterval();
+
+        this.journal             =  journal;
+        this.producerHolder      =  producerHolder;
+        this.properties          =  properties;
+        this.intervalNanos       =  Objects.isNull(replayRate) || replayRate <= 0 ? 0L : TimeUnit.SECONDS.toNanos(1) / replayRate;
+        this.retryIntervalNanos  =  TimeUnit.MILLISECONDS.toNanos(Objects.isNull(retryInterval)
+                ? XRocketMQConstants.JOURNAL_REPLAY_RETRY_INTERVAL : Math.max(1, retryInterval));
+    }
+
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::replay, "xrocketmq-journal-replayer");
+        thread.setDaemon(true);
+        replayThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = replayThread;
+        if (Objects.isNull(thread)) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(STOP_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        replayThread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+
+    /**
+     * 按顺序重放日志中的消息
+     */
+    private void replay() {
+        long nextSendTime = System.nanoTime();
+        // 连续发送失败的次数(只在首次失败及恢复时打印日志)
+        int failures = 0;
+        while (running) {
+            XRocketMQProducerJournal.Entry entry;
+            try {
+                entry = journal.peek(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (Objects.isNull(entry)) {
+                continue;
+            }
+            // 限速
+            if (! this.parkUntil(nextSendTime)) {
+                break;
+            }
+            try {
+                this.getProducer().send(this.buildMessage(entry));
+                journal.commit(entry);
+                if (failures > 0) {
+                    LOGGER.info("Producer journal replay recovered after {} failed attempt(s), {} message(s) pending", failures, journal.getPendingCount());
+                    failures = 0;
+                }
+            } catch (BadRequestException | PayloadTooLargeException | UnsupportedException | IllegalArgumentException e) {
+                // 消息本身无法发送, 丢弃
+                LOGGER.error("Drop journal message {} that can never be sent:{}", entry, ExceptionUtils.getStackTrace(e));
+                journal.commit(entry);
+            } catch (Exception e) {
+                if (failures++ == 0) {
+                    LOGGER.warn("Replay journal message {} failed, retry every {}ms while {} message(s) pending: {}", entry,
+                            TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos), journal.getPendingCount(), e.getMessage());
+                }
+                nextSendTime = System.nanoTime() + retryIntervalNanos;
+                continue;
+            }
+            nextSendTime = Math.max(nextSendTime, System.nanoTime() - intervalNanos) + intervalNanos;
+        }
+    }
+
+    /**
+     * 等待到指定时间
+     * @param deadline 截止时间(纳秒)
+     * @return 停止时返回false
+     */
+    private boolean parkUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0L; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (! running || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return running;
+    }
+
+    /**
+     * 获取公共生产者实例(不存在时创建)
+     * @return
+     * @throws Exception
+     */
+    private Producer getProducer() throws Exception {
+        Producer producer = producerHolder.getProducer(XRocketMQConstants.PRODUCER_NAME_PUBLIC);
+        if (Objects.nonNull(producer)) {
+            return producer;
+        }
+        CompletableFuture<Producer> producerFuture = producerHolder.getOrCreateProducer(XRocketMQConstants.PRODUCER_NAME_PUBLIC,
+                () -> new XRocketMQProducerClientBuilder(producerHolder, properties).build(XRocketMQConstants.PRODUCER_NAME_PUBLIC, null, null));
+        return producerFuture.get(properties.getProducer().getSendMsgTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 还原rocketmq标准消息
+     * @param entry 日志记录
+     * @return
+     */
+    private Message buildMessage(XRocketMQProducerJournal.Entry entry) {
+        MessageBuilder builder = ClientServiceProvider.loadService().newMessageBuilder()
+                .setTopic(entry.getTopic())
+                .setBody(entry.getBody());
+
+        if (StringUtils.hasText(entry.getTag()))
+            builder.setTag(entry.getTag());
+        if (! CollectionUtils.isEmpty(entry.getKeys()))
+            builder.setKeys(entry.getKeys().toArray(String[]::new));
+        if (Objects.nonNull(entry.getDeliveryTimestamp()))
+            builder.setDeliveryTimestamp(entry.getDeliveryTimestamp());
+        if (StringUtils.hasText(entry.getMessageGroup()))
+            builder.setMessageGroup(entry.getMessageGroup());
+        if (! CollectionUtils.isEmpty(entry.getProperties()))
+            entry.getProperties().forEach(builder::addProperty);
+
+        return builder.build();
+    }
+}
@@ -1,9 +1,7 @@
 package com.leegern.xrocketmq5.core.producer.transaction;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.leegern.xrocketmq5.core.XRocketMQException;
-import com.leegern.xrocketmq5.core.json.JacksonProvider;
+import com.leegern.xrocketmq5.core.codec.XRocketMQMessageCodecRegistry;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerCallback;
 import com.leegern.xrocketmq5.core.producer.XRocketMQProducerResponse;
 import org.apache.commons.lang3.ObjectUtils;
@@ -13,12 +11,12 @@ import org.apache.rocketmq.client.apis.producer.TransactionChecker;
 import org.apache.rocketmq.client.apis.producer.TransactionResolution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 /**
@@ -31,8 +29,11 @@ public abstract class XRocketMQProducerTransactionChecker<T> implements Transact
     /* 消息目标类clazz */
     private Class<T> messageClazz;
 
-    /* json序列化 */
-    private ObjectMapper json;
+    /* 消息目标类型(支持泛型, 首次回查时解析) */
+    private volatile Type messageType;
+
+    /* 消息编解码器注册表 */
+    private volatile XRocketMQMessageCodecRegistry codecRegistry;
 
     /* 返回结果回调 */
     private XRocketMQProducerCallback responseCallback;
@@ -42,8 +43,8 @@ public abstract class XRocketMQProducerTransactionChecker<T> implements Transact
      * 自定义构造器
      */
     public XRocketMQProducerTransactionChecker() {
-        // JSON实例化
-        this.json = JacksonProvider.getInstance().getJson();
+        // 未设置注册表时使用内置编解码器
+        this.codecRegistry = XRocketMQMessageCodecRegistry.builtin();
     }
 
     /**
@@ -52,6 +53,17 @@ public abstract class XRocketMQProducerTransactionChecker<T> implements Transact
      */
     public void setMessageClazz(Class<T> messageClazz) {
         this.messageClazz = messageClazz;
+        this.messageType  = messageClazz;
+    }
+
+    /**
+     * 'codecRegistry' of setter
+     * @param codecRegistry
+     */
+    public void setCodecRegistry(XRocketMQMessageCodecRegistry codecRegistry) {
+        if (Objects.nonNull(codecRegistry)) {
+            this.codecRegistry = codecRegistry;
+        }
     }
 
     /**
@@ -125,14 +137,31 @@ public abstract class XRocketMQProducerTransactionChecker<T> implements Transact
     @SuppressWarnings("unchecked")
     protected Class<T> getMessageClazz() {
         if (Objects.isNull(messageClazz)) {
-            // 通过反射获取泛型参数clazz
-            Type superClass = getClass().getGenericSuperclass();
-            ParameterizedType type = (ParameterizedType) superClass;
-            messageClazz = (Class<T>) type.getActualTypeArguments()[0];
+            // 泛型参数的原始类型
+            messageClazz = (Class<T>) ResolvableType.forType(getMessageType()).toClass();
         }
         return messageClazz;
     }
 
+    /**
+     * 获取消息参数类型(含泛型参数, 如List<Order>)
+     *          沿继承链解析泛型参数, 解析结果缓存, 每次回查不再反射
+     * @return
+     */
+    protected Type getMessageType() {
+        Type type = messageType;
+        if (Objects.isNull(type)) {
+            ResolvableType generic = ResolvableType.forClass(getClass()).as(XRocketMQProducerTransactionChecker.class).getGeneric(0);
+            if (Objects.isNull(generic.resolve())) {
+                throw new XRocketMQException(String.format("The message type of transaction checker[%s] must be declared, e.g. extends XRocketMQProducerTransactionChecker<T>",
+                        getClass().getName()));
+            }
+            type = GenericTypeResolver.resolveType(generic.getType(), getClass());
+            messageType = type;
+        }
+        return type;
+    }
+
 
     /**
      * 组装发送响应结果
@@ -180,20 +209,12 @@ public abstract class XRocketMQProducerTransactionChecker<T> implements Transact
      */
     @SuppressWarnings("unchecked")
     private T parseMessage(MessageView messageView) {
-        if (MessageView.class.equals(getMessageClazz())) {
+        Type targetType = getMessageType();
+        if (MessageView.class.equals(targetType)) {
             return (T) messageView; // 直接返回 MessageView
         }
-        // 消息体
-        String msgBody = StandardCharsets.UTF_8.decode(messageView.getBody()).toString();
-        if (String.class.equals(getMessageClazz())) {
-            return (T) msgBody;     // 直接返回 String
-        }
-        // json反序列化
-        try {
-            return json.readValue(msgBody, getMessageClazz());
-        } catch (JsonProcessingException e) {
-            throw new XRocketMQException("Json deserialization error", e);
-        }
+        // String、byte[]、ByteBuffer、InputStream或按消息记录的编解码器解码
+        return (T) codecRegistry.decode(messageView, targetType);
     }
 
     /**
@@ -1,8 +1,17 @@
 package com.leegern.xrocketmq5.core.properties;
 
 import com.leegern.xrocketmq5.core.XRocketMQConstants;
+import com.leegern.xrocketmq5.core.enums.ConsumeExecutorType;
+import com.leegern.xrocketmq5.core.enums.IdempotentKeyType;
+import com.leegern.xrocketmq5.core.enums.InFlightOverflowPolicy;
+import com.leegern.xrocketmq5.core.enums.ProducerRoutingStrategy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * rocketmq配置
  */
@@ -27,6 +36,9 @@ public class XRocketMQProperties {
     /* 消费者配置 */
     private XRocketMQConsumerProperties consumer = new XRocketMQConsumerProperties();
 
+    /* 指标配置 */
+    private XRocketMQMetricsProperties metrics = new XRocketMQMetricsProperties();
+
 
     public String getEndpoints() {
         return endpoints;
@@ -70,6 +82,50 @@ public class XRocketMQProperties {
         this.consumer = consumer;
     }
 
+    public XRocketMQMetricsProperties getMetrics() {
+        return metrics;
+    }
+    public void setMetrics(XRocketMQMetricsProperties metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 指标配置(存在micrometer时生效)
+     */
+    public static class XRocketMQMetricsProperties {
+
+        /* 是否开启指标 */
+        private Boolean enabled = XRocketMQConstants.METRICS_ENABLED;
+
+        /* 是否发布耗时直方图 */
+        private Boolean histogram = XRocketMQConstants.METRICS_HISTOGRAM;
+
+        /* 话题、标签、消费组各自最多的取值个数, 超出的取值归并为OTHER */
+        private Integer maxTagValues = XRocketMQConstants.METRICS_MAX_TAG_VALUES;
+
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Boolean getHistogram() {
+            return histogram;
+        }
+        public void setHistogram(Boolean histogram) {
+            this.histogram = histogram;
+        }
+
+        public Integer getMaxTagValues() {
+            return maxTagValues;
+        }
+        public void setMaxTagValues(Integer maxTagValues) {
+            this.maxTagValues = maxTagValues;
+        }
+    }
+
     /**
      * 生产者属性全局配置
      */
@@ -90,6 +146,39 @@ public class XRocketMQProperties {
         /* 事务异常检查间隔 */
         private Integer checkTransactionInterval= XRocketMQConstants.CHECK_TX_INTERVAL;
 
+        /* 批量发送最大消息条数 */
+        private Integer batchMaxCount = XRocketMQConstants.BATCH_MAX_COUNT;
+
+        /* 批量发送最大消息大小(不超过maxMessageSize) */
+        private Integer batchMaxBytes = XRocketMQConstants.BATCH_MAX_BYTES;
+
+        /* 批量发送最大等待时间(单位毫秒) */
+        private Integer batchLingerMs = XRocketMQConstants.BATCH_LINGER_MS;
+
+        /* 默认的消息编解码器(json、smile、cbor、protobuf或自定义编解码器名称) */
+        private String codec = XRocketMQConstants.CODEC_JSON;
+
+        /* 公共生产者池客户端数量(非事务消息共享) */
+        private Integer poolSize = XRocketMQConstants.PRODUCER_POOL_SIZE;
+
+        /* 公共生产者池路由策略 */
+        private ProducerRoutingStrategy routingStrategy = XRocketMQConstants.PRODUCER_ROUTING_STRATEGY;
+
+        /* 启动时预热公共生产者(创建连接并加载话题路由) */
+        private Boolean warmUp = XRocketMQConstants.PRODUCER_WARM_UP;
+
+        /* 启动预热超时时间(单位毫秒) */
+        private Integer warmUpTimeout = XRocketMQConstants.PRODUCER_WARM_UP_TIMEOUT;
+
+        /* 异步发送在途窗口全局配置 */
+        private XRocketMQInFlightProperties inFlight = new XRocketMQInFlightProperties();
+
+        /* 异步发送在途窗口话题配置(话题 -> 配置, 覆盖全局配置) */
+        private Map<String, XRocketMQInFlightProperties> topicInFlight = new HashMap<>();
+
+        /* 发送失败及在途窗口溢出消息的本地日志配置 */
+        private XRocketMQJournalProperties journal = new XRocketMQJournalProperties();
+
 
         public String getScanBasePackage() {
             return scanBasePackage;
@@ -125,6 +214,217 @@ public class XRocketMQProperties {
         public void setCheckTransactionInterval(Integer checkTransactionInterval) {
             this.checkTransactionInterval = checkTransactionInterval;
         }
+
+        public Integer getBatchMaxCount() {
+            return batchMaxCount;
+        }
+        public void setBatchMaxCount(Integer batchMaxCount) {
+            this.batchMaxCount = batchMaxCount;
+        }
+
+        public Integer getBatchMaxBytes() {
+            return batchMaxBytes;
+        }
+        public void setBatchMaxBytes(Integer batchMaxBytes) {
+            this.batchMaxBytes = batchMaxBytes;
+        }
+
+        public Integer getBatchLingerMs() {
+            return batchLingerMs;
+        }
+        public void setBatchLingerMs(Integer batchLingerMs) {
+            this.batchLingerMs = batchLingerMs;
+        }
+
+        public String getCodec() {
+            return codec;
+        }
+        public void setCodec(String codec) {
+            this.codec = codec;
+        }
+
+        public Integer getPoolSize() {
+            return poolSize;
+        }
+        public void setPoolSize(Integer poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public ProducerRoutingStrategy getRoutingStrategy() {
+            return routingStrategy;
+        }
+        public void setRoutingStrategy(ProducerRoutingStrategy routingStrategy) {
+            this.routingStrategy = routingStrategy;
+        }
+
+        public Boolean getWarmUp() {
+            return warmUp;
+        }
+        public void setWarmUp(Boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+
+        public Integer getWarmUpTimeout() {
+            return warmUpTimeout;
+        }
+        public void setWarmUpTimeout(Integer warmUpTimeout) {
+            this.warmUpTimeout = warmUpTimeout;
+        }
+
+        public XRocketMQInFlightProperties getInFlight() {
+            return inFlight;
+        }
+        public void setInFlight(XRocketMQInFlightProperties inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        public Map<String, XRocketMQInFlightProperties> getTopicInFlight() {
+            return topicInFlight;
+        }
+        public void setTopicInFlight(Map<String, XRocketMQInFlightProperties> topicInFlight) {
+            this.topicInFlight = topicInFlight;
+        }
+
+        public XRocketMQJournalProperties getJournal() {
+            return journal;
+        }
+        public void setJournal(XRocketMQJournalProperties journal) {
+            this.journal = journal;
+        }
+    }
+
+    /**
+     * 生产者本地日志配置(非事务消息发送失败或在途窗口溢出时写入本地日志, 由后台线程限速重放)
+     */
+    public static class XRocketMQJournalProperties {
+
+        /* 是否开启 */
+        private Boolean enabled = XRocketMQConstants.JOURNAL_ENABLED;
+
+        /* 日志目录(同一目录只能由一个应用实例使用) */
+        private String directory = XRocketMQConstants.JOURNAL_DIRECTORY;
+
+        /* 分段文件大小(byte), 单条消息不能超过分段大小 */
+        private Integer segmentSize = XRocketMQConstants.JOURNAL_SEGMENT_SIZE;
+
+        /* 日志文件最大总大小(byte, 不大于0时不限制), 达到上限后发送失败的消息不再写入日志 */
+        private Long maxBytes = XRocketMQConstants.JOURNAL_MAX_BYTES;
+
+        /* 每次追加后是否刷盘(关闭时进程退出不丢失, 操作系统宕机可能丢失) */
+        private Boolean forceOnAppend = XRocketMQConstants.JOURNAL_FORCE_ON_APPEND;
+
+        /* 每秒最多重放条数(不大于0时不限速) */
+        private Integer replayRate = XRocketMQConstants.JOURNAL_REPLAY_RATE;
+
+        /* 重放失败后的重试间隔(单位毫秒) */
+        private Integer replayRetryInterval = XRocketMQConstants.JOURNAL_REPLAY_RETRY_INTERVAL;
+
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Integer getSegmentSize() {
+            return segmentSize;
+        }
+        public void setSegmentSize(Integer segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public Long getMaxBytes() {
+            return maxBytes;
+        }
+        public void setMaxBytes(Long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public Boolean getForceOnAppend() {
+            return forceOnAppend;
+        }
+        public void setForceOnAppend(Boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+        }
+
+        public Integer getReplayRate() {
+            return replayRate;
+        }
+        public void setReplayRate(Integer replayRate) {
+            this.replayRate = replayRate;
+        }
+
+        public Integer getReplayRetryInterval() {
+            return replayRetryInterval;
+        }
+        public void setReplayRetryInterval(Integer replayRetryInterval) {
+            this.replayRetryInterval = replayRetryInterval;
+        }
+    }
+
+    /**
+     * 异步发送在途窗口配置
+     */
+    public static class XRocketMQInFlightProperties {
+
+        /* 最大在途消息条数(0表示不限制) */
+        private Integer maxRequests = XRocketMQConstants.IN_FLIGHT_MAX_REQUESTS;
+
+        /* 最大在途消息大小(byte, 0表示不限制) */
+        private Long maxBytes = XRocketMQConstants.IN_FLIGHT_MAX_BYTES;
+
+        /* 窗口已满时的处理策略 */
+        private InFlightOverflowPolicy overflowPolicy = XRocketMQConstants.IN_FLIGHT_OVERFLOW_POLICY;
+
+        /* 阻塞策略的最大等待时间(单位毫秒) */
+        private Integer blockTimeout = XRocketMQConstants.IN_FLIGHT_BLOCK_TIMEOUT;
+
+        /* 暂存策略的本地缓冲区最大消息条数 */
+        private Integer spillCapacity = XRocketMQConstants.IN_FLIGHT_SPILL_CAPACITY;
+
+
+        public Integer getMaxRequests() {
+            return maxRequests;
+        }
+        public void setMaxRequests(Integer maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        public Long getMaxBytes() {
+            return maxBytes;
+        }
+        public void setMaxBytes(Long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public InFlightOverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+        public void setOverflowPolicy(InFlightOverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public Integer getBlockTimeout() {
+            return blockTimeout;
+        }
+        public void setBlockTimeout(Integer blockTimeout) {
+            this.blockTimeout = blockTimeout;
+        }
+
+        public Integer getSpillCapacity() {
+            return spillCapacity;
+        }
+        public void setSpillCapacity(Integer spillCapacity) {
+            this.spillCapacity = spillCapacity;
+        }
     }
 
     /**
@@ -138,7 +438,10 @@ public class XRocketMQProperties {
         /* 消费请求超时时间 */
         private Integer consumeRequestTimeout = XRocketMQConstants.CONSUME_REQUEST_TIMEOUT;
 
-        /* 消息消费重试次数 */
+        /* PushConsumer等待异步消费结果(CompletionStage/Mono)的超时时间(毫秒), 超时按消费失败处理 */
+        private Integer asyncConsumeTimeout = XRocketMQConstants.ASYNC_CONSUME_TIMEOUT;
+
+        /* 消息消费本地重试次数(配置retry.retryOn后生效, 受retry.maxDuration限制) */
         private Integer retryConsumeTimes = XRocketMQConstants.RETRY_CONSUME_TIMES;
 
         /* 消费并发线程数 */
@@ -150,6 +453,36 @@ public class XRocketMQProperties {
         /* 本地最大缓存消息大小 */
         private Integer maxCacheMsgSize = XRocketMQConstants.MAX_CACHE_MSG_SIZE;
 
+        /* 消费线程类型 */
+        private ConsumeExecutorType executorType = XRocketMQConstants.CONSUME_EXECUTOR_TYPE;
+
+        /* 虚拟线程消费最大并发数 */
+        private Integer virtualMaxConcurrency = XRocketMQConstants.VIRTUAL_MAX_CONCURRENCY;
+
+        /* 异步消费方法未完成的异步结果上限(SimpleConsumer) */
+        private Integer asyncMaxOutstanding = XRocketMQConstants.ASYNC_MAX_OUTSTANDING;
+
+        /* 顺序消费通道数(不大于0时使用消费并发线程数) */
+        private Integer orderlyLanes = XRocketMQConstants.ORDERLY_LANES;
+
+        /* 顺序消费单个通道的队列上限 */
+        private Integer orderlyLaneCapacity = XRocketMQConstants.ORDERLY_LANE_CAPACITY;
+
+        /* SimpleConsumer模式配置 */
+        private XRocketMQSimpleConsumerProperties simple = new XRocketMQSimpleConsumerProperties();
+
+        /* 消费幂等配置 */
+        private XRocketMQIdempotentProperties idempotent = new XRocketMQIdempotentProperties();
+
+        /* 自适应并发配置 */
+        private XRocketMQAdaptiveProperties adaptive = new XRocketMQAdaptiveProperties();
+
+        /* 本地重试配置 */
+        private XRocketMQRetryProperties retry = new XRocketMQRetryProperties();
+
+        /* 共享消费调度器配置 */
+        private XRocketMQSchedulerProperties scheduler = new XRocketMQSchedulerProperties();
+
 
         public String getConsumerGroup() {
             return consumerGroup;
@@ -165,6 +498,13 @@ public class XRocketMQProperties {
             this.consumeRequestTimeout = consumeRequestTimeout;
         }
 
+        public Integer getAsyncConsumeTimeout() {
+            return asyncConsumeTimeout;
+        }
+        public void setAsyncConsumeTimeout(Integer asyncConsumeTimeout) {
+            this.asyncConsumeTimeout = asyncConsumeTimeout;
+        }
+
         public Integer getRetryConsumeTimes() {
             return retryConsumeTimes;
         }
@@ -192,5 +532,340 @@ public class XRocketMQProperties {
         public void setMaxCacheMsgSize(Integer maxCacheMsgSize) {
             this.maxCacheMsgSize = maxCacheMsgSize;
         }
+
+        public ConsumeExecutorType getExecutorType() {
+            return executorType;
+        }
+        public void setExecutorType(ConsumeExecutorType executorType) {
+            this.executorType = executorType;
+        }
+
+        public Integer getVirtualMaxConcurrency() {
+            return virtualMaxConcurrency;
+        }
+        public void setVirtualMaxConcurrency(Integer virtualMaxConcurrency) {
+            this.virtualMaxConcurrency = virtualMaxConcurrency;
+        }
+
+        public Integer getAsyncMaxOutstanding() {
+            return asyncMaxOutstanding;
+        }
+        public void setAsyncMaxOutstanding(Integer asyncMaxOutstanding) {
+            this.asyncMaxOutstanding = asyncMaxOutstanding;
+        }
+
+        public Integer getOrderlyLanes() {
+            return orderlyLanes;
+        }
+        public void setOrderlyLanes(Integer orderlyLanes) {
+            this.orderlyLanes = orderlyLanes;
+        }
+
+        public Integer getOrderlyLaneCapacity() {
+            return orderlyLaneCapacity;
+        }
+        public void setOrderlyLaneCapacity(Integer orderlyLaneCapacity) {
+            this.orderlyLaneCapacity = orderlyLaneCapacity;
+        }
+
+        public XRocketMQSimpleConsumerProperties getSimple() {
+            return simple;
+        }
+        public void setSimple(XRocketMQSimpleConsumerProperties simple) {
+            this.simple = simple;
+        }
+
+        public XRocketMQIdempotentProperties getIdempotent() {
+            return idempotent;
+        }
+        public void setIdempotent(XRocketMQIdempotentProperties idempotent) {
+            this.idempotent = idempotent;
+        }
+
+        public XRocketMQAdaptiveProperties getAdaptive() {
+            return adaptive;
+        }
+        public void setAdaptive(XRocketMQAdaptiveProperties adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public XRocketMQRetryProperties getRetry() {
+            return retry;
+        }
+        public void setRetry(XRocketMQRetryProperties retry) {
+            this.retry = retry;
+        }
+
+        public XRocketMQSchedulerProperties getScheduler() {
+            return scheduler;
+        }
+        public void setScheduler(XRocketMQSchedulerProperties scheduler) {
+            this.scheduler = scheduler;
+        }
+    }
+
+    /**
+     * 共享消费调度器配置(开启后SimpleConsumer平台线程消费的监听器共用调度器线程, 不再各自创建消费线程池)
+     */
+    public static class XRocketMQSchedulerProperties {
+
+        /* 是否开启 */
+        private Boolean enabled = XRocketMQConstants.SCHEDULER_ENABLED;
+
+        /* 调度器线程数 */
+        private Integer threads = XRocketMQConstants.SCHEDULER_THREADS;
+
+        /* 每个监听器的最小份额(有消息时优先获得的线程数) */
+        private Integer minShare = XRocketMQConstants.SCHEDULER_MIN_SHARE;
+
+        /* 每个监听器的最大份额(同时占用的线程数上限, 不大于0时为调度器线程数) */
+        private Integer maxShare = XRocketMQConstants.SCHEDULER_MAX_SHARE;
+
+        /* 每个监听器的权重, 超出最小份额的线程按权重比例分配 */
+        private Integer weight = XRocketMQConstants.SCHEDULER_WEIGHT;
+
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getThreads() {
+            return threads;
+        }
+        public void setThreads(Integer threads) {
+            this.threads = threads;
+        }
+
+        public Integer getMinShare() {
+            return minShare;
+        }
+        public void setMinShare(Integer minShare) {
+            this.minShare = minShare;
+        }
+
+        public Integer getMaxShare() {
+            return maxShare;
+        }
+        public void setMaxShare(Integer maxShare) {
+            this.maxShare = maxShare;
+        }
+
+        public Integer getWeight() {
+            return weight;
+        }
+        public void setWeight(Integer weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 本地重试配置(消费方法抛出retryOn中的异常时在本地重试, 重试次数为retryConsumeTimes)
+     */
+    public static class XRocketMQRetryProperties {
+
+        /* 需要重试的异常类型(含异常链中的cause), 为空时不重试 */
+        private List<Class<? extends Throwable>> retryOn = new ArrayList<>();
+
+        /* 首次重试间隔(单位毫秒) */
+        private Long initialBackoff = XRocketMQConstants.RETRY_INITIAL_BACKOFF;
+
+        /* 最大重试间隔(单位毫秒) */
+        private Long maxBackoff = XRocketMQConstants.RETRY_MAX_BACKOFF;
+
+        /* 重试间隔增长倍数 */
+        private Double multiplier = XRocketMQConstants.RETRY_MULTIPLIER;
+
+        /* 随机抖动比例(0~1) */
+        private Double jitter = XRocketMQConstants.RETRY_JITTER;
+
+        /* 总耗时上限(单位毫秒, 含首次调用), 超出后交由broker重新投递 */
+        private Long maxDuration = XRocketMQConstants.RETRY_MAX_DURATION;
+
+
+        public List<Class<? extends Throwable>> getRetryOn() {
+            return retryOn;
+        }
+        public void setRetryOn(List<Class<? extends Throwable>> retryOn) {
+            this.retryOn = retryOn;
+        }
+
+        public Long getInitialBackoff() {
+            return initialBackoff;
+        }
+        public void setInitialBackoff(Long initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Long getMaxBackoff() {
+            return maxBackoff;
+        }
+        public void setMaxBackoff(Long maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Double getMultiplier() {
+            return multiplier;
+        }
+        public void setMultiplier(Double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public Double getJitter() {
+            return jitter;
+        }
+        public void setJitter(Double jitter) {
+            this.jitter = jitter;
+        }
+
+        public Long getMaxDuration() {
+            return maxDuration;
+        }
+        public void setMaxDuration(Long maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+    }
+
+    /**
+     * 自适应并发配置(消费监听器开启adaptive后生效, 并发上限为消费线程数或虚拟线程最大并发数)
+     */
+    public static class XRocketMQAdaptiveProperties {
+
+        /* 并发下限 */
+        private Integer minConcurrency = XRocketMQConstants.ADAPTIVE_MIN_CONCURRENCY;
+
+        /* 平均消费耗时阈值(单位毫秒), 超过时降低并发 */
+        private Long latencyThreshold = XRocketMQConstants.ADAPTIVE_LATENCY_THRESHOLD;
+
+        /* 消费失败率阈值(0~1), 超过时降低并发 */
+        private Double failureRateThreshold = XRocketMQConstants.ADAPTIVE_FAILURE_RATE_THRESHOLD;
+
+        /* 降低并发时的比例(0~1) */
+        private Double backoffRatio = XRocketMQConstants.ADAPTIVE_BACKOFF_RATIO;
+
+        /* 统计窗口(单位毫秒), 每个窗口调整一次 */
+        private Long window = XRocketMQConstants.ADAPTIVE_WINDOW;
+
+
+        public Integer getMinConcurrency() {
+            return minConcurrency;
+        }
+        public void setMinConcurrency(Integer minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public Long getLatencyThreshold() {
+            return latencyThreshold;
+        }
+        public void setLatencyThreshold(Long latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public Double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+        public void setFailureRateThreshold(Double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Double getBackoffRatio() {
+            return backoffRatio;
+        }
+        public void setBackoffRatio(Double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Long getWindow() {
+            return window;
+        }
+        public void setWindow(Long window) {
+            this.window = window;
+        }
+    }
+
+    /**
+     * 消费幂等配置(消费监听器开启idempotent后生效)
+     */
+    public static class XRocketMQIdempotentProperties {
+
+        /* 幂等键类型 */
+        private IdempotentKeyType keyType = XRocketMQConstants.IDEMPOTENT_KEY_TYPE;
+
+        /* 每个消费监听器本地缓存最大条目数 */
+        private Integer capacity = XRocketMQConstants.IDEMPOTENT_CAPACITY;
+
+        /* 幂等键保留时间(单位毫秒) */
+        private Long ttl = XRocketMQConstants.IDEMPOTENT_TTL;
+
+
+        public IdempotentKeyType getKeyType() {
+            return keyType;
+        }
+        public void setKeyType(IdempotentKeyType keyType) {
+            this.keyType = keyType;
+        }
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public Long getTtl() {
+            return ttl;
+        }
+        public void setTtl(Long ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * SimpleConsumer模式配置
+     */
+    public static class XRocketMQSimpleConsumerProperties {
+
+        /* 单次拉取最大消息条数 */
+        private Integer receiveBatchSize = XRocketMQConstants.SIMPLE_RECEIVE_BATCH_SIZE;
+
+        /* 长轮询最大等待时间(单位毫秒) */
+        private Integer awaitDuration = XRocketMQConstants.SIMPLE_AWAIT_DURATION;
+
+        /* 拉取消息的不可见时间(单位毫秒), 超时未确认的消息将重新投递 */
+        private Integer invisibleDuration = XRocketMQConstants.SIMPLE_INVISIBLE_DURATION;
+
+        /* 消费失败后消息的不可见时间(单位毫秒), 即重新投递延迟 */
+        private Integer nackInvisibleDuration = XRocketMQConstants.SIMPLE_NACK_INVISIBLE_DURATION;
+
+
+        public Integer getReceiveBatchSize() {
+            return receiveBatchSize;
+        }
+        public void setReceiveBatchSize(Integer receiveBatchSize) {
+            this.receiveBatchSize = receiveBatchSize;
+        }
+
+        public Integer getAwaitDuration() {
+            return awaitDuration;
+        }
+        public void setAwaitDuration(Integer awaitDuration) {
+            this.awaitDuration = awaitDuration;
+        }
+
+        public Integer getInvisibleDuration() {
+            return invisibleDuration;
+        }
+        public void setInvisibleDuration(Integer invisibleDuration) {
+            this.invisibleDuration = invisibleDuration;
+        }
+
+        public Integer getNackInvisibleDuration() {
+            return nackInvisibleDuration;
+        }
+        public void setNackInvisibleDuration(Integer nackInvisibleDuration) {
+            this.nackInvisibleDuration = nackInvisibleDuration;
+        }
     }
 }
@@ -0,0 +1,204 @@
+package com.leegern.xrocketmq5.core.producer.journal;
+
+import org.apache.rocketmq.client.apis.ClientServiceProvider;
+import org.apache.rocketmq.client.apis.message.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 生产者本地日志测试
+ */
+class XRocketMQProducerJournalTest {
+
+    /* 分段文件大小(最小分段) */
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    /* 消息体大小 */
+    private static final int BODY_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+
+    /**
+     * 追加 -> 关闭 -> 重新打开恢复 -> 重放 -> 删除已重放的分段
+     */
+    @Test
+    void appendRecoverReplayAndDelete() throws Exception {
+        int count = 150;
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            for (int i = 0; i < count; i++) {
+                assertTrue(journal.append(message(i)));
+            }
+            assertEquals(count, journal.getPendingCount());
+        }
+        assertTrue(segmentFiles().size() > 2, "records should span several segments");
+        Path firstSegment = segmentFiles().get(0);
+
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            assertEquals(count, journal.getPendingCount());
+            for (int i = 0; i < count; i++) {
+                XRocketMQProducerJournal.Entry entry = journal.peek(1, TimeUnit.SECONDS);
+                assertNotNull(entry);
+                assertEquals("topic-" + i, entry.getTopic());
+                assertEquals("tag", entry.getTag());
+                assertEquals(List.of("key-" + i), entry.getKeys());
+                assertArrayEquals(body(i), entry.getBody());
+                journal.commit(entry);
+            }
+            assertEquals(0L, journal.getPendingCount());
+            assertNull(journal.peek(10, TimeUnit.MILLISECONDS));
+            assertFalse(Files.exists(firstSegment), "replayed segment should be deleted");
+        }
+
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            assertEquals(0L, journal.getPendingCount());
+            assertNull(journal.peek(10, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 关闭时写入读取位置, 重启后从该位置继续重放
+     */
+    @Test
+    void resumeFromCheckpointAfterClose() throws Exception {
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(journal.append(message(i)));
+            }
+            for (int i = 0; i < 5; i++) {
+                journal.commit(journal.peek(1, TimeUnit.SECONDS));
+            }
+        }
+
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            assertEquals(15L, journal.getPendingCount());
+            assertEquals("topic-5", journal.peek(1, TimeUnit.SECONDS).getTopic());
+        }
+    }
+
+    /**
+     * 重启时截断未写完(CRC校验失败)的末尾记录, 之后的追加覆盖截断位置
+     */
+    @Test
+    void truncateTornTail() throws Exception {
+        int count = 10;
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            for (int i = 0; i < count; i++) {
+                assertTrue(journal.append(message(i)));
+            }
+        }
+        // 破坏最后一条记录的消息体
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int position = 0;
+            ByteBuffer header = ByteBuffer.allocate(4);
+            for (int i = 0; i < count; i++) {
+                header.clear();
+                channel.read(header, position);
+                position += header.flip().getInt() + 8;
+            }
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF, (byte) 0xFF}), position - 2);
+        }
+
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            assertEquals(count - 1, journal.getPendingCount());
+            assertTrue(journal.append(message(count)));
+            for (int i = 0; i < count - 1; i++) {
+                XRocketMQProducerJournal.Entry entry = journal.peek(1, TimeUnit.SECONDS);
+                assertEquals("topic-" + i, entry.getTopic());
+                journal.commit(entry);
+            }
+            XRocketMQProducerJournal.Entry entry = journal.peek(1, TimeUnit.SECONDS);
+            assertEquals("topic-" + count, entry.getTopic());
+            assertArrayEquals(body(count), entry.getBody());
+        }
+
+        // 截断位置之后的残留数据已清除, 再次恢复时记录完整
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 0L, false)) {
+            XRocketMQProducerJournal.Entry entry = journal.peek(1, TimeUnit.SECONDS);
+            assertEquals("topic-" + count, entry.getTopic());
+            journal.commit(entry);
+            assertEquals(0L, journal.getPendingCount());
+        }
+    }
+
+    /**
+     * 分段文件数达到上限时拒绝追加, 重放释放分段后恢复追加
+     */
+    @Test
+    void rejectWhenFullAndResumeAfterReplay() throws Exception {
+        try (XRocketMQProducerJournal journal = new XRocketMQProducerJournal(directory, SEGMENT_SIZE, 2L * SEGMENT_SIZE, false)) {
+            int accepted = 0;
+            while (journal.append(message(accepted))) {
+                accepted++;
+            }
+            assertTrue(accepted > SEGMENT_SIZE / (BODY_SIZE + 64), "both segments should be filled");
+            assertEquals(accepted, journal.getPendingCount());
+            assertFalse(journal.append(message(accepted)));
+
+            // 重放第一个分段的全部记录
+            XRocketMQProducerJournal.Entry entry = journal.peek(1, TimeUnit.SECONDS);
+            int replayed = 0;
+            while (! journal.append(message(accepted))) {
+                assertNotNull(entry);
+                assertEquals("topic-" + replayed, entry.getTopic());
+                journal.commit(entry);
+                replayed++;
+                entry = journal.peek(1, TimeUnit.SECONDS);
+            }
+            assertTrue(replayed < accepted, "appending should resume once the first segment is replayed");
+            assertEquals(accepted + 1 - replayed, journal.getPendingCount());
+
+            // 剩余记录按追加顺序重放, 包括恢复后追加的记录
+            for (int i = replayed; i <= accepted; i++) {
+                assertNotNull(entry);
+                assertEquals("topic-" + i, entry.getTopic());
+                journal.commit(entry);
+                entry = i < accepted ? journal.peek(1, TimeUnit.SECONDS) : null;
+            }
+            assertEquals(0L, journal.getPendingCount());
+        }
+    }
+
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static Message message(int index) {
+        return ClientServiceProvider.loadService().newMessageBuilder()
+                .setTopic("topic-" + index)
+                .setTag("tag")
+                .setKeys("key-" + index)
+                .setBody(body(index))
+                .build();
+    }
+
+    private static byte[] body(int index) {
+        byte[] body = new byte[BODY_SIZE];
+        byte[] prefix = ("body-" + index).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        return body;
+    }
+}